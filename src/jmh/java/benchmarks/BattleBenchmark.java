@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tile.character.Battle;
+import tile.character.BattleLog;
+import tile.character.Enemy;
+import tile.character.Player;
+
+/**
+ * Measures a full Battle against a freshly created Enemy of each dungeon difficulty, both described
+ * in text and recorded only into a reused BattleLog
+ *
+ * @version 1.1
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BattleBenchmark {
+
+    // the difficulty of the dungeon the enemy is from; enemies are one level higher
+    @Param({"0", "1", "2", "3", "4"})
+    private int difficulty;
+
+    private Player player;
+    private final BattleLog log = new BattleLog();
+
+    @Setup
+    public void setUp() {
+        this.player = new Player(1);
+    }
+
+    @Benchmark
+    public String startBattle() {
+        // every battle starts with the player at full health
+        this.player.resetHP();
+        this.player.setAlive(true);
+        return new Battle(this.player, new Enemy(this.difficulty + 1)).startBattle();
+    }
+
+    @Benchmark
+    public BattleLog.Outcome fight() {
+        this.player.resetHP();
+        this.player.setAlive(true);
+        return new Battle(this.player, new Enemy(this.difficulty + 1)).fight(this.log);
+    }
+}
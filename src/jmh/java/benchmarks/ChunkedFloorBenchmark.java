@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import locations.Floor;
+import locations.FloorGenerator;
+import locations.FloorGrid;
+import tile.TileKind;
+
+/**
+ * Measures a walker on a very large generated floor looking at the cells around it, on a dense
+ * grid and on a chunked copy of it with only a few chunks resident. The walker wanders slowly
+ * across the floor, so the chunked grid keeps loading and evicting chunks as it goes.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkedFloorBenchmark {
+
+    // the number of rows and columns of the floor
+    @Param({"2048"})
+    private int size;
+
+    private FloorGrid dense;
+    private FloorGrid chunked;
+    // the walker's location on each grid
+    private int denseX;
+    private int denseY;
+    private int chunkedX;
+    private int chunkedY;
+
+    @Setup
+    public void setUp() {
+        this.dense = FloorGenerator.generate(this.size, this.size, 2, new SplittableRandom(1));
+        this.chunked = this.dense.toChunked(Floor.RESIDENT_CHUNKS);
+        this.denseX = this.denseY = this.chunkedX = this.chunkedY = 1;
+    }
+
+    @Benchmark
+    public int walkDense() {
+        int passable = look(this.dense, this.denseX, this.denseY);
+        this.denseX = advance(this.denseX);
+        this.denseY = advance(this.denseY);
+        return passable;
+    }
+
+    @Benchmark
+    public int walkChunked() {
+        int passable = look(this.chunked, this.chunkedX, this.chunkedY);
+        this.chunkedX = advance(this.chunkedX);
+        this.chunkedY = advance(this.chunkedY);
+        return passable;
+    }
+
+    /**
+     * Counts the passable cells next to the given location, as a player deciding where to move would look at them
+     */
+    private static int look(FloorGrid grid, int x, int y) {
+        int passable = 0;
+        passable += grid.getKind(x - 1, y).isPassable() ? 1 : 0;
+        passable += grid.getKind(x + 1, y).isPassable() ? 1 : 0;
+        passable += grid.getKind(x, y - 1).isPassable() ? 1 : 0;
+        passable += grid.getKind(x, y + 1).isPassable() ? 1 : 0;
+        return passable + (grid.getKind(x, y) == TileKind.WALL ? 0 : 1);
+    }
+
+    /**
+     * Moves one step along a diagonal, wrapping back to the start at the far side of the floor
+     */
+    private int advance(int at) {
+        int next = at + 1;
+        return next >= this.size - 1 ? 1 : next;
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import locations.Floor;
+import locations.FloorGrid;
+import tile.TileKind;
+
+/**
+ * Measures loading a Floor from its floorplan resource, with and without creating its enemies,
+ * and printing its map, at each difficulty
+ *
+ * @version 1.1
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloorBenchmark {
+
+    // the difficulty of the floors to load
+    @Param({"0", "1", "2", "3", "4"})
+    private int difficulty;
+
+    // a floor loaded once, for the map printing benchmark
+    private Floor floor;
+    // where the player marker is printed on the map
+    private Point playerLocation;
+
+    @Setup
+    public void setUp() {
+        this.floor = new Floor(this.difficulty, 0);
+        this.playerLocation = this.floor.getStartPos();
+    }
+
+    @Benchmark
+    public Floor createFloor() {
+        return new Floor(this.difficulty, 0);
+    }
+
+    @Benchmark
+    public Floor createFloorWithEnemies() {
+        Floor floor = new Floor(this.difficulty, 0);
+        FloorGrid grid = floor.getGrid();
+        for (int x = 0; x < grid.getRows(); x++) {
+            for (int y = 0; y < grid.getCols(); y++) {
+                if (grid.getKind(x, y) == TileKind.ENEMY) {
+                    floor.getTileAt(x, y);
+                }
+            }
+        }
+        return floor;
+    }
+
+    @Benchmark
+    public String getFloorMap() {
+        return this.floor.getFloorMap(this.playerLocation);
+    }
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import locations.FloorGrid;
+import locations.FloorplanReader;
+
+/**
+ * Compares parsing a floor plan with FloorplanReader against the Scanner and regex split it replaced.
+ * The file is read into memory up front, so only parsing is measured.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloorplanBenchmark {
+
+    // the floor plan resource to parse
+    @Param({"floorplan0-1", "floorplan4-1"})
+    private String floorplan;
+
+    private byte[] data;
+    private int difficulty;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/" + this.floorplan + ".txt")) {
+            this.data = in.readAllBytes();
+        }
+        this.difficulty = this.floorplan.charAt("floorplan".length()) - '0';
+    }
+
+    @Benchmark
+    public FloorGrid reader() throws IOException {
+        return FloorplanReader.parse(this.data, this.difficulty);
+    }
+
+    /**
+     * The parsing Floor used to do: Scanner for the header, then the rest as one regex-split token
+     */
+    @Benchmark
+    public FloorGrid scanner() {
+        Scanner reader = new Scanner(new ByteArrayInputStream(this.data));
+        int rows = reader.nextInt();
+        int cols = reader.nextInt();
+        reader.useDelimiter("\\Z");
+        String[] floorPlanStringList = reader.next().trim().split("\\n");
+
+        FloorGrid grid = new FloorGrid(rows, cols);
+        for (int y = 0; y < cols; y++) {
+            for (int x = 0; x < rows; x++) {
+                FloorplanReader.setCell(grid, x, y, floorPlanStringList[x].charAt(y), this.difficulty);
+            }
+        }
+        reader.close();
+        return grid;
+    }
+}
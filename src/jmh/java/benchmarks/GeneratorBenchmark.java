@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import locations.Dungeon;
+import locations.FloorGenerator;
+import locations.FloorGrid;
+import locations.WorldGeneration;
+import rng.GameRandom;
+
+/**
+ * Measures generating a single square floor with FloorGenerator, and every floor of the hardest
+ * dungeon one after another or all at once across the common fork/join pool
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    // the number of rows and columns of each floor
+    @Param({"64", "256", "1024"})
+    private int size;
+
+    // a new seed for every floor, so the same layout isn't measured over and over
+    private long seed;
+
+    @Benchmark
+    public FloorGrid generateFloor() {
+        return FloorGenerator.generate(this.size, this.size, 2, new SplittableRandom(this.seed++));
+    }
+
+    @Benchmark
+    public Dungeon generateDungeonEagerly() {
+        return generateDungeon(WorldGeneration.EAGER);
+    }
+
+    @Benchmark
+    public Dungeon generateDungeonInParallel() {
+        return generateDungeon(WorldGeneration.PARALLEL);
+    }
+
+    /**
+     * Generates the five floors of the hardest dungeon, waiting for every one of them
+     */
+    private Dungeon generateDungeon(WorldGeneration generation) {
+        Dungeon dungeon = new Dungeon(4, 4, generation, new GameRandom(this.seed++), this.size, this.size);
+        for (int i = 0; i < dungeon.getFloorCount(); i++) {
+            dungeon.getFloorByID(i);
+        }
+        return dungeon;
+    }
+}
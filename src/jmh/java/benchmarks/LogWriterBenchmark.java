@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import log.AsyncLogWriter;
+
+/**
+ * Measures what logging a line costs the thread doing the logging: java.util.logging writing
+ * through a FileHandler, as the game used to, against the AsyncLogWriter, both dropping lines when
+ * its ring is full and waiting for room (which, kept up, is the rate the writer gets lines to disk).
+ * The written and dropped counts are printed at the end.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogWriterBenchmark {
+
+    private static final String LINE = "You moved to a new tile. You fought an enemy and won, gaining 12 XP.";
+
+    private Path directory;
+    private Logger logger;
+    private FileHandler handler;
+    private AsyncLogWriter dropping;
+    private AsyncLogWriter blocking;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("logbench");
+        this.logger = Logger.getLogger("logbench");
+        this.logger.setUseParentHandlers(false);
+        this.handler = new FileHandler(this.directory.resolve("jul.log").toString());
+        this.handler.setFormatter(new SimpleFormatter());
+        this.logger.addHandler(this.handler);
+        this.dropping = new AsyncLogWriter(this.directory.resolve("drop.log"), 4096,
+                64L * 1024 * 1024, 2, AsyncLogWriter.OverflowPolicy.DROP);
+        this.blocking = new AsyncLogWriter(this.directory.resolve("block.log"), 4096,
+                64L * 1024 * 1024, 2, AsyncLogWriter.OverflowPolicy.BLOCK);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.logger.removeHandler(this.handler);
+        this.handler.close();
+        this.dropping.close();
+        this.blocking.close();
+        System.out.println("Dropping writer: " + this.dropping.getWrittenCount() + " written, "
+                + this.dropping.getDroppedCount() + " dropped");
+        System.out.println("Blocking writer: " + this.blocking.getWrittenCount() + " written, "
+                + this.blocking.getDroppedCount() + " dropped, " + this.blocking.getRotationCount() + " rotations");
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.directory);
+    }
+
+    @Benchmark
+    public void javaUtilLogging() {
+        this.logger.info(LINE);
+    }
+
+    @Benchmark
+    public boolean asyncDropping() {
+        return this.dropping.log(LINE);
+    }
+
+    @Benchmark
+    public boolean asyncBlocking() {
+        return this.blocking.log(LINE);
+    }
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import java.awt.Point;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import engine.GameEngine;
+import engine.Move;
+import tile.Empty;
+import tile.character.Player;
+
+/**
+ * Measures the per-step cost of the game: a random move through Player.updateLocation followed by
+ * Player.playTile on the tile moved onto, as the GUI does on every button press, and the same
+ * walk through the headless GameEngine, with and without narration. playEmptyTile measures just
+ * Player.playTile choosing what to do with a tile
+ *
+ * @version 1.2
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovementBenchmark {
+
+    // the four single-step moves, as used by the GUI's buttons
+    private static final Point[] DIRECTIONS = {
+            new Point(-1, 0), new Point(1, 0), new Point(0, -1), new Point(0, 1)
+    };
+    // the moves matching DIRECTIONS, for the engine
+    private static final Move[] MOVES = {Move.UP, Move.DOWN, Move.LEFT, Move.RIGHT};
+    // a precomputed random walk, so the benchmark doesn't measure the random number generator
+    private final int[] walk = new int[4096];
+
+    private Player player;
+    private GameEngine engine;
+    private GameEngine quietEngine;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < this.walk.length; i++) {
+            this.walk[i] = random.nextInt(DIRECTIONS.length);
+        }
+        this.player = new Player(1);
+        this.engine = new GameEngine(this.player);
+        this.quietEngine = new GameEngine(this.player);
+        this.quietEngine.setNarrating(false);
+    }
+
+    /**
+     * Starts a new game once the current one is won, and revives a dead player so battles keep happening
+     */
+    private void keepPlaying() {
+        if (this.player.isVictorious()) {
+            this.player = new Player(1);
+            this.engine = new GameEngine(this.player);
+            this.quietEngine = new GameEngine(this.player);
+            this.quietEngine.setNarrating(false);
+        } else if (!this.player.isAlive()) {
+            this.player.resetHP();
+            this.player.setAlive(true);
+        }
+    }
+
+    @Benchmark
+    public void step(Blackhole blackhole) {
+        keepPlaying();
+        Point direction = DIRECTIONS[this.walk[this.step++ & (this.walk.length - 1)]];
+        if (this.player.updateLocation(direction)) {
+            blackhole.consume(this.player.playTile(this.player.getFloorTile()));
+        }
+    }
+
+    @Benchmark
+    public String playEmptyTile() {
+        return this.player.playTile(Empty.INSTANCE);
+    }
+
+    @Benchmark
+    public void engineStep(Blackhole blackhole) {
+        keepPlaying();
+        blackhole.consume(this.engine.step(MOVES[this.walk[this.step++ & (this.walk.length - 1)]]));
+    }
+
+    @Benchmark
+    public void quietEngineStep(Blackhole blackhole) {
+        keepPlaying();
+        blackhole.consume(this.quietEngine.step(MOVES[this.walk[this.step++ & (this.walk.length - 1)]]));
+    }
+}
@@ -0,0 +1,127 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import locations.FloorGrid;
+import locations.Pathfinder;
+import tile.TileKind;
+
+/**
+ * Measures Pathfinder queries on square floors of random walls, doors and enemies, with breadth-first
+ * search and A*. Local queries go to a reachable cell up to 32 steps away in each direction, as a
+ * click on the visible part of a big floor would; far queries go to any reachable cell.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathfindingBenchmark {
+
+    // the number of queries of each kind cycled through
+    private static final int QUERIES = 256;
+    // the furthest a local query's target is from its start, in rows and in columns
+    private static final int LOCAL_RANGE = 32;
+
+    // the number of rows and columns of the floor
+    @Param({"64", "256", "1024"})
+    private int size;
+
+    private FloorGrid grid;
+    private final Pathfinder pathfinder = new Pathfinder();
+    // start and target locations of each query: fromX, fromY, toX, toY
+    private final int[] local = new int[QUERIES * 4];
+    private final int[] far = new int[QUERIES * 4];
+    private int query;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        this.grid = new FloorGrid(this.size, this.size);
+        for (int cell = 0; cell < this.size * this.size; cell++) {
+            int roll = random.nextInt(100);
+            if (roll < 20) {
+                this.grid.setKind(cell, TileKind.WALL);
+            } else if (roll < 22) {
+                this.grid.setKind(cell, TileKind.ENEMY);
+            } else if (roll < 23) {
+                this.grid.setKind(cell, TileKind.GOLD_DOOR);
+                this.grid.setValue(cell, 1 + random.nextInt(10));
+            } else {
+                this.grid.setKind(cell, TileKind.EMPTY);
+            }
+        }
+        fillQueries(random, this.local, LOCAL_RANGE);
+        fillQueries(random, this.far, this.size);
+    }
+
+    /**
+     * Picks start and target pairs no further apart than the given range that have a path between them
+     */
+    private void fillQueries(SplittableRandom random, int[] queries, int range) {
+        int found = 0;
+        while (found < QUERIES) {
+            int fromX = random.nextInt(this.size);
+            int fromY = random.nextInt(this.size);
+            int toX = clamp(fromX + random.nextInt(2 * range + 1) - range);
+            int toY = clamp(fromY + random.nextInt(2 * range + 1) - range);
+            if (this.grid.getKind(fromX, fromY) != TileKind.WALL
+                    && this.pathfinder.findPath(this.grid, fromX, fromY, toX, toY, 5, false) > 0) {
+                queries[found * 4] = fromX;
+                queries[found * 4 + 1] = fromY;
+                queries[found * 4 + 2] = toX;
+                queries[found * 4 + 3] = toY;
+                found++;
+            }
+        }
+    }
+
+    private int clamp(int value) {
+        return Math.max(0, Math.min(this.size - 1, value));
+    }
+
+    private int find(int[] queries, boolean aStar) {
+        int i = (this.query++ & (QUERIES - 1)) * 4;
+        if (aStar) {
+            return this.pathfinder.findPathAStar(this.grid, queries[i], queries[i + 1], queries[i + 2], queries[i + 3], 5, false);
+        }
+        return this.pathfinder.findPath(this.grid, queries[i], queries[i + 1], queries[i + 2], queries[i + 3], 5, false);
+    }
+
+    @Benchmark
+    public int localBfs() {
+        return find(this.local, false);
+    }
+
+    @Benchmark
+    public int localAStar() {
+        return find(this.local, true);
+    }
+
+    @Benchmark
+    public int farBfs() {
+        return find(this.far, false);
+    }
+
+    @Benchmark
+    public int farAStar() {
+        return find(this.far, true);
+    }
+}
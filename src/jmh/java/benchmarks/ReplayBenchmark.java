@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.GameEngine;
+import engine.Move;
+import replay.Replayer;
+import replay.SessionRecording;
+import save.SaveFormatException;
+
+/**
+ * Measures replaying a recorded session of random moves from its seed, checking the final state hash
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayBenchmark {
+
+    // the number of moves in the session
+    @Param({"1000", "10000"})
+    private int moves;
+
+    private SessionRecording recording;
+
+    /**
+     * Records a session of random moves, played with text as the GUI plays them
+     */
+    @Setup
+    public void setUp() {
+        GameEngine engine = new GameEngine(42);
+        this.recording = new SessionRecording(42);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < this.moves; i++) {
+            Move move = Move.values()[random.nextInt(Move.values().length)];
+            this.recording.record(move);
+            engine.step(move);
+        }
+        this.recording.finish(Replayer.hashState(engine.getPlayer()));
+    }
+
+    @Benchmark
+    public Replayer.Result replay() throws SaveFormatException {
+        Replayer.Result result = Replayer.replay(this.recording);
+        if (!result.matches()) {
+            throw new IllegalStateException("The replay didn't end in the recorded state");
+        }
+        return result;
+    }
+}
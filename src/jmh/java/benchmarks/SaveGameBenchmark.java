@@ -0,0 +1,121 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.GameEngine;
+import engine.Move;
+import locations.FloorGrid;
+import save.SaveGame;
+import tile.TileKind;
+import tile.character.Player;
+
+/**
+ * Measures saving and loading a late-game state: encoding it, decoding it (which rebuilds the
+ * world the save refers to), and the round trip through a file. The size of the save is printed
+ * when the state is set up.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveGameBenchmark {
+
+    private Player player;
+    private byte[] saved;
+    private Path file;
+
+    /**
+     * Plays games until one reaches the third dungeon: wandering about each floor for a while,
+     * fighting and collecting on the way, then heading for the stairs
+     */
+    @Setup
+    public void setUp() throws IOException {
+        for (long seed = 1; this.player == null; seed++) {
+            GameEngine engine = new GameEngine(seed);
+            engine.setNarrating(false);
+            SplittableRandom moves = new SplittableRandom(seed);
+            Player player = engine.getPlayer();
+            while (player.isAlive() && player.getCurrentDungeonID() < 2) {
+                for (int i = 0; i < 300 && player.isAlive(); i++) {
+                    engine.step(Move.values()[moves.nextInt(Move.values().length)]);
+                }
+                walkToStairs(engine);
+            }
+            if (player.isAlive()) {
+                this.player = player;
+            }
+        }
+        ByteBuffer buffer = SaveGame.encode(this.player);
+        this.saved = new byte[buffer.remaining()];
+        buffer.get(this.saved);
+        this.file = Files.createTempFile("savegame", ".dat");
+        System.out.println("Save size: " + this.saved.length + " bytes");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return SaveGame.encode(this.player);
+    }
+
+    @Benchmark
+    public Player decode() throws IOException {
+        return SaveGame.read(Channels.newChannel(new ByteArrayInputStream(this.saved)));
+    }
+
+    @Benchmark
+    public Player saveAndLoadFile() throws IOException {
+        SaveGame.save(this.player, this.file);
+        return SaveGame.load(this.file);
+    }
+
+    /**
+     * Walks the player to the stairs of their floor, taking them
+     */
+    private static void walkToStairs(GameEngine engine) {
+        Player player = engine.getPlayer();
+        FloorGrid grid = player.getCurrentFloor().getGrid();
+        for (int x = 0; x < grid.getRows(); x++) {
+            for (int y = 0; y < grid.getCols(); y++) {
+                if (grid.getKind(x, y) == TileKind.STAIRS) {
+                    int floor = player.getCurrentFloorID();
+                    int dungeon = player.getCurrentDungeonID();
+                    while (player.isAlive() && floor == player.getCurrentFloorID()
+                            && dungeon == player.getCurrentDungeonID()
+                            && engine.stepTowards(x, y, true) != null) {
+                        // keep walking
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import locations.Floor;
+import locations.FloorGrid;
+
+/**
+ * Measures the heap a Floor takes once every one of its tiles has been asked for, as the GUI and
+ * Player do while exploring. With the gc profiler on (see build.gradle), gc.alloc.rate.norm is the
+ * number of bytes allocated per floor - the floor's grid state plus every tile view created over it.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TileFootprintBenchmark {
+
+    // the difficulty of the floors to load
+    @Param({"0", "2", "4"})
+    private int difficulty;
+
+    @Benchmark
+    public Floor createFloorWithAllTiles() {
+        Floor floor = new Floor(this.difficulty, 0);
+        FloorGrid grid = floor.getGrid();
+        for (int x = 0; x < grid.getRows(); x++) {
+            for (int y = 0; y < grid.getCols(); y++) {
+                floor.getTileAt(x, y);
+            }
+        }
+        return floor;
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import locations.Dungeon;
+import locations.Map;
+import locations.WorldGeneration;
+import tile.character.Player;
+
+/**
+ * Measures building the whole game world, and starting a new game, with each way of generating floors
+ *
+ * @version 1.1
+ * @author karamimamali
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorldBenchmark {
+
+    @Param({"EAGER", "LAZY", "PARALLEL"})
+    private WorldGeneration generation;
+
+    /**
+     * Builds a Map and waits for every one of its floors, so that each mode does the same work
+     */
+    @Benchmark
+    public Map createMap() {
+        Map map = new Map(this.generation);
+        for (int i = 0; i < map.getHowManyDungeons(); i++) {
+            Dungeon dungeon = map.getDungeonByID(i);
+            for (int j = 0; j < dungeon.getFloorCount(); j++) {
+                dungeon.getFloorByID(j);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * The latency of starting a game: until the player is standing on the first floor.
+     * Floors still being built in the background are left to finish, so they do compete for CPU time.
+     */
+    @Benchmark
+    public Player createPlayer() {
+        return new Player(1, this.generation);
+    }
+
+    /**
+     * Lets any background floor building finish, so it doesn't spill over into the next iteration
+     */
+    @TearDown(Level.Iteration)
+    public void awaitBackgroundFloors() {
+        ForkJoinPool.commonPool().awaitQuiescence(1, TimeUnit.MINUTES);
+    }
+}
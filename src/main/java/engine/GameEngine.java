@@ -0,0 +1,207 @@
+package engine;
+
+import locations.Floor;
+import locations.FloorGrid;
+import locations.Pathfinder;
+import locations.WorldGeneration;
+import rng.GameRandom;
+import tile.TileKind;
+import tile.character.Battle;
+import tile.character.BattleLog;
+import tile.character.Enemy;
+import tile.character.Player;
+
+/**
+ * Drives a game headlessly: takes Move commands, applies them to the Player and its current Floor,
+ * plays the tile moved onto (fighting any Battle) and reports what happened as a StepResult.
+ * Nothing here touches the GUI, so any number of engines can run side by side, eg. for bots.
+ * When not narrating, no text is produced at all and battles are only recorded in a BattleLog.
+ * The player can also be walked towards a location one step at a time, eg. for click-to-move.
+ *
+ * @version 1.3
+ * @author karamimamali
+ */
+public class GameEngine {
+
+    // the player being moved around the world
+    private final Player player;
+    // the result filled in by every step
+    private final StepResult result = new StepResult();
+    // the record of the last battle fought while not narrating
+    private final BattleLog battleLog = new BattleLog();
+    // whether steps describe the tile played in text, as the GUI needs
+    private boolean narrating = true;
+    // finds the paths followed by stepTowards, created on first use
+    private Pathfinder pathfinder;
+
+    /**
+     * Creates an engine for a new game, with a level 1 player
+     */
+    public GameEngine() {
+        this(new Player(1));
+    }
+
+    /**
+     * Creates an engine for a new game, with a level 1 player, whose every random choice comes from
+     * the given seed - the same seed and the same moves always play out the same way
+     *
+     * @param seed The seed the game's random choices are derived from
+     */
+    public GameEngine(long seed) {
+        this(new Player(1, WorldGeneration.LAZY, new GameRandom(seed)));
+    }
+
+    /**
+     * Creates an engine driving the given player
+     *
+     * @param player The player to move around the world
+     */
+    public GameEngine(Player player) {
+        this.player = player;
+    }
+
+    /**
+     * Returns the player driven by this engine
+     *
+     * @return The player driven by this engine
+     */
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * Sets whether steps describe the tile played in text (the default). Without narration,
+     * StepResult.getMessage() is always null and no battle text is built.
+     *
+     * @param narrating True to describe each tile played in text, false for no text
+     */
+    public void setNarrating(boolean narrating) {
+        this.narrating = narrating;
+    }
+
+    /**
+     * Returns the record of the last battle fought while not narrating
+     *
+     * @return The log of the last battle fought without narration
+     */
+    public BattleLog getBattleLog() {
+        return this.battleLog;
+    }
+
+    /**
+     * Moves the player one step, opening any gold door they can afford, and plays the tile moved onto.
+     * Once the player has died or won the game is over, and the step isn't taken.
+     *
+     * @param move The direction to move in
+     * @return What happened - the same object is reused by the next step
+     */
+    public StepResult step(Move move) {
+        Floor floor = this.player.getCurrentFloor();
+        FloorGrid grid = floor.getGrid();
+        int fromX = this.player.getFloorX();
+        int fromY = this.player.getFloorY();
+        int x = fromX + move.getDX();
+        int y = fromY + move.getDY();
+        this.result.reset(fromX, fromY, x, y);
+
+        if (!this.player.isAlive() || this.player.isVictorious() || !grid.isInBounds(x, y)) {
+            return this.result;
+        }
+
+        // note the state of the target cell before moving, to work out what changed
+        int cell = grid.index(x, y);
+        TileKind kind = grid.getKind(cell);
+        boolean doorWasOpen = kind == TileKind.GOLD_DOOR && grid.isOpen(cell);
+        boolean enemyWasAlive = kind == TileKind.ENEMY && !grid.isDead(cell);
+        this.result.setTileKind(kind);
+        if (kind == TileKind.GOLD_DOOR) {
+            this.result.setDoor(grid.getValue(cell), false);
+        }
+
+        int goldBefore = this.player.getGold();
+        if (!this.player.moveBy(move.getDX(), move.getDY())) {
+            return this.result;
+        }
+        this.result.setMoved(true);
+        if (kind == TileKind.GOLD_DOOR && !doorWasOpen) {
+            this.result.setDoor(grid.getValue(cell), true);
+        }
+
+        int dungeonBefore = this.player.getCurrentDungeonID();
+        int floorBefore = this.player.getCurrentFloorID();
+        int levelBefore = this.player.getLevel();
+        boolean victoriousBefore = this.player.isVictorious();
+
+        if (this.narrating) {
+            this.result.setMessage(this.player.playTile(floor.getTileAt(x, y)));
+        } else {
+            playQuietly(floor, grid, x, y, cell, kind);
+        }
+
+        this.result.setGoldDelta(this.player.getGold() - goldBefore);
+        this.result.setLevelledUp(this.player.getLevel() > levelBefore);
+        if (kind == TileKind.ENEMY) {
+            if (!enemyWasAlive) {
+                this.result.setBattleOutcome(StepResult.BattleOutcome.CORPSE);
+            } else if (grid.isDead(cell)) {
+                this.result.setBattleOutcome(StepResult.BattleOutcome.WON);
+            } else {
+                this.result.setBattleOutcome(StepResult.BattleOutcome.LOST);
+            }
+        }
+        if (this.player.isVictorious() && !victoriousBefore) {
+            this.result.setTransition(StepResult.Transition.VICTORY);
+        } else if (this.player.getCurrentDungeonID() != dungeonBefore) {
+            this.result.setTransition(StepResult.Transition.DUNGEON);
+        } else if (this.player.getCurrentFloorID() != floorBefore) {
+            this.result.setTransition(StepResult.Transition.FLOOR);
+        }
+        return this.result;
+    }
+
+    /**
+     * Takes one step along a shortest path to the given location on the current floor, through any
+     * closed door the player can afford. Calling this until the player arrives walks them there.
+     *
+     * @param x The row to walk to
+     * @param y The column to walk to
+     * @param avoidEnemies True to walk around living enemies on the way, false to fight through them
+     * @return What happened - the same object is reused by the next step - or null if the player
+     * is already there or no path leads there
+     */
+    public StepResult stepTowards(int x, int y, boolean avoidEnemies) {
+        if (this.pathfinder == null) {
+            this.pathfinder = new Pathfinder();
+        }
+        FloorGrid grid = this.player.getCurrentFloor().getGrid();
+        int fromX = this.player.getFloorX();
+        int fromY = this.player.getFloorY();
+        if (this.pathfinder.findPathAStar(grid, fromX, fromY, x, y, this.player.getGold(), avoidEnemies) <= 0) {
+            return null;
+        }
+        return step(Move.fromOffset(this.pathfinder.getPathX(0) - fromX, this.pathfinder.getPathY(0) - fromY));
+    }
+
+    /**
+     * Applies the effects of the tile the player has moved onto, as Player.playTile does but without any text
+     */
+    private void playQuietly(Floor floor, FloorGrid grid, int x, int y, int cell, TileKind kind) {
+        switch (kind) {
+            case GOLD:
+                if (!grid.isCollected(cell)) {
+                    this.player.getStats().addGold(grid.getValue(cell));
+                    grid.collect(cell);
+                }
+                break;
+            case ENEMY:
+                new Battle(this.player, (Enemy) floor.getTileAt(x, y)).fight(this.battleLog);
+                break;
+            case STAIRS:
+                this.player.useStairs();
+                break;
+            default:
+                // doors were opened by moving onto them; other tiles do nothing
+                break;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package engine;
+
+/**
+ * A single-step move command for the GameEngine. Moves are expressed as row (x) and column (y)
+ * offsets on the floor, the same way the GUI's direction buttons move the player.
+ *
+ * @version 1.1
+ * @author karamimamali
+ */
+public enum Move {
+    UP(-1, 0),
+    DOWN(1, 0),
+    LEFT(0, -1),
+    RIGHT(0, 1);
+
+    // the number of rows this move goes by
+    private final int dx;
+    // the number of columns this move goes by
+    private final int dy;
+
+    Move(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * Returns the number of rows this move goes by
+     *
+     * @return The row offset of this move
+     */
+    public int getDX() {
+        return this.dx;
+    }
+
+    /**
+     * Returns the number of columns this move goes by
+     *
+     * @return The column offset of this move
+     */
+    public int getDY() {
+        return this.dy;
+    }
+
+    /**
+     * Returns the move that goes by the given row and column offsets
+     *
+     * @param dx The number of rows to move by
+     * @param dy The number of columns to move by
+     * @return The matching move, or null if no single step goes by those offsets
+     */
+    public static Move fromOffset(int dx, int dy) {
+        for (Move move : values()) {
+            if (move.dx == dx && move.dy == dy) {
+                return move;
+            }
+        }
+        return null;
+    }
+}
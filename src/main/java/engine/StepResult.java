@@ -0,0 +1,290 @@
+package engine;
+
+import tile.TileKind;
+
+/**
+ * The structured outcome of a single GameEngine step: whether the player moved or was blocked,
+ * what kind of tile was played, how any battle ended, how much gold changed hands and whether
+ * the player changed floor or dungeon. An engine reuses one StepResult for every step, so its
+ * values are only valid until the next step.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class StepResult {
+
+    /**
+     * How a battle fought during the step ended
+     */
+    public enum BattleOutcome {
+        // no enemy was encountered
+        NONE,
+        // the enemy was defeated
+        WON,
+        // the player was defeated
+        LOST,
+        // the enemy had already been defeated, so there was no battle
+        CORPSE
+    }
+
+    /**
+     * Where the player ended up after the step, if they took some stairs
+     */
+    public enum Transition {
+        // stayed on the same floor
+        NONE,
+        // went down to the next floor of the same dungeon
+        FLOOR,
+        // went on to the next dungeon
+        DUNGEON,
+        // won the game
+        VICTORY
+    }
+
+    // whether the player moved; if false, the move was blocked
+    private boolean moved;
+    // the kind of tile moved onto, or that blocked the move (null if the move left the floor)
+    private TileKind tileKind;
+    // the row and column the player moved from
+    private int fromX;
+    private int fromY;
+    // the row and column the player moved (or tried to move) to
+    private int toX;
+    private int toY;
+    // the cost of the gold door moved onto or blocking the move, else 0
+    private int doorCost;
+    // whether a gold door was opened by this move
+    private boolean doorOpened;
+    // how any battle ended
+    private BattleOutcome battleOutcome;
+    // the change in the player's gold, including any spent on doors
+    private int goldDelta;
+    // whether the player levelled up
+    private boolean levelledUp;
+    // whether the player changed floor or dungeon
+    private Transition transition;
+    // the text describing the tile that was played, or null if the move was blocked
+    private String message;
+
+    /**
+     * Creates a result for a blocked move that has not yet been filled in
+     */
+    StepResult() {
+        reset(0, 0, 0, 0);
+    }
+
+    /**
+     * Clears the result ready for a new step between the given locations
+     *
+     * @param fromX The row the player is moving from
+     * @param fromY The column the player is moving from
+     * @param toX The row the player is moving to
+     * @param toY The column the player is moving to
+     */
+    void reset(int fromX, int fromY, int toX, int toY) {
+        this.moved = false;
+        this.tileKind = null;
+        this.fromX = fromX;
+        this.fromY = fromY;
+        this.toX = toX;
+        this.toY = toY;
+        this.doorCost = 0;
+        this.doorOpened = false;
+        this.battleOutcome = BattleOutcome.NONE;
+        this.goldDelta = 0;
+        this.levelledUp = false;
+        this.transition = Transition.NONE;
+        this.message = null;
+    }
+
+    /**
+     * Sets whether the player moved
+     *
+     * @param moved True if the player moved, false if the move was blocked
+     */
+    void setMoved(boolean moved) {
+        this.moved = moved;
+    }
+
+    /**
+     * Sets the kind of tile that was moved onto, or that blocked the move
+     *
+     * @param tileKind The kind of tile
+     */
+    void setTileKind(TileKind tileKind) {
+        this.tileKind = tileKind;
+    }
+
+    /**
+     * Sets the cost of the gold door involved in the move, and whether the move opened it
+     *
+     * @param doorCost The cost of the door
+     * @param doorOpened True if the move opened the door
+     */
+    void setDoor(int doorCost, boolean doorOpened) {
+        this.doorCost = doorCost;
+        this.doorOpened = doorOpened;
+    }
+
+    /**
+     * Sets how any battle fought during the step ended
+     *
+     * @param battleOutcome The battle outcome
+     */
+    void setBattleOutcome(BattleOutcome battleOutcome) {
+        this.battleOutcome = battleOutcome;
+    }
+
+    /**
+     * Sets the change in the player's gold
+     *
+     * @param goldDelta The change in the player's gold
+     */
+    void setGoldDelta(int goldDelta) {
+        this.goldDelta = goldDelta;
+    }
+
+    /**
+     * Sets whether the player levelled up during the step
+     *
+     * @param levelledUp True if the player levelled up
+     */
+    void setLevelledUp(boolean levelledUp) {
+        this.levelledUp = levelledUp;
+    }
+
+    /**
+     * Sets whether the player changed floor or dungeon, or won the game
+     *
+     * @param transition The transition made
+     */
+    void setTransition(Transition transition) {
+        this.transition = transition;
+    }
+
+    /**
+     * Sets the text describing the tile that was played
+     *
+     * @param message The text describing the tile played
+     */
+    void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Returns whether the player moved
+     *
+     * @return True if the player moved, false if the move was blocked
+     */
+    public boolean isMoved() {
+        return this.moved;
+    }
+
+    /**
+     * Returns the kind of tile that was moved onto, or that blocked the move
+     *
+     * @return The kind of tile moved onto or blocking the move, or null if the move would have left the floor
+     */
+    public TileKind getTileKind() {
+        return this.tileKind;
+    }
+
+    /**
+     * Returns the row the player moved from
+     *
+     * @return The row the player moved from
+     */
+    public int getFromX() {
+        return this.fromX;
+    }
+
+    /**
+     * Returns the column the player moved from
+     *
+     * @return The column the player moved from
+     */
+    public int getFromY() {
+        return this.fromY;
+    }
+
+    /**
+     * Returns the row the player moved, or tried to move, to. Meaningless after a floor or dungeon transition.
+     *
+     * @return The row the player moved to
+     */
+    public int getToX() {
+        return this.toX;
+    }
+
+    /**
+     * Returns the column the player moved, or tried to move, to. Meaningless after a floor or dungeon transition.
+     *
+     * @return The column the player moved to
+     */
+    public int getToY() {
+        return this.toY;
+    }
+
+    /**
+     * Returns the cost of the gold door that was moved onto or that blocked the move
+     *
+     * @return The door's cost, or 0 if no door was involved
+     */
+    public int getDoorCost() {
+        return this.doorCost;
+    }
+
+    /**
+     * Returns whether this move opened a gold door
+     *
+     * @return True if a gold door was opened, else false
+     */
+    public boolean isDoorOpened() {
+        return this.doorOpened;
+    }
+
+    /**
+     * Returns how any battle fought during the step ended
+     *
+     * @return The battle outcome, NONE if no enemy was encountered
+     */
+    public BattleOutcome getBattleOutcome() {
+        return this.battleOutcome;
+    }
+
+    /**
+     * Returns the change in the player's gold, including any spent opening doors
+     *
+     * @return The change in the player's gold
+     */
+    public int getGoldDelta() {
+        return this.goldDelta;
+    }
+
+    /**
+     * Returns whether the player levelled up during the step
+     *
+     * @return True if the player levelled up, else false
+     */
+    public boolean isLevelledUp() {
+        return this.levelledUp;
+    }
+
+    /**
+     * Returns whether the player changed floor or dungeon, or won the game
+     *
+     * @return The transition made, NONE if the player stayed on the same floor
+     */
+    public Transition getTransition() {
+        return this.transition;
+    }
+
+    /**
+     * Returns the text describing the tile that was played, as Player.playTile gives it
+     *
+     * @return The text describing the tile played, or null if the move was blocked
+     */
+    public String getMessage() {
+        return this.message;
+    }
+}
@@ -0,0 +1,161 @@
+package gui;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps the dungeon pictures ready to draw. Each dungeon's image is decoded once, into an image laid
+ * out the way the screen draws fastest, and scaled copies of it are kept for the size they were asked
+ * for, so showing the same dungeon at the same size again costs nothing. A dungeon with no image gets
+ * a placeholder, made once. The next dungeon's image can be decoded ahead of time in the background.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class DungeonImageCache {
+
+    // where the images are loaded from, and the placeholder for dungeons without one
+    private final Class<?> resourceBase;
+    private final IntFunction<BufferedImage> placeholders;
+
+    // each dungeon's decoded image (null if it has none), finished or being decoded
+    private final ConcurrentHashMap<Integer, CompletableFuture<BufferedImage>> decoded = new ConcurrentHashMap<>();
+    // each dungeon's placeholder, once made
+    private final ConcurrentHashMap<Integer, BufferedImage> placeholderImages = new ConcurrentHashMap<>();
+    // each dungeon's image scaled to the size last asked for, and that size (only used on the event thread)
+    private final Map<Integer, BufferedImage> scaled = new HashMap<>();
+    private int scaledWidth;
+    private int scaledHeight;
+
+    /**
+     * Creates an empty cache
+     *
+     * @param resourceBase The class the images are loaded as resources of, as "/dungeonN.jpg"
+     * @param placeholders Makes the placeholder for a dungeon, given its ID, if it has no image
+     */
+    public DungeonImageCache(Class<?> resourceBase, IntFunction<BufferedImage> placeholders) {
+        this.resourceBase = resourceBase;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Returns the given dungeon's image scaled to the given size, decoding and scaling it only if
+     * it hasn't been already. Asking for a different size drops the copies scaled to the old one.
+     * A dungeon without an image gets its placeholder, which isn't scaled.
+     *
+     * @param dungeonID The ID of the dungeon
+     * @param width The width to scale to; if it or the height isn't positive, the image isn't scaled
+     * @param height The height to scale to
+     * @return The image to show
+     */
+    public BufferedImage getImage(int dungeonID, int width, int height) {
+        BufferedImage image = getDecoded(dungeonID).join();
+        if (image == null) {
+            return this.placeholderImages.computeIfAbsent(dungeonID, this.placeholders::apply);
+        }
+        if (width <= 0 || height <= 0) {
+            return image;
+        }
+        if (width != this.scaledWidth || height != this.scaledHeight) {
+            this.scaled.clear();
+            this.scaledWidth = width;
+            this.scaledHeight = height;
+        }
+        return this.scaled.computeIfAbsent(dungeonID, id -> scale(image, width, height));
+    }
+
+    /**
+     * Starts decoding the given dungeon's image in the background, unless it has already been started
+     *
+     * @param dungeonID The ID of the dungeon
+     */
+    public void prefetch(int dungeonID) {
+        CompletableFuture<BufferedImage> image = new CompletableFuture<>();
+        if (this.decoded.putIfAbsent(dungeonID, image) == null) {
+            ForkJoinPool.commonPool().execute(() -> decode(image, dungeonID));
+        }
+    }
+
+    /**
+     * Returns the given dungeon's decoded image, decoding it now if it hasn't been started
+     */
+    private CompletableFuture<BufferedImage> getDecoded(int dungeonID) {
+        CompletableFuture<BufferedImage> image = this.decoded.get(dungeonID);
+        if (image == null) {
+            CompletableFuture<BufferedImage> started = new CompletableFuture<>();
+            image = this.decoded.putIfAbsent(dungeonID, started);
+            if (image == null) {
+                decode(started, dungeonID);
+                image = started;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Decodes the given dungeon's image, completing the given future with it, or with null if it
+     * has no image or it can't be read
+     */
+    private void decode(CompletableFuture<BufferedImage> image, int dungeonID) {
+        URL url = this.resourceBase.getResource("/dungeon" + dungeonID + ".jpg");
+        try {
+            BufferedImage read = url == null ? null : ImageIO.read(url);
+            image.complete(read == null ? null : copy(read, read.getWidth(), read.getHeight()));
+        } catch (IOException e) {
+            System.err.println("Error loading image for dungeon " + dungeonID + ": " + e.getMessage());
+            image.complete(null);
+        } catch (RuntimeException e) {
+            image.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Scales an image down (or up) to the given size, halving it a step at a time while it is more
+     * than twice the size wanted, so it keeps as much detail as a smooth scale
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage result = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        while (currentWidth / 2 >= width && currentHeight / 2 >= height) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            result = copy(result, currentWidth, currentHeight);
+        }
+        return copy(result, width, height);
+    }
+
+    /**
+     * Draws an image into a new one of the given size, laid out the way the screen draws fastest
+     */
+    private static BufferedImage copy(BufferedImage image, int width, int height) {
+        BufferedImage copy = createCompatibleImage(width, height, image.getColorModel().hasAlpha());
+        Graphics2D g2d = copy.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(image, 0, 0, width, height, null);
+        g2d.dispose();
+        return copy;
+    }
+
+    /**
+     * Creates an image the screen can draw without converting it, or a plain one if there is no screen
+     */
+    private static BufferedImage createCompatibleImage(int width, int height, boolean alpha) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, alpha ? Transparency.TRANSLUCENT : Transparency.OPAQUE);
+        }
+        return new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -0,0 +1,287 @@
+package gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shows the game log: the most recent messages, each in its own colour and word wrapped to the
+ * width of the view. Only a fixed number of messages are kept, in a ring, the oldest making way for
+ * new ones, and only the rows that are visible are painted. Every message added while handling one
+ * event (such as a move) is shown with a single update and repaint, once the event has been handled,
+ * scrolled to the newest message.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class LogView extends JComponent implements Scrollable {
+
+    private static final long serialVersionUID = 1L;
+
+    // the gap left around the messages and between them, in pixels
+    private static final int PADDING = 5;
+    private static final int ENTRY_GAP = 4;
+    // the width messages are wrapped to before the view has been laid out
+    private static final int DEFAULT_WIDTH = 480;
+
+    /**
+     * A message kept in the ring, with its style and the rows it is wrapped into
+     */
+    private static final class Entry {
+        private String text;
+        // the index of the message's colour in the palette
+        private int style;
+        // the message wrapped to the view's width, and its height in pixels
+        private String[] rows;
+        private int height;
+    }
+
+    // the messages, oldest first from head, and the number kept
+    private final Entry[] entries;
+    private int head;
+    private int count;
+    // the height of every message kept, in pixels, gaps included
+    private int totalHeight;
+    // the width messages are currently wrapped to
+    private int wrapWidth = DEFAULT_WIDTH;
+
+    // the colours messages have been shown in, each one's index kept so messages only store the index
+    private final List<Color> palette = new ArrayList<>();
+    private final Map<Color, Integer> styles = new HashMap<>();
+
+    // whether messages have been added that haven't been shown yet
+    private boolean updatePending;
+
+    /**
+     * Creates an empty log view
+     *
+     * @param capacity The most messages kept; older messages are dropped
+     * @param font The font messages are shown in
+     * @param background The colour drawn behind the messages
+     */
+    public LogView(int capacity, Font font, Color background) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.entries = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.entries[i] = new Entry();
+        }
+        setFont(font);
+        setBackground(background);
+        setOpaque(true);
+    }
+
+    /**
+     * Adds a message to the end of the log. It is shown once the current event has been handled,
+     * together with every other message added before then.
+     *
+     * @param message The message to add
+     * @param color The colour to show it in
+     */
+    public void append(String message, Color color) {
+        Entry entry;
+        if (this.count == this.entries.length) {
+            // reuse the oldest message's entry
+            entry = this.entries[this.head];
+            this.totalHeight -= entry.height;
+            this.head = (this.head + 1) % this.entries.length;
+        } else {
+            entry = this.entries[(this.head + this.count) % this.entries.length];
+            this.count++;
+        }
+        entry.text = message;
+        entry.style = getStyle(color);
+        wrap(entry, getFontMetrics(getFont()));
+        this.totalHeight += entry.height;
+
+        if (!this.updatePending) {
+            this.updatePending = true;
+            SwingUtilities.invokeLater(this::showUpdates);
+        }
+    }
+
+    /**
+     * Returns the number of messages kept
+     *
+     * @return The number of messages
+     */
+    public int getMessageCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the index of the given colour in the palette, adding it if it's new
+     */
+    private int getStyle(Color color) {
+        Integer style = this.styles.get(color);
+        if (style == null) {
+            style = this.palette.size();
+            this.palette.add(color);
+            this.styles.put(color, style);
+        }
+        return style;
+    }
+
+    /**
+     * Shows the messages added since the last update: resizes the view to fit them and scrolls to the newest
+     */
+    private void showUpdates() {
+        this.updatePending = false;
+        revalidate();
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            JViewport viewport = (JViewport) parent;
+            // lay the view out now rather than later, so it can be scrolled to the bottom straight away
+            viewport.doLayout();
+            int bottom = Math.max(0, getHeight() - viewport.getExtentSize().height);
+            viewport.setViewPosition(new Point(0, bottom));
+        }
+        repaint();
+    }
+
+    /**
+     * Splits a message into the rows it takes up at the current wrap width, breaking between words
+     * where it can, and works out its height
+     */
+    private void wrap(Entry entry, FontMetrics metrics) {
+        int width = Math.max(1, this.wrapWidth - 2 * PADDING);
+        List<String> rows = new ArrayList<>();
+        String text = entry.text;
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            wrapLine(text.substring(start, end), width, metrics, rows);
+            start = end + 1;
+        }
+        if (rows.isEmpty()) {
+            rows.add("");
+        }
+        entry.rows = rows.toArray(new String[0]);
+        entry.height = entry.rows.length * metrics.getHeight() + ENTRY_GAP;
+    }
+
+    /**
+     * Splits a line without line breaks into rows no wider than the given width
+     */
+    private static void wrapLine(String line, int width, FontMetrics metrics, List<String> rows) {
+        int start = 0;
+        int rowWidth = 0;
+        // where the last space in the current row is, to break there
+        int lastSpace = -1;
+        int i = 0;
+        while (i < line.length()) {
+            int codePoint = line.codePointAt(i);
+            int charWidth = metrics.charWidth(codePoint);
+            if (rowWidth + charWidth > width && i > start) {
+                // break after the last whole word, or here if a single word doesn't fit
+                int end = lastSpace > start ? lastSpace : i;
+                rows.add(line.substring(start, end));
+                start = end;
+                while (start < line.length() && line.charAt(start) == ' ') {
+                    start++;
+                }
+                i = start;
+                rowWidth = 0;
+                lastSpace = -1;
+                continue;
+            }
+            if (codePoint == ' ') {
+                lastSpace = i;
+            }
+            rowWidth += charWidth;
+            i += Character.charCount(codePoint);
+        }
+        rows.add(line.substring(start));
+    }
+
+    /**
+     * Wraps every message again once the view's width changes
+     */
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        super.setBounds(x, y, width, height);
+        if (width > 0 && width != this.wrapWidth) {
+            this.wrapWidth = width;
+            FontMetrics metrics = getFontMetrics(getFont());
+            this.totalHeight = 0;
+            for (int i = 0; i < this.count; i++) {
+                Entry entry = this.entries[(this.head + i) % this.entries.length];
+                wrap(entry, metrics);
+                this.totalHeight += entry.height;
+            }
+            revalidate();
+            repaint();
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(this.wrapWidth, this.totalHeight + 2 * PADDING);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setFont(getFont());
+        FontMetrics metrics = g2d.getFontMetrics();
+        int rowHeight = metrics.getHeight();
+
+        // skip the messages above the area being repainted, and stop after the last one in it
+        int top = PADDING;
+        for (int i = 0; i < this.count && top < clip.y + clip.height; i++) {
+            Entry entry = this.entries[(this.head + i) % this.entries.length];
+            if (top + entry.height > clip.y) {
+                g2d.setColor(this.palette.get(entry.style));
+                for (int row = 0; row < entry.rows.length; row++) {
+                    int rowTop = top + row * rowHeight;
+                    if (rowTop + rowHeight > clip.y && rowTop < clip.y + clip.height) {
+                        g2d.drawString(entry.rows[row], PADDING, rowTop + metrics.getAscent());
+                    }
+                }
+            }
+            top += entry.height;
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        // fill the viewport while the messages don't
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+    }
+}
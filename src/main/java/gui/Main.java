@@ -1,14 +1,15 @@
 package gui;
 
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.swing.text.SimpleAttributeSet;
-import tile.GoldDoor;
-import tile.Stairs;
-import tile.Gold;
-import tile.Tile;
-import tile.character.Enemy;
+import engine.GameEngine;
+import engine.Move;
+import engine.StepResult;
+import log.AsyncLogWriter;
+import replay.Replayer;
+import replay.SessionRecording;
+import save.SaveGame;
+import sound.MusicPlayer;
+import sound.SoundEffects;
+import tile.TileKind;
 import tile.character.Player;
 
 import javax.swing.*;
@@ -20,13 +21,15 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.FileHandler;
-import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 
 /**
  * Enhanced Main GUI class with improved visualizations
@@ -37,19 +40,39 @@ import java.util.logging.SimpleFormatter;
 public class Main extends JFrame {
 
     // Components
-    private JTextPane log;
+    private LogView log;
     private JPanel mapPanel;
     private JPanel dungeonImagePanel;
     private JLabel dungeonStat, floorStat, levelStat, hpStat, xpStat, goldStat;
     private JButton up, down, left, right, help, quit;
     private JProgressBar hpBar, xpBar;
-    private JPanel minimap;
+    private MinimapPanel minimap;
 
     // Game state
+    private static final Path SAVE_FILE = Paths.get("savegame.dat");
+    // how many log lines can wait to be written, and when and how far back the log file is rotated
+    private static final int LOG_CAPACITY = 4096;
+    private static final long LOG_MAX_FILE_BYTES = 8L * 1024 * 1024;
+    private static final int LOG_MAX_FILES = 4;
+    // how many messages the game log panel keeps
+    private static final int LOG_VIEW_CAPACITY = 500;
     private Player player;
-    private Logger logger;
-
-    private Clip backgroundMusic;
+    private GameEngine engine;
+    // writes the game log in the background, so logging never waits for the disk
+    private AsyncLogWriter logWriter;
+    // every move made in the current game, to play it again with replay.Replayer
+    private SessionRecording recording;
+    // where the current game's recording is written, one file per game played this session
+    private Path recordingFile;
+    // how many games have been started this session, to keep each game's recording file apart
+    private int gamesStarted;
+    // when the session started, naming its log and recording files
+    private String sessionTimestamp;
+
+    // the track played in every dungeon without one of its own, "/music/dungeonN.wav"
+    private static final String DEFAULT_MUSIC = "/music/fight-for-the-future-336841.wav";
+    // streams the background music on its own thread
+    private MusicPlayer backgroundMusic;
 
     // Visual elements
     private final Color BACKGROUND_COLOR = new Color(32, 32, 40);
@@ -67,24 +90,42 @@ public class Main extends JFrame {
     // Animation related fields
     private Timer animationTimer;
     private JLabel playerAnimationLabel;
+
+    // Dungeon pictures, decoded and scaled once, and the one being shown
+    private final DungeonImageCache dungeonImages = new DungeonImageCache(getClass(), this::createDungeonPlaceholder);
+    private final JLabel dungeonImageLabel = new JLabel();
+    private BufferedImage shownDungeonImage;
     private ImageIcon[] playerAnimationFrames;
     private int currentFrame = 0;
 
     // Sound effects
+    private static final String[] SOUND_EFFECTS = {"move", "gold", "battle", "stairs", "door", "locked", "bump", "victory"};
+    // the most sound effects that play at once
+    private static final int SOUND_VOICES = 8;
     private boolean soundEnabled = true;
+    // decoded once, and mixed and played off the event thread
+    private SoundEffects soundEffects;
 
     public Main() {
         setTitle("Djeneric Dungeon Crawler");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                saveGame();
+                closeLog();
+            }
+        });
         setSize(1300, 700);
         setLocationRelativeTo(null);
 
         initializeTileColors();
         initializeLogger();
+        soundEffects = new SoundEffects(getClass(), SOUND_EFFECTS, SOUND_VOICES);
+        backgroundMusic = new MusicPlayer(getClass());
         initializeUI();
-        initializeGame();
+        initializeGame(true);
         initializeAnimations();
-        playBackgroundMusic("/music/fight-for-the-future-336841.wav");
     }
 
     private void initializeTileColors() {
@@ -100,17 +141,23 @@ public class Main extends JFrame {
 
     private void initializeLogger() {
         try {
-            logger = Logger.getLogger("gamelog");
-            String timestamp = new SimpleDateFormat("M-d_HHmmss").format(Calendar.getInstance().getTime());
-            FileHandler handler = new FileHandler("gamelog_" + timestamp + ".log");
-            handler.setFormatter(new SimpleFormatter());
-            logger.addHandler(handler);
+            sessionTimestamp = new SimpleDateFormat("M-d_HHmmss").format(Calendar.getInstance().getTime());
+            // the UI never waits for the log: lines logged faster than they can be written are dropped
+            logWriter = new AsyncLogWriter(Paths.get("gamelog_" + sessionTimestamp + ".log"), LOG_CAPACITY,
+                    LOG_MAX_FILE_BYTES, LOG_MAX_FILES, AsyncLogWriter.OverflowPolicy.DROP);
         } catch (IOException e) {
             System.out.println("IOException while initializing logger");
             e.printStackTrace();
         }
     }
 
+    // Writes out the rest of the log and closes it, before the game exits
+    private void closeLog() {
+        if (logWriter != null) {
+            logWriter.close();
+        }
+    }
+
     private void initializeUI() {
         // Set the look and feel to a darker theme
         try {
@@ -172,9 +219,7 @@ public class Main extends JFrame {
         mapPanel.setMinimumSize(new Dimension(300, 300));
 
         // Create the minimap panel for the detailed tile view
-        minimap = new JPanel();
-        minimap.setBackground(PANEL_COLOR);
-        minimap.setPreferredSize(new Dimension(280, 280));
+        minimap = new MinimapPanel(tileColors, PANEL_COLOR);
         mapPanel.add(minimap, BorderLayout.CENTER);
 
         leftPanel.add(mapPanel);
@@ -325,7 +370,7 @@ public class Main extends JFrame {
             soundEnabled = !soundEnabled;
             soundToggle.setText("Sound: " + (soundEnabled ? "ON" : "OFF"));
             if (soundEnabled) {
-                playBackgroundMusic("/music/fight-for-the-future-336841.wav");
+                playBackgroundMusic();
             } else {
                 stopBackgroundMusic();
             }
@@ -359,6 +404,18 @@ public class Main extends JFrame {
         playerAnimationLabel.setVerticalAlignment(SwingConstants.BOTTOM);
         dungeonImagePanel.add(playerAnimationLabel, BorderLayout.CENTER);
 
+        // Rescale the dungeon picture when the panel changes size, unless something else is showing
+        dungeonImageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        dungeonImagePanel.addComponentListener(new java.awt.event.ComponentAdapter() {
+            @Override
+            public void componentResized(java.awt.event.ComponentEvent e) {
+                BorderLayout layout = (BorderLayout) dungeonImagePanel.getLayout();
+                if (player != null && layout.getLayoutComponent(BorderLayout.CENTER) == dungeonImageLabel) {
+                    updatePicture();
+                }
+            }
+        });
+
         centerPanel.add(dungeonImagePanel, BorderLayout.CENTER);
         centerPanel.add(createButtonsPanel(), BorderLayout.SOUTH);
 
@@ -391,14 +448,16 @@ public class Main extends JFrame {
         gbc.gridx = 3; gbc.gridy = 1; buttonsPanel.add(quit, gbc);
 
         // Add action listeners
-        up.addActionListener(e -> handleMovement(new Point(-1, 0)));
-        down.addActionListener(e -> handleMovement(new Point(1, 0)));
-        left.addActionListener(e -> handleMovement(new Point(0, -1)));
-        right.addActionListener(e -> handleMovement(new Point(0, 1)));
+        up.addActionListener(e -> handleMovement(Move.UP));
+        down.addActionListener(e -> handleMovement(Move.DOWN));
+        left.addActionListener(e -> handleMovement(Move.LEFT));
+        right.addActionListener(e -> handleMovement(Move.RIGHT));
 
         help.addActionListener(this::showHelp);
         quit.addActionListener(e -> {
             logFileOnly("pressed quit");
+            saveGame();
+            closeLog();
             System.exit(0);
         });
 
@@ -443,24 +502,11 @@ public class Main extends JFrame {
                 new Font("SansSerif", Font.BOLD, 16),
                 TEXT_COLOR));
 
-        log = new JTextPane();
-        log.setEditable(false);
-        log.setFont(new Font("SansSerif", Font.PLAIN, 16));
-// Add this instead for word wrapping in JTextPane
-        SimpleAttributeSet attrs = new SimpleAttributeSet();
-        StyleConstants.setFontFamily(attrs, "SansSerif");
-        StyleConstants.setFontSize(attrs, 16);
-        StyleConstants.setForeground(attrs, TEXT_COLOR);
-        log.setParagraphAttributes(attrs, true);
-
-// This enables word wrapping in JTextPane
-        log.setEditorKit(new javax.swing.text.html.HTMLEditorKit());
-        log.setContentType("text/html");
-        log.setBackground(PANEL_COLOR);
-        log.setForeground(TEXT_COLOR);
-        log.setCaretColor(TEXT_COLOR);
+        // only the most recent messages are kept, and only those in view are painted
+        log = new LogView(LOG_VIEW_CAPACITY, new Font("SansSerif", Font.PLAIN, 16), PANEL_COLOR);
 
         JScrollPane scrollPane = new JScrollPane(log);
+        scrollPane.getViewport().setBackground(PANEL_COLOR);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
         scrollPane.getVerticalScrollBar().setUI(new CustomScrollBarUI());
         rightPanel.add(scrollPane, BorderLayout.CENTER);
@@ -501,13 +547,71 @@ public class Main extends JFrame {
         }
     }
 
-    private void initializeGame() {
+    // Starts a game, carrying on from the saved game if resume is set and there is one, or else a new game
+    private void initializeGame(boolean resume) {
+        // the game being left behind keeps its own recording
+        saveRecording();
+        gamesStarted++;
+        recordingFile = Paths.get("session_" + sessionTimestamp + (gamesStarted > 1 ? "_" + gamesStarted : "") + ".rec");
         log("Welcome to the most fantastic *Djeneric Dungeon Crawler!*", GOLD_COLOR);
-        log("You stride into the fiendishly not very difficult Caverns of Adoddle", Color.WHITE);
-        player = new Player(1);
+        player = resume ? loadGame() : null;
+        if (player == null) {
+            log("You stride into the fiendishly not very difficult Caverns of Adoddle", Color.WHITE);
+            player = new Player(1);
+            recording = new SessionRecording(player.getRandom().getSeed());
+        } else {
+            log("You pick up where you left off, on floor " + (player.getCurrentFloorID() + 1)
+                    + " of dungeon " + (player.getCurrentDungeonID() + 1) + ".", Color.WHITE);
+            ByteBuffer save = SaveGame.encode(player);
+            recording = new SessionRecording(Arrays.copyOf(save.array(), save.limit()));
+        }
+        engine = new GameEngine(player);
         updateMap();
         updatePicture();
         updateStats();
+        if (soundEnabled) {
+            playBackgroundMusic();
+        }
+    }
+
+    // Returns the saved game, or null if there isn't one or it can't be read
+    private Player loadGame() {
+        if (!Files.exists(SAVE_FILE)) {
+            return null;
+        }
+        try {
+            return SaveGame.load(SAVE_FILE);
+        } catch (IOException e) {
+            System.err.println("Error loading saved game: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Saves the game to carry on next time, or removes the save once the game is over, and writes the game's recording
+    private void saveGame() {
+        saveRecording();
+        try {
+            if (player.isAlive() && !player.isVictorious()) {
+                SaveGame.save(player, SAVE_FILE);
+            } else {
+                Files.deleteIfExists(SAVE_FILE);
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving game: " + e.getMessage());
+        }
+    }
+
+    // Finishes the current game's recording with its final state and writes it, unless there is none or it has been already
+    private void saveRecording() {
+        if (recording == null || recording.isFinished()) {
+            return;
+        }
+        recording.finish(Replayer.hashState(player));
+        try {
+            recording.save(recordingFile);
+        } catch (IOException e) {
+            System.err.println("Error saving session recording: " + e.getMessage());
+        }
     }
 
     private void initializeAnimations() {
@@ -537,59 +641,49 @@ public class Main extends JFrame {
         animationTimer.start();
     }
 
-    private void handleMovement(Point movement) {
-        logFileOnly("pressed " + getDirectionName(movement));
-
-        // Check the target location before moving
-        Point targetPosition = new Point(player.getFloorLocation().x + movement.x, player.getFloorLocation().y + movement.y);
-        Tile targetTile = player.getCurrentFloor().getTileByPoint(targetPosition);
-
-        // Check if we're moving onto a gold door
-        boolean movingToGoldDoor = false;
-        int doorCost = 0;
-        boolean doorWasOpen = false;
-
-        if (targetTile instanceof GoldDoor) {
-            GoldDoor door = (GoldDoor) targetTile;
-            movingToGoldDoor = true;
-            doorCost = door.getCost();
-            doorWasOpen = door.isOpen();
-        }
+    private void handleMovement(Move move) {
+        logFileOnly("pressed " + move.name().toLowerCase());
+        recording.record(move);
 
-        // Try to move (will automatically open door if player has enough gold)
-        boolean moved = player.updateLocation(movement);
+        // Try to move (will automatically open door if player has enough gold) and play the tile
+        StepResult result = engine.step(move);
 
-        if (moved) {
+        if (result.isMoved()) {
             // Play sound effect for movement
             if (soundEnabled) {
                 playSound("move");
             }
 
             // Add movement animation
-            animateMovement(movement);
+            animateMovement(move);
 
-            // If we moved onto a gold door that wasn't open before, it must have been
-            // automatically opened (since we successfully moved there)
-            if (movingToGoldDoor && !doorWasOpen) {
-                log("You spend " + doorCost + " gold to open the door. It swings open with a satisfying click!", GOLD_COLOR);
+            if (result.isDoorOpened()) {
+                log("You spend " + result.getDoorCost() + " gold to open the door. It swings open with a satisfying click!", GOLD_COLOR);
                 if (soundEnabled) {
                     playSound("door");
                 }
             }
 
-            // Play the tile and update game state
-            String tileResult = playTile();
-            log(tileResult, getTileResultColor(tileResult));
+            // Play sound effects based on tile type
+            if (soundEnabled) {
+                playTileSound(result.getTileKind());
+            }
+            log(result.getMessage(), getTileResultColor(result));
+
+            // A new dungeon brings its own music
+            if (result.getTransition() == StepResult.Transition.DUNGEON && soundEnabled) {
+                playBackgroundMusic();
+            }
 
             // Update visual elements
-            updateMap();
+            updateMap(result);
             updateStats();
             updatePicture();
             checkFinished();
         } else {
             // If we tried to move to a gold door but couldn't, explain why
-            if (movingToGoldDoor && !doorWasOpen) {
-                log("This door requires " + doorCost + " gold to open. You only have " + player.getGold() + " gold. You cannot pass through.", GOLD_COLOR);
+            if (result.getTileKind() == TileKind.GOLD_DOOR) {
+                log("This door requires " + result.getDoorCost() + " gold to open. You only have " + player.getGold() + " gold. You cannot pass through.", GOLD_COLOR);
                 if (soundEnabled) {
                     playSound("locked");
                 }
@@ -604,35 +698,18 @@ public class Main extends JFrame {
 
 
 
-    private void playBackgroundMusic(String filepath) {
-        try {
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(getClass().getResource(filepath));
-            backgroundMusic = AudioSystem.getClip();
-            backgroundMusic.open(audioInputStream);
-            backgroundMusic.loop(Clip.LOOP_CONTINUOUSLY); // Loops indefinitely
-        } catch (Exception e) {
-            System.err.println("Error loading background music: " + e.getMessage());
-        }
+    // Fades to the current dungeon's music, streamed in the background; does nothing if it's already playing
+    private void playBackgroundMusic() {
+        String track = "/music/dungeon" + player.getCurrentDungeonID() + ".wav";
+        backgroundMusic.play(getClass().getResource(track) != null ? track : DEFAULT_MUSIC);
     }
 
-
     private void stopBackgroundMusic() {
-        if (backgroundMusic != null && backgroundMusic.isRunning()) {
-            backgroundMusic.stop();
-            backgroundMusic.close();
-        }
+        backgroundMusic.stop();
     }
 
 
-    private String getDirectionName(Point movement) {
-        if (movement.x == -1 && movement.y == 0) return "up";
-        if (movement.x == 1 && movement.y == 0) return "down";
-        if (movement.x == 0 && movement.y == -1) return "left";
-        if (movement.x == 0 && movement.y == 1) return "right";
-        return "unknown";
-    }
-
-    private void animateMovement(Point movement) {
+    private void animateMovement(Move move) {
         // This would be a more sophisticated animation in a real implementation
         // For now, we'll just flash the player animation
         Timer flashTimer = new Timer(50, null);
@@ -655,29 +732,21 @@ public class Main extends JFrame {
         flashTimer.start();
     }
 
-    private Color getTileResultColor(String result) {
-        if (result.contains("gold")) return GOLD_COLOR;
-        if (result.contains("hit")) return Color.RED;
-        if (result.contains("defeated") || result.contains("victorious")) return new Color(80, 220, 120);
+    private Color getTileResultColor(StepResult result) {
+        if (result.getTileKind() == TileKind.GOLD || result.getTileKind() == TileKind.GOLD_DOOR) return GOLD_COLOR;
+        if (result.getBattleOutcome() == StepResult.BattleOutcome.WON
+                || result.getBattleOutcome() == StepResult.BattleOutcome.LOST) return Color.RED;
         return Color.WHITE;
     }
 
-    private String playTile() {
-        Tile currentTile = player.getFloorTile();
-        String result = player.playTile(currentTile);
-
-        // Play sound effects based on tile type
-        if (soundEnabled) {
-            if (currentTile instanceof Gold) {
-                playSound("gold");
-            } else if (currentTile instanceof Enemy) {
-                playSound("battle");
-            } else if (currentTile instanceof Stairs) {
-                playSound("stairs");
-            }
+    private void playTileSound(TileKind kind) {
+        if (kind == TileKind.GOLD) {
+            playSound("gold");
+        } else if (kind == TileKind.ENEMY) {
+            playSound("battle");
+        } else if (kind == TileKind.STAIRS) {
+            playSound("stairs");
         }
-
-        return result;
     }
 
     private void updateStats() {
@@ -705,49 +774,35 @@ public class Main extends JFrame {
 
     private void updatePicture() {
         try {
-            String imagePath = "/dungeon" + player.getCurrentDungeonID() + ".jpg";
-            java.net.URL imageURL = getClass().getResource(imagePath);
-
-            if (imageURL == null) {
-                // If image not found, create a placeholder
-                BufferedImage placeholder = createDungeonPlaceholder();
-                ImageIcon icon = new ImageIcon(placeholder);
-
-                // Add the image to the panel (under the player animation)
-                JLabel imageLabel = new JLabel(icon);
-                imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                dungeonImagePanel.removeAll(); // Clear previous components
-                dungeonImagePanel.add(imageLabel, BorderLayout.CENTER);
-                dungeonImagePanel.add(playerAnimationLabel, BorderLayout.SOUTH);
-            } else {
-                // Load the actual image
-                ImageIcon icon = new ImageIcon(imageURL);
-
-                // Scale the image to fit the panel
-                Image scaledImage = icon.getImage().getScaledInstance(
-                        dungeonImagePanel.getWidth() - 20,
-                        dungeonImagePanel.getHeight() - 80,
-                        Image.SCALE_SMOOTH);
-
-                // Add the image to the panel (under the player animation)
-                JLabel imageLabel = new JLabel(new ImageIcon(scaledImage));
-                imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            int dungeonID = player.getCurrentDungeonID();
+            // decoded and scaled only the first time this dungeon is shown at this size
+            BufferedImage image = dungeonImages.getImage(dungeonID,
+                    dungeonImagePanel.getWidth() - 20, dungeonImagePanel.getHeight() - 80);
+
+            // Put the image back in the panel (under the player animation) if something else took its place
+            BorderLayout layout = (BorderLayout) dungeonImagePanel.getLayout();
+            if (layout.getLayoutComponent(BorderLayout.CENTER) != dungeonImageLabel) {
                 dungeonImagePanel.removeAll(); // Clear previous components
-                dungeonImagePanel.add(imageLabel, BorderLayout.CENTER);
+                dungeonImagePanel.add(dungeonImageLabel, BorderLayout.CENTER);
                 dungeonImagePanel.add(playerAnimationLabel, BorderLayout.SOUTH);
+                playerAnimationLabel.setVisible(true);
+                dungeonImagePanel.revalidate();
+                dungeonImagePanel.repaint();
+            }
+            if (image != shownDungeonImage) {
+                shownDungeonImage = image;
+                dungeonImageLabel.setIcon(new ImageIcon(image));
+                // decode the next dungeon's image while this one is played
+                if (dungeonID + 1 < player.getWorldMap().getHowManyDungeons()) {
+                    dungeonImages.prefetch(dungeonID + 1);
+                }
             }
-
-            // Ensure player animation is visible
-            playerAnimationLabel.setVisible(true);
-            dungeonImagePanel.revalidate();
-            dungeonImagePanel.repaint();
-
         } catch (Exception e) {
             log("Error loading image: " + e.getMessage(), Color.RED);
         }
     }
 
-    private BufferedImage createDungeonPlaceholder() {
+    private BufferedImage createDungeonPlaceholder(int dungeonID) {
         // Create a placeholder image for dungeons without images
         BufferedImage placeholder = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2d = placeholder.createGraphics();
@@ -780,139 +835,26 @@ public class Main extends JFrame {
         // Add dungeon name
         g2d.setColor(new Color(200, 200, 200));
         g2d.setFont(new Font("SansSerif", Font.BOLD, 24));
-        g2d.drawString("Dungeon " + (player.getCurrentDungeonID() + 1), 130, 50);
+        g2d.drawString("Dungeon " + (dungeonID + 1), 130, 50);
 
         g2d.dispose();
         return placeholder;
     }
 
     private void updateMap() {
-        // Clear the existing map
-        minimap.removeAll();
-
-        // Get the map data
-        String rawMap = player.getPrintableMap();
-        String[] mapLines = rawMap.split("\n");
-
-        // Create a grid layout based on the map dimensions
-        int rows = mapLines.length;
-        int cols = rows > 0 ? mapLines[0].length() : 0;
-
-        minimap.setLayout(new GridLayout(rows, cols, 1, 1));
-
-        // Player position
-        Point playerPos = player.getFloorLocation();
-
-        // Create a colored tile for each character in the map
-        for (int i = 0; i < rows; i++) {
-            String line = mapLines[i];
-            for (int j = 0; j < line.length(); j++) {
-                char tileChar = line.charAt(j);
-
-                JPanel tilePanel = new JPanel();
-                tilePanel.setPreferredSize(new Dimension(20, 20));
-
-                // Set the color and icon based on the tile type
-                Color tileColor = PANEL_COLOR; // Default color
-                String tooltip = "";
-
-                switch (tileChar) {
-                    case 'P': // Player
-                        tileColor = tileColors.get("Player");
-                        tooltip = "Player";
-
-                        // Add an animated player marker
-                        tilePanel.setLayout(new BorderLayout());
-                        JLabel playerMarker = new JLabel("P");
-                        playerMarker.setForeground(Color.WHITE);
-                        playerMarker.setFont(new Font("SansSerif", Font.BOLD, 14));
-                        playerMarker.setHorizontalAlignment(SwingConstants.CENTER);
-                        tilePanel.add(playerMarker, BorderLayout.CENTER);
-                        break;
-                    case '-': // Wall
-                        tileColor = tileColors.get("Wall");
-                        tooltip = "Wall";
-                        break;
-                    case 's': // Start
-                        tileColor = tileColors.get("Start");
-                        tooltip = "Start";
-                        break;
-                    case 'x': // Stairs
-                        tileColor = tileColors.get("Stairs");
-                        tooltip = "Stairs to next level";
-                        break;
-                    case 'o': // Empty
-                        tileColor = tileColors.get("Empty");
-                        tooltip = "Empty tile";
-                        break;
-                    case 'e': // Enemy
-                        tileColor = tileColors.get("Enemy");
-                        tooltip = "Enemy";
-
-                        // Add an enemy marker
-                        tilePanel.setLayout(new BorderLayout());
-                        JLabel enemyMarker = new JLabel("E");
-                        enemyMarker.setForeground(Color.WHITE);
-                        enemyMarker.setFont(new Font("SansSerif", Font.BOLD, 14));
-                        enemyMarker.setHorizontalAlignment(SwingConstants.CENTER);
-                        tilePanel.add(enemyMarker, BorderLayout.CENTER);
-                        break;
-                    case 'g': // Gold
-                        tileColor = tileColors.get("Gold");
-                        tooltip = "Gold";
-
-                        // Add a gold marker
-                        tilePanel.setLayout(new BorderLayout());
-                        JLabel goldMarker = new JLabel("G");
-                        goldMarker.setForeground(Color.BLACK);
-                        goldMarker.setFont(new Font("SansSerif", Font.BOLD, 14));
-                        goldMarker.setHorizontalAlignment(SwingConstants.CENTER);
-                        tilePanel.add(goldMarker, BorderLayout.CENTER);
-                        break;
-                    case 'd': // Gold Door (closed)
-                        tileColor = tileColors.get("Gold Door");
-                        tooltip = "Gold Door (closed)";
-
-                        // Add a door marker
-                        tilePanel.setLayout(new BorderLayout());
-                        JLabel doorMarker = new JLabel("D");
-                        doorMarker.setForeground(Color.WHITE);
-                        doorMarker.setFont(new Font("SansSerif", Font.BOLD, 14));
-                        doorMarker.setHorizontalAlignment(SwingConstants.CENTER);
-                        tilePanel.add(doorMarker, BorderLayout.CENTER);
-                        break;
-                    case 'D': // Gold Door (open)
-                        tileColor = new Color(140, 120, 80); // Lighter color for open door
-                        tooltip = "Gold Door (open)";
-
-                        // Add an open door marker
-                        tilePanel.setLayout(new BorderLayout());
-                        JLabel openDoorMarker = new JLabel("O");
-                        openDoorMarker.setForeground(Color.WHITE);
-                        openDoorMarker.setFont(new Font("SansSerif", Font.BOLD, 14));
-                        openDoorMarker.setHorizontalAlignment(SwingConstants.CENTER);
-                        tilePanel.add(openDoorMarker, BorderLayout.CENTER);
-                        break;
-                }
-
-                tilePanel.setBackground(tileColor);
-                tilePanel.setBorder(BorderFactory.createLineBorder(new Color(30, 30, 30), 1));
-
-                // Add tooltip
-                tilePanel.setToolTipText(tooltip);
-
-                // Add a slight glow effect for the player's current position
-                if (i == playerPos.x && j == playerPos.y) {
-                    tilePanel.setBorder(BorderFactory.createLineBorder(Color.WHITE, 2));
-                }
+        // Redraw the whole floor, eg. on starting a game
+        minimap.showFloor(player.getCurrentFloor(), player.getFloorX(), player.getFloorY());
+    }
 
-                minimap.add(tilePanel);
-            }
+    private void updateMap(StepResult result) {
+        // A new floor needs drawing from scratch
+        if (result.getTransition() != StepResult.Transition.NONE) {
+            updateMap();
+            return;
         }
-
-        // Refresh the minimap
-        minimap.revalidate();
-        minimap.repaint();
+        // Otherwise only the cells the floor logged as changed (eg. an opened door) and the player marker need redrawing
+        minimap.refreshChangedCells();
+        minimap.movePlayer(player.getFloorX(), player.getFloorY());
     }
 
     private void checkFinished() {
@@ -920,26 +862,39 @@ public class Main extends JFrame {
             log("🎉 Congratulations, you have completed all dungeons! 🎉", GOLD_COLOR);
 
             // Disable movement buttons
-            up.setEnabled(false);
-            down.setEnabled(false);
-            left.setEnabled(false);
-            right.setEnabled(false);
+            disableMovement();
 
             // Show victory animation/screen
-            showVictoryScreen();
+            showEndScreen(true);
+        } else if (!player.isAlive()) {
+            log("☠ You have fallen in the dungeon. Your adventure ends here. ☠", Color.RED);
+
+            // The engine no longer takes moves, so stop offering them
+            disableMovement();
+
+            // Show game over screen
+            showEndScreen(false);
         }
     }
 
-    private void showVictoryScreen() {
-        // Create a victory overlay
+    private void disableMovement() {
+        up.setEnabled(false);
+        down.setEnabled(false);
+        left.setEnabled(false);
+        right.setEnabled(false);
+    }
+
+    // Shows the victory or game over screen over the dungeon picture, with a button to play again
+    private void showEndScreen(boolean victory) {
+        // Create an end of game overlay
         JPanel victoryPanel = new JPanel(new BorderLayout());
         victoryPanel.setBackground(new Color(0, 0, 0, 150));
         victoryPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
-        // Create victory message
-        JLabel victoryLabel = new JLabel("VICTORY!");
+        // Create victory or game over message
+        JLabel victoryLabel = new JLabel(victory ? "VICTORY!" : "GAME OVER");
         victoryLabel.setFont(new Font("SansSerif", Font.BOLD, 48));
-        victoryLabel.setForeground(GOLD_COLOR);
+        victoryLabel.setForeground(victory ? GOLD_COLOR : new Color(220, 80, 80));
         victoryLabel.setHorizontalAlignment(SwingConstants.CENTER);
 
         // Create stats summary
@@ -959,7 +914,9 @@ public class Main extends JFrame {
         statsPanel.add(goldLabel);
 
         // Add some flair
-        JLabel congratsLabel = new JLabel("You have conquered the dungeons!");
+        JLabel congratsLabel = new JLabel(victory ? "You have conquered the dungeons!"
+                : "You were defeated on floor " + (player.getCurrentFloorID() + 1)
+                + " of dungeon " + (player.getCurrentDungeonID() + 1) + ".");
         congratsLabel.setFont(new Font("SansSerif", Font.BOLD, 20));
         congratsLabel.setForeground(TEXT_COLOR);
         congratsLabel.setHorizontalAlignment(SwingConstants.CENTER);
@@ -969,8 +926,8 @@ public class Main extends JFrame {
         JButton playAgainButton = createButton("Play Again", new Font("SansSerif", Font.BOLD, 20),
                 200, 60, "Start a new game", new Color(80, 180, 80), new Color(100, 220, 100));
         playAgainButton.addActionListener(e -> {
-            // Reset the game
-            initializeGame();
+            // Reset the game, starting afresh rather than from the save
+            initializeGame(false);
             enableButtons();
 
             // Remove victory screen
@@ -995,7 +952,7 @@ public class Main extends JFrame {
         dungeonImagePanel.repaint();
 
         // Play victory sound
-        if (soundEnabled) {
+        if (victory && soundEnabled) {
             playSound("victory");
         }
     }
@@ -1098,19 +1055,9 @@ public class Main extends JFrame {
     }
 
     private void log(String message, Color color) {
-        // Create styled document for colored text
-        StyledDocument doc = (StyledDocument) log.getDocument();
-        Style style = log.addStyle("ColorStyle", null);
-        StyleConstants.setForeground(style, color);
-
-        try {
-            doc.insertString(doc.getLength(), message + "\n", style);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        log.setCaretPosition(log.getDocument().getLength());
-        logger.info(message);
+        // shown along with the move's other messages once it has been handled
+        log.append(message, color);
+        logFileOnly(message);
     }
 
     private void log(String message) {
@@ -1118,7 +1065,9 @@ public class Main extends JFrame {
     }
 
     private void logFileOnly(String message) {
-        logger.info(message);
+        if (logWriter != null) {
+            logWriter.log(message);
+        }
     }
 
     /**
@@ -1127,25 +1076,9 @@ public class Main extends JFrame {
      * @param soundType Type of sound to play
      */
     private void playSound(String soundType) {
-        // In a real implementation, this would play actual sound files
-        // For this example, we'll just log it
         logFileOnly("Playing sound: " + soundType);
-
-        // A real implementation would load and play music like this:
-
-//        try {
-//            // Load the sound file
-//            java.net.URL soundURL = getClass().getResource("/music/" + soundType + ".wav");
-//            if (soundURL != null) {
-//                AudioInputStream audioIn = AudioSystem.getAudioInputStream(soundURL);
-//                Clip clip = AudioSystem.getClip();
-//                clip.open(audioIn);
-//                clip.start();
-//            }
-//        } catch (Exception e) {
-//            e.printStackTrace();
-//        }
-
+        // only queued here; the effect is mixed in and played on the sound effects thread
+        soundEffects.play(soundType);
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,277 @@
+package gui;
+
+import locations.Floor;
+import locations.FloorGrid;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.Map;
+
+/**
+ * Draws the current floor as a grid of coloured cells in a single paint pass, reading the map
+ * characters straight from the floor's map buffer. Moving the player or changing a cell only
+ * repaints the cells involved, found from the floor grid's change log, rather than rebuilding the whole map.
+ *
+ * @version 1.1
+ * @author tp275, karamimamali
+ */
+public class MinimapPanel extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    // the gap left between cells, in pixels
+    private static final int GAP = 1;
+    private static final Color BORDER_COLOR = new Color(30, 30, 30);
+    private static final Color OPEN_DOOR_COLOR = new Color(140, 120, 80);
+
+    // tile colours, keyed by tile name as in Main
+    private final Map<String, Color> tileColors;
+    private final Font markerFont = new Font("SansSerif", Font.BOLD, 14);
+
+    // the floor being shown, and its size
+    private Floor floor;
+    private int rows;
+    private int cols;
+    // the number of the grid's state changes already repainted
+    private int changesSeen;
+    // the row and column the player marker is drawn at
+    private int playerX;
+    private int playerY;
+
+    /**
+     * Creates an empty minimap, drawn with the given tile colours
+     *
+     * @param tileColors Tile colours keyed by tile name ("Wall", "Gold Door", "Player" etc.)
+     * @param background The colour drawn behind and between the cells
+     */
+    public MinimapPanel(Map<String, Color> tileColors, Color background) {
+        this.tileColors = tileColors;
+        setBackground(background);
+        setOpaque(true);
+        setPreferredSize(new Dimension(280, 280));
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    /**
+     * Shows the given floor, repainting the whole minimap
+     *
+     * @param floor The floor to show
+     * @param playerX The row the player is on
+     * @param playerY The column the player is on
+     */
+    public void showFloor(Floor floor, int playerX, int playerY) {
+        this.floor = floor;
+        this.rows = floor.getGrid().getRows();
+        this.cols = floor.getGrid().getCols();
+        this.changesSeen = floor.getGrid().getChangeCount();
+        this.playerX = playerX;
+        this.playerY = playerY;
+        repaint();
+    }
+
+    /**
+     * Moves the player marker, repainting only the cells it left and entered
+     *
+     * @param x The row the player is now on
+     * @param y The column the player is now on
+     */
+    public void movePlayer(int x, int y) {
+        if (x == this.playerX && y == this.playerY) {
+            return;
+        }
+        repaintCell(this.playerX, this.playerY);
+        this.playerX = x;
+        this.playerY = y;
+        repaintCell(x, y);
+    }
+
+    /**
+     * Repaints every cell whose state has changed on the floor since the last call (eg. an opened door)
+     */
+    public void refreshChangedCells() {
+        if (this.floor == null) {
+            return;
+        }
+        FloorGrid grid = this.floor.getGrid();
+        int changes = grid.getChangeCount();
+        for (; this.changesSeen < changes; this.changesSeen++) {
+            int cell = grid.getChangedCell(this.changesSeen);
+            repaintCell(cell / this.cols, cell % this.cols);
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (this.floor == null) {
+            return;
+        }
+
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setFont(this.markerFont);
+
+        // only paint the cells that overlap the area being repainted
+        int cellWidth = getCellWidth();
+        int cellHeight = getCellHeight();
+        int firstY = Math.max(0, (clip.x - getLeft()) / (cellWidth + GAP));
+        int lastY = Math.min(this.cols - 1, (clip.x + clip.width - getLeft()) / (cellWidth + GAP));
+        int firstX = Math.max(0, (clip.y - getTop()) / (cellHeight + GAP));
+        int lastX = Math.min(this.rows - 1, (clip.y + clip.height - getTop()) / (cellHeight + GAP));
+        for (int x = firstX; x <= lastX; x++) {
+            for (int y = firstY; y <= lastY; y++) {
+                paintCell(g2d, x, y, cellWidth, cellHeight);
+            }
+        }
+    }
+
+    /**
+     * Paints a single cell: its colour, its border and any marker letter
+     */
+    private void paintCell(Graphics2D g, int x, int y, int cellWidth, int cellHeight) {
+        int left = getLeft() + y * (cellWidth + GAP);
+        int top = getTop() + x * (cellHeight + GAP);
+        boolean isPlayer = x == this.playerX && y == this.playerY;
+        char glyph = isPlayer ? 'P' : this.floor.getGlyphAt(x, y);
+
+        g.setColor(getCellColor(glyph));
+        g.fillRect(left, top, cellWidth, cellHeight);
+
+        // a slight glow for the player's current position
+        if (isPlayer) {
+            g.setColor(Color.WHITE);
+            g.drawRect(left, top, cellWidth - 1, cellHeight - 1);
+            g.drawRect(left + 1, top + 1, cellWidth - 3, cellHeight - 3);
+        } else {
+            g.setColor(BORDER_COLOR);
+            g.drawRect(left, top, cellWidth - 1, cellHeight - 1);
+        }
+
+        char marker = getMarker(glyph);
+        if (marker != 0) {
+            FontMetrics metrics = g.getFontMetrics();
+            int textX = left + (cellWidth - metrics.charWidth(marker)) / 2;
+            int textY = top + (cellHeight - metrics.getHeight()) / 2 + metrics.getAscent();
+            g.setColor(glyph == 'g' ? Color.BLACK : Color.WHITE);
+            g.drawString(String.valueOf(marker), textX, textY);
+        }
+    }
+
+    /**
+     * Returns the background colour of a cell showing the given map character
+     */
+    private Color getCellColor(char glyph) {
+        switch (glyph) {
+            case 'P':
+                return this.tileColors.get("Player");
+            case '-':
+                return this.tileColors.get("Wall");
+            case 's':
+                return this.tileColors.get("Start");
+            case 'x':
+                return this.tileColors.get("Stairs");
+            case 'o':
+                return this.tileColors.get("Empty");
+            case 'e':
+                return this.tileColors.get("Enemy");
+            case 'g':
+                return this.tileColors.get("Gold");
+            case 'd':
+                return this.tileColors.get("Gold Door");
+            case 'D':
+                return OPEN_DOOR_COLOR; // Lighter color for open door
+            default:
+                return getBackground();
+        }
+    }
+
+    /**
+     * Returns the letter drawn on a cell showing the given map character, or 0 if it has none
+     */
+    private char getMarker(char glyph) {
+        switch (glyph) {
+            case 'P':
+                return 'P';
+            case 'e':
+                return 'E';
+            case 'g':
+                return 'G';
+            case 'd':
+                return 'D';
+            case 'D':
+                return 'O';
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        if (this.floor == null) {
+            return null;
+        }
+        int y = (event.getX() - getLeft()) / (getCellWidth() + GAP);
+        int x = (event.getY() - getTop()) / (getCellHeight() + GAP);
+        if (event.getX() < getLeft() || event.getY() < getTop() || x >= this.rows || y >= this.cols) {
+            return null;
+        }
+        if (x == this.playerX && y == this.playerY) {
+            return "Player";
+        }
+        switch (this.floor.getGlyphAt(x, y)) {
+            case '-':
+                return "Wall";
+            case 's':
+                return "Start";
+            case 'x':
+                return "Stairs to next level";
+            case 'o':
+                return "Empty tile";
+            case 'e':
+                return "Enemy";
+            case 'g':
+                return "Gold";
+            case 'd':
+                return "Gold Door (closed)";
+            case 'D':
+                return "Gold Door (open)";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Asks Swing to repaint just the area of the given cell
+     */
+    private void repaintCell(int x, int y) {
+        if (this.floor == null) {
+            return;
+        }
+        int cellWidth = getCellWidth();
+        int cellHeight = getCellHeight();
+        repaint(getLeft() + y * (cellWidth + GAP), getTop() + x * (cellHeight + GAP), cellWidth, cellHeight);
+    }
+
+    private int getCellWidth() {
+        return Math.max(1, (getWidth() - (this.cols - 1) * GAP) / Math.max(1, this.cols));
+    }
+
+    private int getCellHeight() {
+        return Math.max(1, (getHeight() - (this.rows - 1) * GAP) / Math.max(1, this.rows));
+    }
+
+    // the grid is centred, so any pixels left over from the integer cell sizes are split either side
+    private int getLeft() {
+        return (getWidth() - this.cols * (getCellWidth() + GAP) + GAP) / 2;
+    }
+
+    private int getTop() {
+        return (getHeight() - this.rows * (getCellHeight() + GAP) + GAP) / 2;
+    }
+}
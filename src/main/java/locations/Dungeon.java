@@ -1,11 +1,17 @@
 package locations;
 
-import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import rng.GameRandom;
 
 /**
  * Creates and stores Floors. Difficulty level sets floor difficulty and number of floors.
+ * Floors can be built up front, on first use or in the background - see WorldGeneration - and
+ * either loaded from the floor plan files or generated at a given size.
  * 
- * @version 1.0
+ * @version 1.4
  * @author karamimamali
  */
 public class Dungeon {
@@ -14,12 +20,17 @@ public class Dungeon {
     private final int difficulty;
     // a unique ID number for this dungeon
     private final int id;
-    // a list containing every Floor object in this dungeon - size varies with difficulty
-    private final ArrayList<locations.Floor> floorList = new ArrayList<>();
+    // every Floor in this dungeon, indexed by ID, once it has been started - size varies with difficulty
+    private final AtomicReferenceArray<CompletableFuture<Floor>> floorList;
     // stores whether or not this dungeon is the final one in the game
     private boolean isLastDungeon = false;
     // the intro text to be played on entering the dungeon
     private String intro;
+    // the session's random source, giving each floor its own stream
+    private final GameRandom random;
+    // the size of generated floors, or 0 to load floors from the floor plan files
+    private final int floorRows;
+    private final int floorCols;
 
     /**
      * Stores parameters, populates floors and sets the dungeon intro
@@ -28,19 +39,110 @@ public class Dungeon {
      * @param id - The dungeon's unique ID
      */
     public Dungeon(int difficulty, int id) {
+        this(difficulty, id, WorldGeneration.EAGER);
+    }
+
+    /**
+     * Stores parameters, sets the dungeon intro and populates floors as the given generation mode says
+     *
+     * @param difficulty - The dungeon's difficulty level
+     * @param id - The dungeon's unique ID
+     * @param generation - Whether floors are built now, on first use or in the background
+     */
+    public Dungeon(int difficulty, int id, WorldGeneration generation) {
+        this(difficulty, id, generation, new GameRandom());
+    }
+
+    /**
+     * Stores parameters, sets the dungeon intro and populates floors as the given generation mode says,
+     * with each floor's random choices made from its own stream of the given random source
+     *
+     * @param difficulty - The dungeon's difficulty level
+     * @param id - The dungeon's unique ID
+     * @param generation - Whether floors are built now, on first use or in the background
+     * @param random - The session's random source
+     */
+    public Dungeon(int difficulty, int id, WorldGeneration generation, GameRandom random) {
+        this(difficulty, id, generation, random, 0, 0);
+    }
+
+    /**
+     * Stores parameters, sets the dungeon intro and populates floors as the given generation mode says,
+     * generating floors of the given size rather than loading floor plan files. With PARALLEL
+     * generation the floors are all generated at once, across the common fork/join pool.
+     *
+     * @param difficulty - The dungeon's difficulty level
+     * @param id - The dungeon's unique ID
+     * @param generation - Whether floors are built now, on first use or in the background
+     * @param random - The session's random source
+     * @param floorRows - The number of rows of each floor, or 0 to load floor plan files
+     * @param floorCols - The number of columns of each floor, or 0 to load floor plan files
+     */
+    public Dungeon(int difficulty, int id, WorldGeneration generation, GameRandom random, int floorRows, int floorCols) {
         this.difficulty = difficulty;
         this.id = id;
-        populateFloors(difficulty+1); // Difficulty serves as amount of floors also
+        this.random = random;
+        this.floorRows = floorRows;
+        this.floorCols = floorCols;
+        this.floorList = new AtomicReferenceArray<>(difficulty+1); // Difficulty serves as amount of floors also
+        populateFloors(generation);
         setIntro();
     }
 
     /**
-     * Adds Floors to the floorList. They all have the dungeon's difficulty level.
+     * Starts building the Floors in the floorList as the generation mode says.
+     * They all have the dungeon's difficulty level.
+     */
+    private void populateFloors(WorldGeneration generation) {
+        for (int i = 0; i < this.floorList.length(); i++) {
+            if (generation == WorldGeneration.EAGER) {
+                this.floorList.set(i, CompletableFuture.completedFuture(createFloor(i)));
+            } else if (generation == WorldGeneration.PARALLEL) {
+                prefetchFloor(i);
+            }
+        }
+    }
+
+    /**
+     * Starts building the Floor with the given ID in the background, unless it has already been started
+     *
+     * @param id - The ID of the floor to build
+     */
+    public void prefetchFloor(int id) {
+        CompletableFuture<Floor> floor = new CompletableFuture<>();
+        if (id >= 0 && id < this.floorList.length() && this.floorList.compareAndSet(id, null, floor)) {
+            ForkJoinPool.commonPool().execute(() -> buildFloor(floor, id));
+        }
+    }
+
+    /**
+     * Builds the Floor with the given ID and completes the given future with it
+     */
+    private void buildFloor(CompletableFuture<Floor> floor, int id) {
+        try {
+            floor.complete(createFloor(id));
+        } catch (RuntimeException e) {
+            floor.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Creates the Floor with the given ID, from that floor's own random stream
      */
-    private void populateFloors(int amount) {
-        for (int i = 0; i < amount; i++) {
-            floorList.add(new locations.Floor(this.difficulty, i));
+    private Floor createFloor(int id) {
+        if (this.floorRows > 0 && this.floorCols > 0) {
+            return new Floor(this.difficulty, id, this.floorRows, this.floorCols, this.random.forFloor(this.id, id));
         }
+        return new Floor(this.difficulty, id, this.random.forFloor(this.id, id));
+    }
+
+    /**
+     * Returns the number of floors in this dungeon
+     *
+     * @return The number of floors in this dungeon
+     */
+    public int getFloorCount() {
+        return this.floorList.length();
     }
 
     /**
@@ -53,18 +155,42 @@ public class Dungeon {
     }
 
     /**
-     * Returns a Floor from the floorList that matches the given ID number; null if no match
+     * Returns a Floor from the floorList that matches the given ID number; null if no match.
+     * A floor that hasn't been started yet is built now; one being built in the background is waited for.
      * 
      * @return A Floor from the floorList that matches the given ID number; null if no match
      */
-    public locations.Floor getFloorByID(int id) {
-        for (locations.Floor f : this.floorList) {
-            if (f.getID() == id) {
-                return f;
+    public Floor getFloorByID(int id) {
+        if (id < 0 || id >= this.floorList.length()) {
+            System.out.println("No floor with this id was found!");
+            return null;
+        }
+        CompletableFuture<Floor> floor = this.floorList.get(id);
+        if (floor == null) {
+            CompletableFuture<Floor> built = new CompletableFuture<>();
+            if (this.floorList.compareAndSet(id, null, built)) {
+                buildFloor(built, id);
             }
+            floor = this.floorList.get(id);
+        }
+        return floor.join();
+    }
+
+    /**
+     * Returns the Floor with the given ID if it has finished being built, without building it or waiting for it
+     *
+     * @param id - The ID of the floor
+     * @return The Floor with the given ID, or null if there is none or it isn't built yet
+     */
+    public Floor getBuiltFloor(int id) {
+        if (id < 0 || id >= this.floorList.length()) {
+            return null;
+        }
+        CompletableFuture<Floor> floor = this.floorList.get(id);
+        if (floor == null || !floor.isDone() || floor.isCompletedExceptionally()) {
+            return null;
         }
-        System.out.println("No floor with this id was found!");
-        return null;
+        return floor.join();
     }
 
     /**
@@ -1,10 +1,8 @@
 package locations;
 
 import java.awt.Point;
-import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import tile.Empty;
 import tile.Gold;
@@ -12,123 +10,145 @@ import tile.GoldDoor;
 import tile.Stairs;
 import tile.Start;
 import tile.Tile;
+import tile.TileKind;
 import tile.Wall;
 import tile.character.Enemy;
+import rng.GameRandom;
 
 /**
- * Creates from a file and stores a HashMap of the floor, as Points and Tiles.
+ * Creates from a (cached) floor plan file, or generates, and stores the floor in a dense FloorGrid, addressed by x,y Points.
+ * Tiles are only created as views over the grid when something asks for them.
+ * The printable map is kept in a character buffer that is built once and then only has the cells
+ * that changed in the grid redrawn.
+ * Very large generated floors are kept in a chunked FloorGrid instead, with only the chunks around
+ * the player decoded, so the memory a floor holds stays about the same however big it is. Such a
+ * floor keeps no map buffer or cache of tile views either - both are worked out from the grid when asked for.
  *
- * @version 2.1
+ * @version 3.5
  * @author karamimamali
  */
 public class Floor {
 
-    // the Point the player starts at on the floor
-    private Point startPos;
+    // generated floors with at least this many cells are kept in a chunked grid
+    public static final int CHUNKED_MIN_CELLS = 512 * 512;
+    // the most chunks of a chunked floor's grid kept decoded at once: enough for the player's
+    // surroundings, about 640KB
+    public static final int RESIDENT_CHUNKS = 16;
+
+    // the x,y location the player starts at on the floor
+    private int startX;
+    private int startY;
     // sets difficulty of the floor: affects the layout loaded and enemies
     private final int difficulty;
-    // contains all x,y Points of the floor with their corresponding tiles
-    private final HashMap<Point, Tile> floorPlan = new HashMap<>();
-    // a String representation of the current floorPlan
-    private String[] floorPlanStringList;
+    // holds the kind and state of every x,y cell of the floor
+    private FloorGrid grid;
+    // views over the grid's Gold, GoldDoor and Enemy cells, created on first request (null until then,
+    // and always null for a chunked grid)
+    private Tile[] tiles;
     // ID of the floor, helpful as higher floors have lower IDs
     private final int id;
-    // a handy Random for use within the class
-    private final Random random = new Random();
+    // the printable map, row by row with a newline after each, built on first request (null until then)
+    private char[] map;
+    // the number of the grid's state changes already drawn into the map
+    private int mapChangesSeen;
+    // the read-only view of the map handed out by getMapView
+    private MapView mapView;
+    // the seed each enemy's stream is derived from, together with its cell, so enemies don't depend on the order they're met in
+    private final long enemySeed;
 
     /**
-     * Stores parameters and creates the floor plan from resource file
+     * Stores parameters and creates the floor plan from resource file, with randomly made choices
      *
      * @param difficulty - The floor's difficulty level
      * @param id - The floor's unique ID
      */
     public Floor(int difficulty, int id) {
+        this(difficulty, id, new SplittableRandom());
+    }
+
+    /**
+     * Stores parameters and creates the floor plan from resource file, making every random choice
+     * (the floor plan used and each enemy) from the given stream, so the same stream gives the same floor
+     *
+     * @param difficulty - The floor's difficulty level
+     * @param id - The floor's unique ID
+     * @param random - The stream the floor's random choices are made from
+     */
+    public Floor(int difficulty, int id, RandomGenerator random) {
         this.difficulty = difficulty;
         this.id = id;
-        this.createFloorPlan();
+        this.createFloorPlan(random);
+        this.enemySeed = random.nextLong();
     }
 
     /**
-     * Populates floorPlan with all x,y Points of the floor with their corresponding Tiles
+     * Stores parameters and generates a floor plan of the given size with FloorGenerator, making
+     * every random choice from the given stream, so the same stream gives the same floor.
+     * Floors of CHUNKED_MIN_CELLS cells or more are kept in a chunked grid.
+     *
+     * @param difficulty - The floor's difficulty level
+     * @param id - The floor's unique ID
+     * @param rows - The number of rows of the floor, at least 4
+     * @param cols - The number of columns of the floor, at least 4
+     * @param random - The stream the floor's random choices are made from
      */
-    private void createFloorPlan() {
-        try {
-            Scanner reader = findFloorplanFile();
-            int rows = reader.nextInt();
-            int cols = reader.nextInt();
-
-            // read the rest of the file as one token
-            reader.useDelimiter("\\Z");
-            this.floorPlanStringList = reader.next().trim().split("\\n");
-
-            // loop through every tile of the floor
-            for (int y = 0; y < cols; y++) {
-                for (int x = 0; x < rows; x++) {
-                    char tileChar = this.floorPlanStringList[x].charAt(y);
-                    if (tileChar == 's') { // note startPos if start tile
-                        this.startPos = new Point(x, y);
-                    }
-                    Point point = new Point(x, y);
-                    floorPlan.put(point, convertCharToTile(tileChar, point));
-                }
-            }
-            reader.close();
-
-        } catch (Exception e) {
-            System.out.println("Error: could not read floor plan file");
-            e.printStackTrace();
+    public Floor(int difficulty, int id, int rows, int cols, RandomGenerator random) {
+        this.difficulty = difficulty;
+        this.id = id;
+        if ((long) rows * cols >= CHUNKED_MIN_CELLS) {
+            // generated straight into chunks, so the whole floor is never held in arrays
+            this.grid = FloorGenerator.generateChunked(rows, cols, difficulty, random, RESIDENT_CHUNKS);
+        } else {
+            this.grid = FloorGenerator.generate(rows, cols, difficulty, random);
         }
+        this.startX = this.grid.getStartX();
+        this.startY = this.grid.getStartY();
+        this.enemySeed = random.nextLong();
     }
 
     /**
-     * Returns a Scanner reading from the floor plan resource file
-     * chosen randomly from a certain amount of files at the specified difficulty level
-     *
-     * @return Scanner reading the floor plan resource
-     * @throws Exception if the resource is not found
+     * Populates the grid with the kind and initial state of every x,y cell of the floor,
+     * from a floor plan chosen randomly from a certain amount at the floor's difficulty level
      */
-    private Scanner findFloorplanFile() throws Exception {
+    private void createFloorPlan(RandomGenerator random) {
         int numberOfFloorplans = 3; // Default number of floorplan options per difficulty
         // Special case for final dungeon (difficulty 4)
         if (this.difficulty == 4) {
             numberOfFloorplans = 3; // We've created 3 layouts for the final dungeon
         }
 
-        String filename = "/floorplan" + this.difficulty + "-" + (random.nextInt(numberOfFloorplans) + 1) + ".txt";
-        InputStream inputStream = getClass().getResourceAsStream(filename);
-
-        if (inputStream == null) {
-            throw new Exception("Resource file not found: " + filename);
+        try {
+            this.grid = FloorTemplateCache.newGrid(this.difficulty, random.nextInt(numberOfFloorplans) + 1);
+            this.startX = this.grid.getStartX();
+            this.startY = this.grid.getStartY();
+        } catch (Exception e) {
+            System.out.println("Error: could not read floor plan file");
+            e.printStackTrace();
         }
-
-        return new Scanner(inputStream);
     }
 
     /**
-     * Returns a fully initialised tile that corresponds with the tileString parameter
+     * Returns a fully initialised Tile view over the given cell of the grid, or the shared Tile for stateless kinds
      *
-     * @param tileString - A char from the text representation of the floor
-     * @param point - The Point on the floor that the tileString char is at
-     * @return A fully initialised tile that corresponds with the tileString parameter
+     * @param cell - The index of the cell in the grid
+     * @return A fully initialised Tile view over the cell
      */
-    private Tile convertCharToTile(char tileString, Point point) {
-        switch (tileString) {
-            case '-':
-                return new Wall();
-            case 's':
-                this.startPos = point;
-                return new Start();
-            case 'x':
-                return new Stairs();
-            case 'o':
-                return new Empty();
-            case 'e':
-                return new Enemy(this.difficulty + 1);
-            case 'g':
-                return new Gold(this.difficulty + 1);
-            case 'd':
-                // Gold door with cost based on difficulty
-                return new GoldDoor((this.difficulty + 1) * 2);
+    private Tile createTile(int cell) {
+        switch (this.grid.getKind(cell)) {
+            case WALL:
+                return Wall.INSTANCE;
+            case START:
+                return Start.INSTANCE;
+            case STAIRS:
+                return Stairs.INSTANCE;
+            case EMPTY:
+                return Empty.INSTANCE;
+            case ENEMY:
+                return new Enemy(this.difficulty + 1, this.grid, cell, GameRandom.forKey(this.enemySeed, cell));
+            case GOLD:
+                return new Gold(this.grid, cell);
+            case GOLD_DOOR:
+                return new GoldDoor(this.grid, cell);
         }
         return null;
     }
@@ -160,43 +180,46 @@ public class Floor {
      * @return True if floor location contains a usable tile for the player, false otherwise
      */
     public boolean checkValidPlayerLocation(Point point, tile.character.Player player) {
-        if (!this.floorPlan.containsKey(point)) {
+        return checkValidPlayerLocation(point.x, point.y, player);
+    }
+
+    /**
+     * Checks that the tile at the given x,y location is not a wall or outside the bounds of the floor.
+     * If it's a closed gold door and the player has enough gold, it will automatically open the door.
+     *
+     * @param x - The row to check
+     * @param y - The column to check
+     * @param player - The Player object (needed to check gold for doors)
+     * @return True if floor location contains a usable tile for the player, false otherwise
+     */
+    public boolean checkValidPlayerLocation(int x, int y, tile.character.Player player) {
+        if (!this.grid.isInBounds(x, y)) {
             return false;
         }
 
-        Tile tile = this.floorPlan.get(point);
-
-        // Cannot walk on walls
-        if (tile.getName().equals("Wall")) {
+        int cell = this.grid.index(x, y);
+        TileKind kind = this.grid.getKind(cell);
+        if (kind.isPassable()) {
+            return true;
+        }
+        if (kind != TileKind.GOLD_DOOR) {
+            // Cannot walk on walls
             return false;
         }
-
-        // Check if it's a gold door
-        if (tile instanceof GoldDoor) {
-            GoldDoor door = (GoldDoor) tile;
-
-            // If door is already open, allow passage
-            if (door.isOpen()) {
-                return true;
-            }
-
-            // If player has enough gold, automatically open the door and allow passage
-            int playerGold = player.getGold();
-            int doorCost = door.getCost();
-
-            if (playerGold >= doorCost) {
-                // Player has enough gold, open the door
-                player.getStats().spendGold(doorCost);
-                door.open();
-                // Return true to allow passage
-                return true;
-            } else {
-                // Not enough gold, cannot pass
-                return false;
-            }
+        // If door is already open, allow passage
+        if (this.grid.isOpen(cell)) {
+            return true;
         }
 
-        return true;
+        // If player has enough gold, automatically open the door and allow passage
+        int doorCost = this.grid.getValue(cell);
+        if (player.getGold() >= doorCost) {
+            player.getStats().spendGold(doorCost);
+            this.grid.open(cell);
+            return true;
+        }
+        // Not enough gold, cannot pass
+        return false;
     }
 
     /**
@@ -207,23 +230,14 @@ public class Floor {
      * @deprecated Use checkValidPlayerLocation(Point, Player) instead
      */
     public boolean checkValidPlayerLocation(Point point) {
-        if (!this.floorPlan.containsKey(point)) {
+        if (!this.grid.isInBounds(point.x, point.y)) {
             return false;
         }
 
-        Tile tile = this.floorPlan.get(point);
-
-        // Cannot walk on walls
-        if (tile.getName().equals("Wall")) {
-            return false;
-        }
-
-        // Cannot walk through closed gold doors
-        if (tile instanceof GoldDoor && !((GoldDoor) tile).isOpen()) {
-            return false;
-        }
-
-        return true;
+        int cell = this.grid.index(point.x, point.y);
+        TileKind kind = this.grid.getKind(cell);
+        // Cannot walk on walls, or through closed gold doors
+        return kind.isPassable() || (kind == TileKind.GOLD_DOOR && this.grid.isOpen(cell));
     }
 
     /**
@@ -233,36 +247,191 @@ public class Floor {
      * @return A string of the character representation of the floor plan, with the player's location shown on it
      */
     public String getFloorMap(Point playerLocation) {
-        StringBuilder fpString = new StringBuilder();
-        for (int i = 0; i < this.floorPlanStringList.length; i++) {
-            StringBuilder floorRow = new StringBuilder(this.floorPlanStringList[i]);
-            if (i == playerLocation.x) {
-                floorRow.setCharAt(playerLocation.y, 'P');
-            }
-            // Update map display to show open doors
-            for (int y = 0; y < floorRow.length(); y++) {
-                Point p = new Point(i, y);
-                if (floorPlan.containsKey(p) && floorPlan.get(p) instanceof GoldDoor) {
-                    GoldDoor door = (GoldDoor) floorPlan.get(p);
-                    if (door.isOpen()) {
-                        floorRow.setCharAt(y, 'D'); // 'D' for open door
+        return getFloorMap(playerLocation.x, playerLocation.y);
+    }
+
+    /**
+     * Returns a string of the character representation of the floor plan, with the player's location shown on it
+     *
+     * @param playerX - The row of the player's current location. A P will be printed on the map here.
+     * @param playerY - The column of the player's current location
+     * @return A string of the character representation of the floor plan, with the player's location shown on it
+     */
+    public String getFloorMap(int playerX, int playerY) {
+        char[] map = this.grid.isChunked() ? renderMap() : getMap();
+        if (!this.grid.isInBounds(playerX, playerY)) {
+            return new String(map);
+        }
+        int player = mapIndex(playerX, playerY);
+        return new StringBuilder(map.length)
+                .append(map, 0, player)
+                .append('P')
+                .append(map, player + 1, map.length - player - 1)
+                .toString();
+    }
+
+    /**
+     * Returns a read-only view of the printable map, as getFloorMap would print it, with the player
+     * shown at the given location. Nothing is copied: the view reads the floor's map buffer, so it
+     * shows later changes too. The same view is returned every time, moved to the latest player location.
+     *
+     * @param playerX - The row of the player's current location. A P is shown on the map here.
+     * @param playerY - The column of the player's current location
+     * @return A view of the printable map
+     */
+    public CharSequence getMapView(int playerX, int playerY) {
+        if (this.mapView == null) {
+            this.mapView = new MapView();
+        }
+        this.mapView.player = this.grid.isInBounds(playerX, playerY) ? mapIndex(playerX, playerY) : -1;
+        return this.mapView;
+    }
+
+    /**
+     * Returns the map character for the given x,y location, as it appears in getFloorMap (without the player)
+     *
+     * @param x - The row of the cell
+     * @param y - The column of the cell
+     * @return The character representing the cell on the map
+     */
+    public char getGlyphAt(int x, int y) {
+        if (this.grid.isChunked()) {
+            return getGlyph(this.grid.index(x, y));
+        }
+        return getMap()[mapIndex(x, y)];
+    }
+
+    /**
+     * Returns the map buffer, building it the first time and redrawing any cells whose state has
+     * changed in the grid since it was last asked for
+     */
+    private char[] getMap() {
+        int cols = this.grid.getCols();
+        if (this.map == null) {
+            this.map = renderMap();
+            this.mapChangesSeen = this.grid.getChangeCount();
+        }
+        int changes = this.grid.getChangeCount();
+        for (; this.mapChangesSeen < changes; this.mapChangesSeen++) {
+            int cell = this.grid.getChangedCell(this.mapChangesSeen);
+            this.map[cell + cell / cols] = getGlyph(cell);
+        }
+        return this.map;
+    }
+
+    /**
+     * Draws the whole printable map into a new buffer. The grid is read a chunk at a time, so that
+     * a chunked grid decodes each chunk once.
+     */
+    private char[] renderMap() {
+        int rows = this.grid.getRows();
+        int cols = this.grid.getCols();
+        char[] map = new char[rows * (cols + 1)];
+        int size = FloorChunks.CHUNK_SIZE;
+        for (int top = 0; top < rows; top += size) {
+            for (int left = 0; left < cols; left += size) {
+                for (int x = top; x < Math.min(top + size, rows); x++) {
+                    for (int y = left; y < Math.min(left + size, cols); y++) {
+                        map[x * (cols + 1) + y] = getGlyph(this.grid.index(x, y));
                     }
                 }
             }
-            fpString.append(floorRow).append('\n');
         }
-        return fpString.toString();
+        for (int x = 0; x < rows; x++) {
+            map[x * (cols + 1) + cols] = '\n';
+        }
+        return map;
     }
 
     /**
-     * Returns the Tile in floorPlan corresponding to the given point.
+     * Returns the character at the given index of the printable map, working it out from the grid
+     */
+    private char getMapChar(int index) {
+        int cols = this.grid.getCols();
+        int x = index / (cols + 1);
+        int y = index - x * (cols + 1);
+        return y == cols ? '\n' : getGlyph(this.grid.index(x, y));
+    }
+
+    /**
+     * Returns the index in the map buffer of the given x,y location - each row is followed by a newline
+     */
+    private int mapIndex(int x, int y) {
+        return x * (this.grid.getCols() + 1) + y;
+    }
+
+    /**
+     * Returns the map character for the given cell, as used in the floor plan files, except that
+     * open doors are shown as a D
+     *
+     * @param cell - The index of the cell in the grid
+     * @return The character representing the cell on the map
+     */
+    private char getGlyph(int cell) {
+        TileKind kind = this.grid.getKind(cell);
+        if (kind == TileKind.GOLD_DOOR && this.grid.isOpen(cell)) {
+            return 'D'; // 'D' for open door
+        }
+        return kind.getGlyph();
+    }
+
+    /**
+     * Returns the Tile corresponding to the given point, as a view over the floor's grid.
      * If no match, returns null
      *
      * @param point - The Point to match
      * @return The corresponding Tile, or null if no match
      */
     public Tile getTileByPoint(Point point) {
-        return this.floorPlan.get(point);
+        return getTileAt(point.x, point.y);
+    }
+
+    /**
+     * Returns the Tile at the given x,y location, as a view over the floor's grid.
+     * The same Tile is returned every time for a given location - walls, empty tiles, stairs and
+     * start tiles are shared by every cell of their kind - except on a chunked floor, where a new but
+     * equivalent view of a Gold, GoldDoor or Enemy cell is made each time. If out of bounds, returns null
+     *
+     * @param x - The row of the tile
+     * @param y - The column of the tile
+     * @return The corresponding Tile, or null if out of bounds
+     */
+    public Tile getTileAt(int x, int y) {
+        if (!this.grid.isInBounds(x, y)) {
+            return null;
+        }
+        int cell = this.grid.index(x, y);
+        switch (this.grid.getKind(cell)) {
+            case GOLD:
+            case GOLD_DOOR:
+            case ENEMY:
+                break;
+            default:
+                // a shared tile, with nothing to cache
+                return createTile(cell);
+        }
+        if (this.grid.isChunked()) {
+            // the view's state is all in the grid, so there's no need to keep it
+            return createTile(cell);
+        }
+        if (this.tiles == null) {
+            this.tiles = new Tile[this.grid.getRows() * this.grid.getCols()];
+        }
+        Tile tile = this.tiles[cell];
+        if (tile == null) {
+            tile = createTile(cell);
+            this.tiles[cell] = tile;
+        }
+        return tile;
+    }
+
+    /**
+     * Returns the grid holding the kind and state of every cell of this floor
+     *
+     * @return The floor's grid
+     */
+    public FloorGrid getGrid() {
+        return this.grid;
     }
 
     /**
@@ -271,6 +440,69 @@ public class Floor {
      * @return The Point corresponding to the location of the start tile on this floor
      */
     public Point getStartPos() {
-        return this.startPos;
+        return new Point(this.startX, this.startY);
+    }
+
+    /**
+     * Returns the row (x) of the start tile on this floor
+     *
+     * @return The row of the start tile
+     */
+    public int getStartX() {
+        return this.startX;
+    }
+
+    /**
+     * Returns the column (y) of the start tile on this floor
+     *
+     * @return The column of the start tile
+     */
+    public int getStartY() {
+        return this.startY;
+    }
+
+    /**
+     * A read-only view of the floor's map buffer, with the player overlaid on it
+     */
+    private final class MapView implements CharSequence {
+
+        // the index in the map buffer the player is shown at, or -1 if not shown
+        private int player = -1;
+
+        @Override
+        public int length() {
+            return Floor.this.grid.getRows() * (Floor.this.grid.getCols() + 1);
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index == this.player) {
+                return 'P';
+            }
+            return Floor.this.grid.isChunked() ? getMapChar(index) : getMap()[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            if (Floor.this.grid.isChunked()) {
+                char[] map = renderMap();
+                if (this.player >= 0) {
+                    map[this.player] = 'P';
+                }
+                return new String(map);
+            }
+            char[] map = getMap();
+            if (this.player < 0) {
+                return new String(map);
+            }
+            char[] copy = map.clone();
+            copy[this.player] = 'P';
+            return new String(copy);
+        }
     }
-}
\ No newline at end of file
+}
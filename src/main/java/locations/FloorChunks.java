@@ -0,0 +1,328 @@
+package locations;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The cell storage of a chunked FloorGrid: the floor is cut into square chunks of cells, and only a
+ * bounded number of them are kept in arrays at any one time. The rest are kept in a compact form in
+ * direct (off-heap) buffers - the tile kinds run-length encoded, plus the value, enemy HP and flags
+ * of the cells that have any. A chunk is decoded when one of its cells is used and, once the
+ * resident limit is reached, the chunk used least recently is encoded and dropped to make room -
+ * as the player only uses cells around them, that is one far from the player.
+ * Chunks that have never held anything but walls take no storage at all.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+class FloorChunks {
+
+    // chunks are CHUNK_SIZE x CHUNK_SIZE cells
+    static final int CHUNK_SHIFT = 6;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+
+    /**
+     * The cells of one resident chunk, laid out as in a dense FloorGrid
+     */
+    private static final class Chunk {
+        private final byte[] kinds = new byte[CHUNK_CELLS];
+        private final int[] values = new int[CHUNK_CELLS];
+        private final int[] enemyHp = new int[CHUNK_CELLS];
+        private final byte[] flags = new byte[CHUNK_CELLS];
+        // the id of the chunk these cells belong to
+        private int id;
+        // when the chunk was last used, on the store's clock
+        private long lastUse;
+        // whether any cell has changed since the chunk was decoded
+        private boolean dirty;
+    }
+
+    // the number of chunk columns across the floor
+    private final int chunkCols;
+    // the resident chunks, by chunk id, or null where not resident
+    private final Chunk[] resident;
+    // the encoded form of each chunk, or null if it has only ever been walls
+    private final ByteBuffer[] stored;
+    // the resident chunks, in no particular order
+    private final Chunk[] residentList;
+    private int residentCount;
+    // counts uses, to find the chunk used least recently
+    private long clock;
+    // the chunk last used, checked first as most uses are of the same chunk
+    private Chunk last;
+    // scratch space for encoding a chunk
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    // metrics
+    private long loads;
+    private long evictions;
+
+    /**
+     * Creates storage for a floor of the given size, every cell a wall, keeping at most the given number of chunks resident
+     *
+     * @param rows - The number of rows on the floor
+     * @param cols - The number of columns on the floor
+     * @param maxResident - The most chunks kept decoded at once, at least 1
+     */
+    FloorChunks(int rows, int cols, int maxResident) {
+        int chunkRows = (rows + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunkCols = (cols + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.resident = new Chunk[chunkRows * this.chunkCols];
+        this.stored = new ByteBuffer[chunkRows * this.chunkCols];
+        this.residentList = new Chunk[Math.max(1, maxResident)];
+    }
+
+    byte getKind(int x, int y) {
+        return chunk(x, y).kinds[offset(x, y)];
+    }
+
+    void setKind(int x, int y, byte kind) {
+        Chunk chunk = chunk(x, y);
+        chunk.kinds[offset(x, y)] = kind;
+        chunk.dirty = true;
+    }
+
+    int getValue(int x, int y) {
+        return chunk(x, y).values[offset(x, y)];
+    }
+
+    void setValue(int x, int y, int value) {
+        Chunk chunk = chunk(x, y);
+        chunk.values[offset(x, y)] = value;
+        chunk.dirty = true;
+    }
+
+    int getEnemyHp(int x, int y) {
+        return chunk(x, y).enemyHp[offset(x, y)];
+    }
+
+    void setEnemyHp(int x, int y, int hp) {
+        Chunk chunk = chunk(x, y);
+        chunk.enemyHp[offset(x, y)] = hp;
+        chunk.dirty = true;
+    }
+
+    byte getFlags(int x, int y) {
+        return chunk(x, y).flags[offset(x, y)];
+    }
+
+    void setFlags(int x, int y, byte flags) {
+        Chunk chunk = chunk(x, y);
+        chunk.flags[offset(x, y)] = flags;
+        chunk.dirty = true;
+    }
+
+    /**
+     * Returns the number of times a chunk has been decoded to be used
+     */
+    long getLoads() {
+        return this.loads;
+    }
+
+    /**
+     * Returns the number of times a chunk has been dropped to make room for another
+     */
+    long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the number of chunks currently decoded
+     */
+    int getResidentCount() {
+        return this.residentCount;
+    }
+
+    /**
+     * Returns the number of bytes of off-heap storage held by the encoded chunks
+     */
+    long getStoredBytes() {
+        long bytes = 0;
+        for (ByteBuffer buffer : this.stored) {
+            if (buffer != null) {
+                bytes += buffer.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Encodes every resident chunk that has changed and stops them all being resident
+     */
+    void evictAll() {
+        for (int i = 0; i < this.residentCount; i++) {
+            Chunk chunk = this.residentList[i];
+            if (chunk.dirty) {
+                this.stored[chunk.id] = encode(chunk, this.stored[chunk.id]);
+            }
+            this.resident[chunk.id] = null;
+            this.residentList[i] = null;
+        }
+        this.residentCount = 0;
+        this.last = null;
+    }
+
+    /**
+     * Sets the load and eviction counts back to 0, eg. once the chunks have been filled
+     */
+    void resetMetrics() {
+        this.loads = 0;
+        this.evictions = 0;
+    }
+
+    /**
+     * Returns the offset within its chunk of the given cell
+     */
+    private static int offset(int x, int y) {
+        return ((x & CHUNK_MASK) << CHUNK_SHIFT) | (y & CHUNK_MASK);
+    }
+
+    /**
+     * Returns the resident chunk holding the given cell, decoding it first if it isn't resident
+     */
+    private Chunk chunk(int x, int y) {
+        int id = (x >> CHUNK_SHIFT) * this.chunkCols + (y >> CHUNK_SHIFT);
+        Chunk chunk = this.last;
+        if (chunk == null || chunk.id != id) {
+            chunk = this.resident[id];
+            if (chunk == null) {
+                chunk = load(id);
+            }
+            this.last = chunk;
+        }
+        chunk.lastUse = ++this.clock;
+        return chunk;
+    }
+
+    /**
+     * Decodes the chunk with the given id, making room for it if the resident limit has been reached
+     */
+    private Chunk load(int id) {
+        Chunk chunk;
+        if (this.residentCount < this.residentList.length) {
+            chunk = new Chunk();
+            this.residentList[this.residentCount++] = chunk;
+        } else {
+            // reuse the arrays of the chunk used least recently
+            chunk = this.residentList[0];
+            for (int i = 1; i < this.residentCount; i++) {
+                if (this.residentList[i].lastUse < chunk.lastUse) {
+                    chunk = this.residentList[i];
+                }
+            }
+            evict(chunk);
+        }
+        decode(this.stored[id], chunk);
+        chunk.id = id;
+        chunk.dirty = false;
+        this.resident[id] = chunk;
+        this.loads++;
+        return chunk;
+    }
+
+    /**
+     * Encodes the given chunk, if it has changed, and stops it being resident
+     */
+    private void evict(Chunk chunk) {
+        if (chunk.dirty) {
+            this.stored[chunk.id] = encode(chunk, this.stored[chunk.id]);
+        }
+        this.resident[chunk.id] = null;
+        this.evictions++;
+    }
+
+    /**
+     * Encodes the given chunk into a direct buffer, reusing the old one if it is big enough.
+     * Returns null if every cell is a plain wall.
+     */
+    private ByteBuffer encode(Chunk chunk, ByteBuffer old) {
+        ByteBuffer out = this.scratch;
+        out.clear();
+        int runs = 0;
+        int extras = 0;
+        // every write is checked for room first, the counts included - the runs or extras before
+        // them can leave the buffer exactly full
+        out = ensureSpace(out, 2);
+        out.putShort((short) 0); // the number of runs, filled in below
+        for (int i = 0; i < CHUNK_CELLS; ) {
+            byte kind = chunk.kinds[i];
+            int start = i;
+            while (i < CHUNK_CELLS && chunk.kinds[i] == kind) {
+                i++;
+            }
+            out = ensureSpace(out, 3);
+            out.put(kind);
+            out.putShort((short) (i - start - 1));
+            runs++;
+        }
+        out.putShort(0, (short) runs);
+        out = ensureSpace(out, 2);
+        int extrasAt = out.position();
+        out.putShort((short) 0); // the number of cells with extra state, filled in below
+        for (int i = 0; i < CHUNK_CELLS; i++) {
+            if (chunk.values[i] != 0 || chunk.enemyHp[i] != 0 || chunk.flags[i] != 0) {
+                out = ensureSpace(out, 11);
+                out.putShort((short) i);
+                out.putInt(chunk.values[i]);
+                out.putInt(chunk.enemyHp[i]);
+                out.put(chunk.flags[i]);
+                extras++;
+            }
+        }
+        out.putShort(extrasAt, (short) extras);
+        if (runs == 1 && chunk.kinds[0] == 0 && extras == 0) {
+            return null;
+        }
+
+        out.flip();
+        ByteBuffer stored = old != null && old.capacity() >= out.remaining()
+                ? old : ByteBuffer.allocateDirect(out.remaining());
+        stored.clear();
+        stored.put(out);
+        stored.flip();
+        return stored;
+    }
+
+    /**
+     * Grows the scratch buffer if it can't fit the given number of bytes more
+     */
+    private ByteBuffer ensureSpace(ByteBuffer out, int bytes) {
+        if (out.remaining() >= bytes) {
+            return out;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+        out.flip();
+        bigger.put(out);
+        this.scratch = bigger;
+        return bigger;
+    }
+
+    /**
+     * Fills the given chunk's cells from its encoded form, or with walls if it has none
+     */
+    private static void decode(ByteBuffer stored, Chunk chunk) {
+        java.util.Arrays.fill(chunk.values, 0);
+        java.util.Arrays.fill(chunk.enemyHp, 0);
+        java.util.Arrays.fill(chunk.flags, (byte) 0);
+        if (stored == null) {
+            java.util.Arrays.fill(chunk.kinds, (byte) 0);
+            return;
+        }
+        ByteBuffer in = stored.duplicate();
+        int runs = in.getShort() & 0xFFFF;
+        int i = 0;
+        for (int r = 0; r < runs; r++) {
+            byte kind = in.get();
+            int length = (in.getShort() & 0xFFFF) + 1;
+            java.util.Arrays.fill(chunk.kinds, i, i + length, kind);
+            i += length;
+        }
+        int extras = in.getShort() & 0xFFFF;
+        for (int e = 0; e < extras; e++) {
+            int cell = in.getShort() & 0xFFFF;
+            chunk.values[cell] = in.getInt();
+            chunk.enemyHp[cell] = in.getInt();
+            chunk.flags[cell] = in.get();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package locations;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+import tile.TileKind;
+
+/**
+ * Generates floor layouts of any size from a random stream, as an alternative to the hand-written
+ * floor plan files. The floor is split into a grid of sectors with one room in each, and every room
+ * is joined to the room to its right, the first column's rooms to the rooms below them and the other
+ * rooms to the rooms below them by chance - so every room can be reached from every other.
+ * The player starts in the first room and the stairs are in the last. Enemies, gold and gold doors
+ * are then scattered with densities that rise with difficulty, using the same tile characters (and
+ * so the same enemy HP, gold values and door costs) as the floor plan files. Doors are only put in
+ * corridor-like gaps off one guaranteed start-to-stairs path, down the first column of rooms and
+ * along the last row, so the stairs can always be reached without gold. The same stream always gives
+ * the same floor, whether it is generated into a dense grid or straight into a chunked one - which
+ * never holds more than a bounded number of chunks in arrays, so even the biggest floors can be
+ * generated without ever holding the whole floor at once.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class FloorGenerator {
+
+    // the size of the sectors the floor is split into, one room each
+    private static final int SECTOR_SIZE = 10;
+
+    private FloorGenerator() {
+    }
+
+    /**
+     * Generates a floor of the given size and difficulty
+     *
+     * @param rows - The number of rows, at least 4, including the outer walls
+     * @param cols - The number of columns, at least 4, including the outer walls
+     * @param difficulty - The floor's difficulty, which sets how many enemies, gold and doors there are, and their values
+     * @param random - The stream every choice is made from
+     * @return The generated floor
+     * @throws IllegalArgumentException if the floor is too small to hold a start and stairs
+     */
+    public static FloorGrid generate(int rows, int cols, int difficulty, RandomGenerator random) {
+        checkSize(rows, cols);
+        FloorGrid grid = new FloorGrid(rows, cols);
+        fill(grid, difficulty, random);
+        return grid;
+    }
+
+    /**
+     * Generates a floor of the given size and difficulty straight into a chunked grid, holding at most
+     * the given number of chunks in arrays at once. The floor is the same as generate gives from the same stream.
+     *
+     * @param rows - The number of rows, at least 4, including the outer walls
+     * @param cols - The number of columns, at least 4, including the outer walls
+     * @param difficulty - The floor's difficulty, which sets how many enemies, gold and doors there are, and their values
+     * @param random - The stream every choice is made from
+     * @param maxResidentChunks - The most chunks the grid keeps decoded at once, at least 1
+     * @return The generated floor, in a chunked grid with none of its chunks resident
+     * @throws IllegalArgumentException if the floor is too small to hold a start and stairs
+     */
+    public static FloorGrid generateChunked(int rows, int cols, int difficulty, RandomGenerator random,
+                                            int maxResidentChunks) {
+        checkSize(rows, cols);
+        FloorGrid grid = new FloorGrid(rows, cols, maxResidentChunks);
+        fill(grid, difficulty, random);
+        grid.finishFilling();
+        return grid;
+    }
+
+    private static void checkSize(int rows, int cols) {
+        if (rows < 4 || cols < 4) {
+            throw new IllegalArgumentException("A generated floor must be at least 4x4, not " + rows + "x" + cols);
+        }
+    }
+
+    /**
+     * Lays the floor out in the given grid, every cell of which starts as a wall (the FloorGrid default)
+     */
+    private static void fill(FloorGrid grid, int difficulty, RandomGenerator random) {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        int sectorRows = Math.max(1, (rows - 2) / SECTOR_SIZE);
+        int sectorCols = Math.max(1, (cols - 2) / SECTOR_SIZE);
+        // the centre of each sector's room, row by row
+        int[] centreX = new int[sectorRows * sectorCols];
+        int[] centreY = new int[sectorRows * sectorCols];
+        boolean single = centreX.length == 1;
+
+        for (int i = 0; i < sectorRows; i++) {
+            int top = 1 + i * (rows - 2) / sectorRows;
+            int bottom = 1 + (i + 1) * (rows - 2) / sectorRows;
+            for (int j = 0; j < sectorCols; j++) {
+                int left = 1 + j * (cols - 2) / sectorCols;
+                int right = 1 + (j + 1) * (cols - 2) / sectorCols;
+                int sector = i * sectorCols + j;
+                // a lone room fills the whole floor, so the start and stairs fit in it
+                int height = single ? bottom - top : roomSpan(bottom - top, random);
+                int width = single ? right - left : roomSpan(right - left, random);
+                int roomX = top + random.nextInt(bottom - top - height + 1);
+                int roomY = left + random.nextInt(right - left - width + 1);
+                carve(grid, roomX, roomY, roomX + height - 1, roomY + width - 1);
+                centreX[sector] = roomX + height / 2;
+                centreY[sector] = roomY + width / 2;
+            }
+        }
+
+        for (int i = 0; i < sectorRows; i++) {
+            for (int j = 0; j < sectorCols; j++) {
+                int sector = i * sectorCols + j;
+                if (j + 1 < sectorCols) {
+                    joinRooms(grid, centreX[sector], centreY[sector], centreX[sector + 1], centreY[sector + 1]);
+                }
+                if (i + 1 < sectorRows && (j == 0 || random.nextBoolean())) {
+                    int below = sector + sectorCols;
+                    joinRooms(grid, centreX[sector], centreY[sector], centreX[below], centreY[below]);
+                }
+            }
+        }
+
+        int startX = single ? 1 : centreX[0];
+        int startY = single ? 1 : centreY[0];
+        int stairsX = single ? rows - 2 : centreX[centreX.length - 1];
+        int stairsY = single ? cols - 2 : centreY[centreY.length - 1];
+        FloorplanReader.setCell(grid, startX, startY, TileKind.START.getGlyph(), difficulty);
+        FloorplanReader.setCell(grid, stairsX, stairsY, TileKind.STAIRS.getGlyph(), difficulty);
+
+        // the first column of rooms is always joined top to bottom and every row left to right, so
+        // the corridors down the first column and along the last row reach the stairs; doors are kept off them
+        int[] pathX;
+        int[] pathY;
+        if (single) {
+            pathX = new int[] {startX, stairsX};
+            pathY = new int[] {startY, stairsY};
+        } else {
+            pathX = new int[sectorRows + sectorCols - 1];
+            pathY = new int[pathX.length];
+            for (int i = 0; i < sectorRows; i++) {
+                pathX[i] = centreX[i * sectorCols];
+                pathY[i] = centreY[i * sectorCols];
+            }
+            for (int j = 1; j < sectorCols; j++) {
+                pathX[sectorRows - 1 + j] = centreX[(sectorRows - 1) * sectorCols + j];
+                pathY[sectorRows - 1 + j] = centreY[(sectorRows - 1) * sectorCols + j];
+            }
+        }
+
+        scatter(grid, pathCells(grid, pathX, pathY), difficulty, random);
+    }
+
+    /**
+     * Picks a room length for a sector of the given length: between half of it and all of it
+     */
+    private static int roomSpan(int span, RandomGenerator random) {
+        int least = Math.max(1, (span + 1) / 2);
+        return least + random.nextInt(span - least + 1);
+    }
+
+    /**
+     * Turns every wall in the given rectangle, corners included, into an empty tile
+     */
+    private static void carve(FloorGrid grid, int top, int left, int bottom, int right) {
+        for (int x = Math.min(top, bottom); x <= Math.max(top, bottom); x++) {
+            for (int y = Math.min(left, right); y <= Math.max(left, right); y++) {
+                int cell = grid.index(x, y);
+                if (grid.getKind(cell) == TileKind.WALL) {
+                    grid.setKind(cell, TileKind.EMPTY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Digs an L-shaped corridor between two room centres: along the first room's row, then down the second room's column
+     */
+    private static void joinRooms(FloorGrid grid, int x1, int y1, int x2, int y2) {
+        carve(grid, x1, y1, x1, y2);
+        carve(grid, x1, y2, x2, y2);
+    }
+
+    /**
+     * Returns the cells, sorted, of the corridors joining each of the given room centres to the next,
+     * dug as joinRooms digs them
+     */
+    private static int[] pathCells(FloorGrid grid, int[] pathX, int[] pathY) {
+        int count = 0;
+        for (int i = 1; i < pathX.length; i++) {
+            count += Math.abs(pathY[i] - pathY[i - 1]) + Math.abs(pathX[i] - pathX[i - 1]) + 2;
+        }
+        int[] cells = new int[count];
+        int n = 0;
+        for (int i = 1; i < pathX.length; i++) {
+            int x1 = pathX[i - 1];
+            int y1 = pathY[i - 1];
+            int x2 = pathX[i];
+            int y2 = pathY[i];
+            for (int y = Math.min(y1, y2); y <= Math.max(y1, y2); y++) {
+                cells[n++] = grid.index(x1, y);
+            }
+            for (int x = Math.min(x1, x2); x <= Math.max(x1, x2); x++) {
+                cells[n++] = grid.index(x, y2);
+            }
+        }
+        Arrays.sort(cells);
+        return cells;
+    }
+
+    /**
+     * Puts enemies, gold and doors on the empty tiles, more of them the higher the difficulty.
+     * Doors only go in gaps between two walls, and never on the start-to-stairs path.
+     * The floor is gone through a chunk at a time, so a chunked grid only decodes each chunk about once.
+     */
+    private static void scatter(FloorGrid grid, int[] pathCells, int difficulty, RandomGenerator random) {
+        double enemyChance = 0.04 + 0.02 * difficulty;
+        double goldChance = 0.05 + 0.01 * difficulty;
+        double doorChance = 0.10 + 0.05 * difficulty;
+        int size = FloorChunks.CHUNK_SIZE;
+        for (int top = 0; top < grid.getRows(); top += size) {
+            for (int left = 0; left < grid.getCols(); left += size) {
+                for (int x = Math.max(1, top); x < Math.min(top + size, grid.getRows() - 1); x++) {
+                    for (int y = Math.max(1, left); y < Math.min(left + size, grid.getCols() - 1); y++) {
+                        int cell = grid.index(x, y);
+                        if (grid.getKind(cell) != TileKind.EMPTY) {
+                            continue;
+                        }
+                        double roll = random.nextDouble();
+                        if (isGap(grid, x, y) && Arrays.binarySearch(pathCells, cell) < 0
+                                && random.nextDouble() < doorChance) {
+                            FloorplanReader.setCell(grid, x, y, TileKind.GOLD_DOOR.getGlyph(), difficulty);
+                        } else if (roll < enemyChance) {
+                            FloorplanReader.setCell(grid, x, y, TileKind.ENEMY.getGlyph(), difficulty);
+                        } else if (roll < enemyChance + goldChance) {
+                            FloorplanReader.setCell(grid, x, y, TileKind.GOLD.getGlyph(), difficulty);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given cell is a gap in a wall: walls either side of it in one direction
+     * and open tiles either side in the other, as in a corridor or a doorway
+     */
+    private static boolean isGap(FloorGrid grid, int x, int y) {
+        boolean wallsAcross = isWall(grid, x, y - 1) && isWall(grid, x, y + 1);
+        boolean wallsAlong = isWall(grid, x - 1, y) && isWall(grid, x + 1, y);
+        if (wallsAcross) {
+            return !isWall(grid, x - 1, y) && !isWall(grid, x + 1, y);
+        }
+        return wallsAlong && !isWall(grid, x, y - 1) && !isWall(grid, x, y + 1);
+    }
+
+    private static boolean isWall(FloorGrid grid, int x, int y) {
+        return grid.getKind(x, y) == TileKind.WALL;
+    }
+}
@@ -0,0 +1,526 @@
+package locations;
+
+import java.util.Arrays;
+
+import tile.TileKind;
+
+/**
+ * Dense, array-backed storage for every cell of a Floor. A cell's kind is kept as a byte, with the
+ * state needed by the stateful tiles (gold value, door cost, open/collected/dead flags and enemy HP)
+ * kept in parallel primitive arrays. Cells are addressed the same way as the Points used elsewhere:
+ * x is the row and y is the column. None of the accessors allocate.
+ * Copies of a grid share its layout (kinds and values), which is then fixed, and only copy the
+ * state that changes during play.
+ * Every cell whose state changes (a door opening, gold being collected, an enemy dying or reviving)
+ * is appended to a change log, so that anything drawing the grid can update just those cells.
+ * Each reader keeps its own count of the changes it has seen.
+ * A grid for a very large floor can be turned into a chunked one, or made chunked from the start,
+ * which keeps only a bounded number of square chunks of cells in arrays and the rest in a compact
+ * off-heap form (see FloorChunks), so the memory it holds doesn't grow with the floor. The accessors are the same either way, but those
+ * of a chunked grid may decode a chunk, so a chunked grid must only be used by one thread at a time.
+ *
+ * @version 1.3
+ * @author karamimamali
+ */
+public class FloorGrid {
+
+    // flag set on a GoldDoor cell once it has been opened
+    private static final byte OPEN = 1;
+    // flag set on a Gold cell once it has been collected
+    private static final byte COLLECTED = 1 << 1;
+    // flag set on an Enemy cell once it has been defeated
+    private static final byte DEAD = 1 << 2;
+
+    // the number of rows (x values) on the floor
+    private final int rows;
+    // the number of columns (y values) on the floor
+    private final int cols;
+    // the TileKind ordinal of every cell, or null if the grid is chunked
+    private final byte[] kinds;
+    // the gold value of Gold cells, or the cost of GoldDoor cells
+    private final int[] values;
+    // the remaining hitpoints of Enemy cells
+    private final int[] enemyHp;
+    // the OPEN/COLLECTED/DEAD flags of every cell
+    private final byte[] flags;
+    // the cells of a chunked grid, or null if the grid is dense
+    private final FloorChunks chunks;
+    // the x,y location of the start tile, -1 until one is set
+    private int startX = -1;
+    private int startY = -1;
+    // whether the kinds and values arrays are shared with another grid, and so can't be changed
+    private boolean layoutShared = false;
+    // the cell of every state change, in the order they happened
+    private int[] changedCells = new int[16];
+    // the number of state changes logged
+    private int changeCount;
+
+    /**
+     * Creates a grid of the given size with every cell set to a wall
+     *
+     * @param rows - The number of rows (x values) on the floor
+     * @param cols - The number of columns (y values) on the floor
+     */
+    public FloorGrid(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int size = rows * cols;
+        this.kinds = new byte[size];
+        this.values = new int[size];
+        this.enemyHp = new int[size];
+        this.flags = new byte[size];
+        this.chunks = null;
+    }
+
+    /**
+     * Creates a chunked grid of the given size with every cell set to a wall and none of its chunks
+     * resident, to be filled in place, without ever holding the whole floor in arrays
+     *
+     * @param rows - The number of rows (x values) on the floor
+     * @param cols - The number of columns (y values) on the floor
+     * @param maxResidentChunks - The most chunks kept decoded at once, at least 1
+     */
+    FloorGrid(int rows, int cols, int maxResidentChunks) {
+        this.rows = rows;
+        this.cols = cols;
+        this.kinds = null;
+        this.values = null;
+        this.enemyHp = null;
+        this.flags = null;
+        this.chunks = new FloorChunks(rows, cols, maxResidentChunks);
+    }
+
+    /**
+     * Creates a copy of the given grid that shares its layout but has its own copy of the play state
+     */
+    private FloorGrid(FloorGrid grid) {
+        this.rows = grid.rows;
+        this.cols = grid.cols;
+        this.kinds = grid.kinds;
+        this.values = grid.values;
+        this.enemyHp = grid.enemyHp.clone();
+        this.flags = grid.flags.clone();
+        this.chunks = null;
+        this.startX = grid.startX;
+        this.startY = grid.startY;
+        this.layoutShared = true;
+    }
+
+    /**
+     * Creates a chunked copy of the given grid, with none of its chunks resident
+     */
+    private FloorGrid(FloorGrid grid, int maxResidentChunks) {
+        this.rows = grid.rows;
+        this.cols = grid.cols;
+        this.kinds = null;
+        this.values = null;
+        this.enemyHp = null;
+        this.flags = null;
+        this.chunks = new FloorChunks(this.rows, this.cols, maxResidentChunks);
+        this.startX = grid.startX;
+        this.startY = grid.startY;
+        // filled a chunk at a time, so each chunk is only encoded once
+        int size = FloorChunks.CHUNK_SIZE;
+        for (int top = 0; top < this.rows; top += size) {
+            for (int left = 0; left < this.cols; left += size) {
+                for (int x = top; x < Math.min(top + size, this.rows); x++) {
+                    for (int y = left; y < Math.min(left + size, this.cols); y++) {
+                        int cell = index(x, y);
+                        byte kind = grid.kinds[cell];
+                        byte flags = grid.flags[cell];
+                        // the chunks start out as walls, so only the other cells need storing
+                        if (kind != 0 || grid.values[cell] != 0 || grid.enemyHp[cell] != 0 || flags != 0) {
+                            this.chunks.setKind(x, y, kind);
+                            this.chunks.setValue(x, y, grid.values[cell]);
+                            this.chunks.setEnemyHp(x, y, grid.enemyHp[cell]);
+                            this.chunks.setFlags(x, y, flags);
+                        }
+                    }
+                }
+            }
+        }
+        this.chunks.evictAll();
+        this.chunks.resetMetrics();
+    }
+
+    /**
+     * Returns a copy of this grid with its own enemy HP and open/collected/dead flags, sharing the
+     * layout (tile kinds, gold values and door costs) with this grid. Once copied, neither grid's
+     * layout can be changed.
+     *
+     * @return A copy of this grid with its own play state
+     * @throws UnsupportedOperationException if this grid is chunked
+     */
+    public FloorGrid copy() {
+        if (this.chunks != null) {
+            throw new UnsupportedOperationException("A chunked grid can't be copied");
+        }
+        this.layoutShared = true;
+        return new FloorGrid(this);
+    }
+
+    /**
+     * Returns a chunked copy of this dense grid, holding at most the given number of chunks of
+     * FloorChunks.CHUNK_SIZE x FloorChunks.CHUNK_SIZE cells in arrays at once. The copy starts with
+     * an empty change log. This grid is left as it was.
+     *
+     * @param maxResidentChunks - The most chunks the copy keeps decoded at once, at least 1
+     * @return A chunked copy of this grid
+     * @throws IllegalStateException if this grid is already chunked
+     */
+    public FloorGrid toChunked(int maxResidentChunks) {
+        if (this.chunks != null) {
+            throw new IllegalStateException("The grid is already chunked");
+        }
+        return new FloorGrid(this, maxResidentChunks);
+    }
+
+    /**
+     * Encodes and drops every resident chunk of a chunked grid that has just been filled, and sets its
+     * chunk metrics back to 0, so it starts out as a chunked copy of a dense grid would
+     */
+    void finishFilling() {
+        if (this.chunks != null) {
+            this.chunks.evictAll();
+            this.chunks.resetMetrics();
+        }
+    }
+
+    /**
+     * Returns whether this grid keeps its cells in chunks, only some of them resident
+     *
+     * @return True if the grid is chunked, false if every cell is held in arrays
+     */
+    public boolean isChunked() {
+        return this.chunks != null;
+    }
+
+    /**
+     * Returns the number of times a chunk of this grid has been decoded to be used, or 0 if it isn't chunked
+     *
+     * @return The number of chunk loads
+     */
+    public long getChunkLoads() {
+        return this.chunks != null ? this.chunks.getLoads() : 0;
+    }
+
+    /**
+     * Returns the number of times a chunk of this grid has been dropped to make room for another,
+     * or 0 if it isn't chunked
+     *
+     * @return The number of chunk evictions
+     */
+    public long getChunkEvictions() {
+        return this.chunks != null ? this.chunks.getEvictions() : 0;
+    }
+
+    /**
+     * Returns the number of chunks of this grid currently decoded, or 0 if it isn't chunked
+     *
+     * @return The number of resident chunks
+     */
+    public int getResidentChunkCount() {
+        return this.chunks != null ? this.chunks.getResidentCount() : 0;
+    }
+
+    /**
+     * Returns the number of bytes of off-heap storage held by this grid's chunks that aren't
+     * resident, or 0 if it isn't chunked
+     *
+     * @return The size of the compact form of the chunks
+     */
+    public long getStoredChunkBytes() {
+        return this.chunks != null ? this.chunks.getStoredBytes() : 0;
+    }
+
+    /**
+     * Returns the number of rows (x values) on the floor
+     *
+     * @return The number of rows on the floor
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the number of columns (y values) on the floor
+     *
+     * @return The number of columns on the floor
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * Returns the row (x) of the start tile, or -1 if there isn't one
+     *
+     * @return The row of the start tile
+     */
+    public int getStartX() {
+        return this.startX;
+    }
+
+    /**
+     * Returns the column (y) of the start tile, or -1 if there isn't one
+     *
+     * @return The column of the start tile
+     */
+    public int getStartY() {
+        return this.startY;
+    }
+
+    /**
+     * Records the x,y location of the start tile
+     *
+     * @param x - The row of the start tile
+     * @param y - The column of the start tile
+     */
+    public void setStart(int x, int y) {
+        checkLayoutNotShared();
+        this.startX = x;
+        this.startY = y;
+    }
+
+    /**
+     * Returns whether the given x,y location lies on the floor
+     *
+     * @param x - The row to check
+     * @param y - The column to check
+     * @return True if the location is inside the grid, else false
+     */
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < this.rows && y < this.cols;
+    }
+
+    /**
+     * Returns the cell index of the given x,y location, for use with the index based accessors
+     *
+     * @param x - The row of the cell
+     * @param y - The column of the cell
+     * @return The cell index of the location
+     */
+    public int index(int x, int y) {
+        return x * this.cols + y;
+    }
+
+    /**
+     * Returns the kind of tile at the given x,y location
+     *
+     * @param x - The row of the cell
+     * @param y - The column of the cell
+     * @return The kind of tile at the location
+     */
+    public TileKind getKind(int x, int y) {
+        return getKind(index(x, y));
+    }
+
+    /**
+     * Returns the kind of tile in the given cell
+     *
+     * @param cell - The cell index
+     * @return The kind of tile in the cell
+     */
+    public TileKind getKind(int cell) {
+        if (this.chunks != null) {
+            int x = cell / this.cols;
+            return TileKind.fromOrdinal(this.chunks.getKind(x, cell - x * this.cols));
+        }
+        return TileKind.fromOrdinal(this.kinds[cell]);
+    }
+
+    /**
+     * Sets the kind of tile in the given cell
+     *
+     * @param cell - The cell index
+     * @param kind - The kind of tile to store
+     */
+    public void setKind(int cell, TileKind kind) {
+        checkLayoutNotShared();
+        if (this.chunks != null) {
+            int x = cell / this.cols;
+            this.chunks.setKind(x, cell - x * this.cols, (byte) kind.ordinal());
+            return;
+        }
+        this.kinds[cell] = (byte) kind.ordinal();
+    }
+
+    /**
+     * Returns the gold value of a Gold cell, or the cost of a GoldDoor cell
+     *
+     * @param cell - The cell index
+     * @return The value stored for the cell
+     */
+    public int getValue(int cell) {
+        if (this.chunks != null) {
+            int x = cell / this.cols;
+            return this.chunks.getValue(x, cell - x * this.cols);
+        }
+        return this.values[cell];
+    }
+
+    /**
+     * Sets the gold value of a Gold cell, or the cost of a GoldDoor cell
+     *
+     * @param cell - The cell index
+     * @param value - The value to store for the cell
+     */
+    public void setValue(int cell, int value) {
+        checkLayoutNotShared();
+        if (this.chunks != null) {
+            int x = cell / this.cols;
+            this.chunks.setValue(x, cell - x * this.cols, value);
+            return;
+        }
+        this.values[cell] = value;
+    }
+
+    /**
+     * Returns the remaining hitpoints of an Enemy cell
+     *
+     * @param cell - The cell index
+     * @return The enemy's remaining hitpoints
+     */
+    public int getEnemyHp(int cell) {
+        if (this.chunks != null) {
+            int x = cell / this.cols;
+            return this.chunks.getEnemyHp(x, cell - x * this.cols);
+        }
+        return this.enemyHp[cell];
+    }
+
+    /**
+     * Sets the remaining hitpoints of an Enemy cell
+     *
+     * @param cell - The cell index
+     * @param hp - The enemy's remaining hitpoints
+     */
+    public void setEnemyHp(int cell, int hp) {
+        if (this.chunks != null) {
+            int x = cell / this.cols;
+            this.chunks.setEnemyHp(x, cell - x * this.cols, hp);
+            return;
+        }
+        this.enemyHp[cell] = hp;
+    }
+
+    /**
+     * Returns whether the GoldDoor in the given cell has been opened
+     *
+     * @param cell - The cell index
+     * @return True if the door is open, else false
+     */
+    public boolean isOpen(int cell) {
+        return (getFlags(cell) & OPEN) != 0;
+    }
+
+    /**
+     * Marks the GoldDoor in the given cell as open
+     *
+     * @param cell - The cell index
+     */
+    public void open(int cell) {
+        setFlag(cell, OPEN, true);
+    }
+
+    /**
+     * Returns whether the Gold in the given cell has been collected
+     *
+     * @param cell - The cell index
+     * @return True if the gold has been collected, else false
+     */
+    public boolean isCollected(int cell) {
+        return (getFlags(cell) & COLLECTED) != 0;
+    }
+
+    /**
+     * Marks the Gold in the given cell as collected
+     *
+     * @param cell - The cell index
+     */
+    public void collect(int cell) {
+        setFlag(cell, COLLECTED, true);
+    }
+
+    /**
+     * Returns whether the Enemy in the given cell has been defeated
+     *
+     * @param cell - The cell index
+     * @return True if the enemy is dead, else false
+     */
+    public boolean isDead(int cell) {
+        return (getFlags(cell) & DEAD) != 0;
+    }
+
+    /**
+     * Sets whether the Enemy in the given cell has been defeated
+     *
+     * @param cell - The cell index
+     * @param dead - True if the enemy is dead, false if it is alive
+     */
+    public void setDead(int cell, boolean dead) {
+        setFlag(cell, DEAD, dead);
+    }
+
+    /**
+     * Returns the number of state changes logged since the grid was created. A reader that has seen
+     * the first n changes finds the cells changed since with getChangedCell(n) up to getChangeCount()-1.
+     *
+     * @return The number of state changes logged
+     */
+    public int getChangeCount() {
+        return this.changeCount;
+    }
+
+    /**
+     * Returns the cell index of the given logged state change
+     *
+     * @param change - The number of the change, from 0 to getChangeCount()-1
+     * @return The index of the cell that changed
+     */
+    public int getChangedCell(int change) {
+        return this.changedCells[change];
+    }
+
+    /**
+     * Returns the OPEN/COLLECTED/DEAD flags of the given cell
+     */
+    private byte getFlags(int cell) {
+        if (this.chunks != null) {
+            int x = cell / this.cols;
+            return this.chunks.getFlags(x, cell - x * this.cols);
+        }
+        return this.flags[cell];
+    }
+
+    /**
+     * Sets or clears a flag on the given cell, logging the cell if the flag actually changed
+     */
+    private void setFlag(int cell, byte flag, boolean set) {
+        byte before = getFlags(cell);
+        byte after = (byte) (set ? before | flag : before & ~flag);
+        if (after == before) {
+            return;
+        }
+        if (this.chunks != null) {
+            int x = cell / this.cols;
+            this.chunks.setFlags(x, cell - x * this.cols, after);
+        } else {
+            this.flags[cell] = after;
+        }
+        if (this.changeCount == this.changedCells.length) {
+            this.changedCells = Arrays.copyOf(this.changedCells, this.changeCount * 2);
+        }
+        this.changedCells[this.changeCount++] = cell;
+    }
+
+    /**
+     * Stops a layout that is shared between grids from being changed through any one of them
+     *
+     * @throws IllegalStateException if the layout is shared
+     */
+    private void checkLayoutNotShared() {
+        if (this.layoutShared) {
+            throw new IllegalStateException("The layout of a copied grid can't be changed");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package locations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A process-wide cache of parsed floor plan resources. Each floorplanD-V.txt file is read and parsed
+ * once, the first time a floor of difficulty D and variant V is wanted; every Floor after that gets a
+ * copy of the cached grid, sharing its layout and only copying the state that changes during play.
+ * Safe to use from many threads at once.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class FloorTemplateCache {
+
+    // the parsed templates, keyed by resource name, eg. "/floorplan0-1.txt". Never changed once cached.
+    private static final ConcurrentHashMap<String, FloorGrid> templates = new ConcurrentHashMap<>();
+
+    private FloorTemplateCache() {
+    }
+
+    /**
+     * Returns a fresh grid for a floor of the given difficulty and variant, with every enemy alive,
+     * all gold uncollected and all doors closed
+     *
+     * @param difficulty - The floor's difficulty level
+     * @param variant - Which of the floor plans for that difficulty to use, counted from 1
+     * @return A new grid with its own play state
+     * @throws IOException if the floor plan resource is missing, can't be read or is malformed
+     */
+    public static FloorGrid newGrid(int difficulty, int variant) throws IOException {
+        String filename = "/floorplan" + difficulty + "-" + variant + ".txt";
+        try {
+            return templates.computeIfAbsent(filename, name -> load(name, difficulty)).copy();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads and parses the named floor plan resource
+     */
+    private static FloorGrid load(String filename, int difficulty) {
+        try (InputStream inputStream = FloorTemplateCache.class.getResourceAsStream(filename)) {
+            if (inputStream == null) {
+                throw new IOException("Resource file not found: " + filename);
+            }
+            return FloorplanReader.read(inputStream, difficulty);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package locations;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a floor plan file is malformed. Records the line and column (both counted from 1)
+ * at which the problem was found.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class FloorplanFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    // the line the problem was found on
+    private final int line;
+    // the column the problem was found at
+    private final int column;
+
+    /**
+     * Creates an exception describing a problem at the given line and column
+     *
+     * @param message - What is wrong
+     * @param line - The line the problem was found on, counted from 1
+     * @param column - The column the problem was found at, counted from 1
+     */
+    public FloorplanFormatException(String message, int line, int column) {
+        super(message + " (line " + line + ", column " + column + ")");
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Returns the line the problem was found on, counted from 1
+     *
+     * @return The line the problem was found on
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Returns the column the problem was found at, counted from 1
+     *
+     * @return The column the problem was found at
+     */
+    public int getColumn() {
+        return this.column;
+    }
+}
@@ -0,0 +1,221 @@
+package locations;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import tile.TileKind;
+
+/**
+ * Parses floor plan files straight from their bytes into a FloorGrid, in a single pass.
+ * A floor plan is the number of rows and the number of columns, separated by whitespace, followed
+ * by that many rows of that many tile characters each. Both LF and CRLF line endings are accepted,
+ * as are blank lines before the first row and trailing whitespace.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class FloorplanReader {
+
+    // the bytes being parsed
+    private final byte[] data;
+    // the difficulty of the floor, which sets enemy, gold and door values
+    private final int difficulty;
+    // the index of the next byte to parse
+    private int pos = 0;
+    // the line being parsed, counted from 1
+    private int line = 1;
+    // the index of the first byte of the line being parsed
+    private int lineStart = 0;
+
+    private FloorplanReader(byte[] data, int difficulty) {
+        this.data = data;
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * Reads a whole floor plan from the given stream and parses it into a grid
+     *
+     * @param in - The stream to read the floor plan from
+     * @param difficulty - The difficulty of the floor, which sets enemy, gold and door values
+     * @return The grid holding every cell of the floor plan
+     * @throws IOException if the stream can't be read
+     * @throws FloorplanFormatException if the floor plan is malformed
+     */
+    public static FloorGrid read(InputStream in, int difficulty) throws IOException {
+        return parse(in.readAllBytes(), difficulty);
+    }
+
+    /**
+     * Parses the given floor plan bytes into a grid
+     *
+     * @param data - The bytes of the floor plan
+     * @param difficulty - The difficulty of the floor, which sets enemy, gold and door values
+     * @return The grid holding every cell of the floor plan
+     * @throws FloorplanFormatException if the floor plan is malformed
+     */
+    public static FloorGrid parse(byte[] data, int difficulty) throws FloorplanFormatException {
+        return new FloorplanReader(data, difficulty).parse();
+    }
+
+    /**
+     * Stores the kind and initial state that corresponds with the tile character in the given cell of the grid
+     *
+     * @param grid - The grid to store the cell in
+     * @param x - The row of the cell
+     * @param y - The column of the cell
+     * @param tileChar - A character from the text representation of the floor
+     * @param difficulty - The difficulty of the floor, which sets enemy, gold and door values
+     * @return True if the character is a known tile, else false
+     */
+    public static boolean setCell(FloorGrid grid, int x, int y, char tileChar, int difficulty) {
+        int cell = grid.index(x, y);
+        switch (tileChar) {
+            case '-':
+                grid.setKind(cell, TileKind.WALL);
+                return true;
+            case 's':
+                grid.setKind(cell, TileKind.START);
+                grid.setStart(x, y);
+                return true;
+            case 'x':
+                grid.setKind(cell, TileKind.STAIRS);
+                return true;
+            case 'o':
+                grid.setKind(cell, TileKind.EMPTY);
+                return true;
+            case 'e':
+                grid.setKind(cell, TileKind.ENEMY);
+                grid.setEnemyHp(cell, (difficulty + 1) * 3); // as set by Character's constructor
+                return true;
+            case 'g':
+                grid.setKind(cell, TileKind.GOLD);
+                grid.setValue(cell, difficulty + 1);
+                return true;
+            case 'd':
+                // Gold door with cost based on difficulty
+                grid.setKind(cell, TileKind.GOLD_DOOR);
+                grid.setValue(cell, (difficulty + 1) * 2);
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses the header and every row of the floor plan
+     */
+    private FloorGrid parse() throws FloorplanFormatException {
+        int rows = readNumber("the number of rows");
+        int cols = readNumber("the number of columns");
+        endLine("after the number of columns");
+        skipBlankLines();
+        // every tile is a byte, so a header asking for more tiles than there are bytes left is
+        // malformed - checked before the grid is allocated, as rows * cols can overflow an int
+        if ((long) rows * cols > this.data.length - this.pos) {
+            throw error(rows + " rows of " + cols + " tiles is more than the floor plan holds");
+        }
+
+        FloorGrid grid = new FloorGrid(rows, cols);
+        for (int x = 0; x < rows; x++) {
+            if (this.pos >= this.data.length) {
+                throw error("expected " + rows + " rows but found " + x);
+            }
+            for (int y = 0; y < cols; y++) {
+                int b = this.pos < this.data.length ? this.data[this.pos] : '\n';
+                if (b == '\n' || b == '\r') {
+                    throw error("row " + (x + 1) + " has " + y + " tiles, expected " + cols);
+                }
+                if (!setCell(grid, x, y, (char) (b & 0xff), this.difficulty)) {
+                    throw error("unknown tile '" + (char) (b & 0xff) + "'");
+                }
+                this.pos++;
+            }
+            endLine("row " + (x + 1) + " has more than " + cols + " tiles");
+        }
+
+        skipBlankLines();
+        if (this.pos < this.data.length) {
+            throw error("unexpected text after the last row");
+        }
+        if (grid.getStartX() < 0) {
+            throw new FloorplanFormatException("no start tile", this.line, 1);
+        }
+        return grid;
+    }
+
+    /**
+     * Skips whitespace then reads a non-negative whole number
+     */
+    private int readNumber(String what) throws FloorplanFormatException {
+        while (this.pos < this.data.length && isWhitespace(this.data[this.pos])) {
+            if (this.data[this.pos] == '\n') {
+                newLine(this.pos + 1);
+            }
+            this.pos++;
+        }
+        int start = this.pos;
+        int number = 0;
+        while (this.pos < this.data.length && this.data[this.pos] >= '0' && this.data[this.pos] <= '9') {
+            number = number * 10 + (this.data[this.pos] - '0');
+            if (number > 100_000) {
+                throw error(what + " is too large");
+            }
+            this.pos++;
+        }
+        if (this.pos == start) {
+            throw error("expected " + what);
+        }
+        return number;
+    }
+
+    /**
+     * Skips trailing spaces and the end of the current line (or the end of the file)
+     */
+    private void endLine(String problem) throws FloorplanFormatException {
+        while (this.pos < this.data.length && (this.data[this.pos] == ' ' || this.data[this.pos] == '\t')) {
+            this.pos++;
+        }
+        if (this.pos < this.data.length && this.data[this.pos] == '\r') {
+            this.pos++;
+        }
+        if (this.pos < this.data.length) {
+            if (this.data[this.pos] != '\n') {
+                throw error(problem);
+            }
+            this.pos++;
+            newLine(this.pos);
+        }
+    }
+
+    /**
+     * Skips any lines holding nothing but whitespace
+     */
+    private void skipBlankLines() {
+        int i = this.pos;
+        while (i < this.data.length && isWhitespace(this.data[i])) {
+            if (this.data[i] == '\n') {
+                newLine(i + 1);
+                this.pos = i + 1;
+            }
+            i++;
+        }
+        if (i == this.data.length) {
+            this.pos = i;
+        }
+    }
+
+    private void newLine(int start) {
+        this.line++;
+        this.lineStart = start;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * Returns an exception describing the given problem at the current position
+     */
+    private FloorplanFormatException error(String problem) {
+        return new FloorplanFormatException(problem, this.line, this.pos - this.lineStart + 1);
+    }
+}
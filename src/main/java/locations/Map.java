@@ -2,10 +2,12 @@ package locations;
 
 import java.util.ArrayList;
 
+import rng.GameRandom;
+
 /**
  * Populates and holds in an ArrayList all the Dungeon objects in the game world
  *
- * @version 1.0
+ * @version 1.4
  * @author karamimamali
  */
 public class Map {
@@ -14,11 +16,56 @@ public class Map {
     private final ArrayList<Dungeon> dungeonList = new ArrayList<>();
     // the limit on the amount of dungeons in the map
     private final int howManyDungeons = 4;
+    // how the floors of the dungeons are built
+    private final WorldGeneration generation;
+    // the session's random source, shared by every dungeon
+    private final GameRandom random;
+    // the size of generated floors, or 0 to load floors from the floor plan files
+    private final int floorRows;
+    private final int floorCols;
 
     /**
-     * Populates the list of dungeons
+     * Populates the list of dungeons, with floors built when first needed
      */
     public Map() {
+        this(WorldGeneration.LAZY);
+    }
+
+    /**
+     * Populates the list of dungeons, with floors built as the given generation mode says
+     *
+     * @param generation - Whether floors are built now, on first use or in the background
+     */
+    public Map(WorldGeneration generation) {
+        this(generation, new GameRandom());
+    }
+
+    /**
+     * Populates the list of dungeons, with floors built as the given generation mode says and every
+     * random choice made from the given random source
+     *
+     * @param generation - Whether floors are built now, on first use or in the background
+     * @param random - The session's random source
+     */
+    public Map(WorldGeneration generation, GameRandom random) {
+        this(generation, random, 0, 0);
+    }
+
+    /**
+     * Populates the list of dungeons, with floors of the given size generated as the given generation
+     * mode says rather than loaded from the floor plan files, and every random choice made from the
+     * given random source
+     *
+     * @param generation - Whether floors are built now, on first use or in the background
+     * @param random - The session's random source
+     * @param floorRows - The number of rows of each floor, or 0 to load floor plan files
+     * @param floorCols - The number of columns of each floor, or 0 to load floor plan files
+     */
+    public Map(WorldGeneration generation, GameRandom random, int floorRows, int floorCols) {
+        this.generation = generation;
+        this.random = random;
+        this.floorRows = floorRows;
+        this.floorCols = floorCols;
         populateDungeonList();
     }
 
@@ -27,7 +74,7 @@ public class Map {
      */
     private void populateDungeonList() {
         for (int i = 0; i < this.howManyDungeons; i++) {
-            this.dungeonList.add(new Dungeon(i, i));
+            this.dungeonList.add(new Dungeon(i, i, this.generation, this.random, this.floorRows, this.floorCols));
         }
         // Set final dungeon in list to be the last dungeon
         this.dungeonList.get(howManyDungeons-1).setLastDungeon();
@@ -48,6 +95,29 @@ public class Map {
         return null;
     }
 
+    /**
+     * Starts building, in the background, the floor the player will reach after taking the stairs on
+     * the given floor - the next floor of the dungeon, or the first floor of the next dungeon.
+     * Does nothing unless floors are built lazily.
+     *
+     * @param dungeonID - The ID of the dungeon the player is in
+     * @param floorID - The ID of the floor the player is on
+     */
+    public void prefetchNextFloor(int dungeonID, int floorID) {
+        if (this.generation != WorldGeneration.LAZY) {
+            return;
+        }
+        Dungeon dungeon = getDungeonByID(dungeonID);
+        if (dungeon != null && floorID + 1 < dungeon.getFloorCount()) {
+            dungeon.prefetchFloor(floorID + 1);
+        } else {
+            Dungeon next = getDungeonByID(dungeonID + 1);
+            if (next != null) {
+                next.prefetchFloor(0);
+            }
+        }
+    }
+
     /**
      * Returns the limit on the number of dungeons there are in the world map
      *
@@ -56,4 +126,40 @@ public class Map {
     public int getHowManyDungeons() {
         return this.howManyDungeons;
     }
+
+    /**
+     * Returns how the floors of the dungeons are built
+     *
+     * @return The map's WorldGeneration mode
+     */
+    public WorldGeneration getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Returns the number of rows of each generated floor, or 0 if floors are loaded from the floor plan files
+     *
+     * @return The number of rows of each floor, or 0
+     */
+    public int getFloorRows() {
+        return this.floorRows;
+    }
+
+    /**
+     * Returns the number of columns of each generated floor, or 0 if floors are loaded from the floor plan files
+     *
+     * @return The number of columns of each floor, or 0
+     */
+    public int getFloorCols() {
+        return this.floorCols;
+    }
+
+    /**
+     * Returns the session's random source, shared by every dungeon
+     *
+     * @return The map's GameRandom
+     */
+    public GameRandom getRandom() {
+        return this.random;
+    }
 }
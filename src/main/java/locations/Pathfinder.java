@@ -0,0 +1,427 @@
+package locations;
+
+import java.util.Arrays;
+
+import tile.TileKind;
+
+/**
+ * Finds shortest paths between cells of a FloorGrid, moving one row or column at a time as the
+ * player does. Breadth-first search and A* (with a Manhattan distance heuristic) are both offered;
+ * as every step costs the same they find paths of the same length, A* usually looking at far fewer cells.
+ * Walls are never crossed. A closed gold door is only crossed if the player's gold covers its cost -
+ * each door is judged on its own, so a path through several doors may cost more than the player has.
+ * Living enemies can optionally be walked around; the target cell itself is always allowed.
+ * The search buffers are kept between queries and only grow when a bigger floor is searched, so
+ * repeated queries don't allocate. On floors of more than DENSE_LIMIT cells (eg. big chunked floors)
+ * the buffers hold only the cells a search looks at, found through a hash table, rather than every
+ * cell of the floor - so a short path costs little memory however big the floor, though a search
+ * that finds no path still looks at every cell it can reach.
+ * A Pathfinder is not thread safe - give each thread its own.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class Pathfinder {
+
+    // the moves a path can take, as row and column offsets: up, down, left, right
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+    // the most cells a floor can have to be searched with buffers covering every cell (256KB each)
+    static final int DENSE_LIMIT = 1 << 16;
+    // the first size of the buffers of a sparse search
+    private static final int SPARSE_START = 1024;
+
+    // the search the buffers were last used for; a node's entries are only valid if stamped with it
+    private int search = 0;
+    // each cell's entries are kept at its node: the cell itself on small floors, or on floors of
+    // more than DENSE_LIMIT cells the next free node, given the first time the search looks at it
+    private boolean sparse;
+    // the search in which each node was reached
+    private int[] reached = new int[0];
+    // the search in which each node was closed (A* only)
+    private int[] closed = new int[0];
+    // the cell each node was reached from
+    private int[] parent = new int[0];
+    // the number of steps from the start to each node (A* only)
+    private int[] steps = new int[0];
+    // the BFS queue, holding cells
+    private int[] queue = new int[0];
+    // for sparse searches, a hash table from cell to node; a slot is only in use if stamped with the search
+    private int[] tableCells = new int[0];
+    private int[] tableNodes = new int[0];
+    private int[] tableStamps = new int[0];
+    // the number of nodes given out by this sparse search
+    private int nodeCount;
+    // the A* open list, a binary heap of (estimated path length << 32 | cell)
+    private long[] heap = new long[0];
+    private int heapSize;
+    // the cells of the last path found, from the first step to the target
+    private int[] path = new int[0];
+    private int pathLength;
+    // the number of columns of the grid last searched, to turn cells back into locations
+    private int cols;
+    // the number of cells looked at by the last search
+    private int visited;
+
+    /**
+     * Finds a shortest path from one location to another with a breadth-first search
+     *
+     * @param grid - The floor to search
+     * @param fromX - The row to start at
+     * @param fromY - The column to start at
+     * @param toX - The row to reach
+     * @param toY - The column to reach
+     * @param gold - The gold the player has, for deciding which closed doors can be crossed
+     * @param avoidEnemies - True to walk around living enemies, false to walk through them
+     * @return The number of steps in the path found (0 if already there), or -1 if there is no path
+     */
+    public int findPath(FloorGrid grid, int fromX, int fromY, int toX, int toY, int gold, boolean avoidEnemies) {
+        if (!begin(grid, fromX, fromY, toX, toY, gold)) {
+            return -1;
+        }
+        int start = grid.index(fromX, fromY);
+        int target = grid.index(toX, toY);
+        this.reached[node(start)] = this.search;
+        if (start == target) {
+            return buildPath(start, target);
+        }
+
+        int head = 0;
+        int tail = 0;
+        this.queue[tail++] = start;
+        while (head < tail) {
+            int cell = this.queue[head++];
+            this.visited++;
+            int x = cell / this.cols;
+            int y = cell % this.cols;
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!grid.isInBounds(nx, ny)) {
+                    continue;
+                }
+                int next = grid.index(nx, ny);
+                int nextNode = node(next);
+                if (this.reached[nextNode] == this.search || !canEnter(grid, next, next == target, gold, avoidEnemies)) {
+                    continue;
+                }
+                this.reached[nextNode] = this.search;
+                this.parent[nextNode] = cell;
+                if (next == target) {
+                    return buildPath(start, target);
+                }
+                this.queue[tail++] = next;
+            }
+        }
+        return noPath();
+    }
+
+    /**
+     * Finds a shortest path from one location to another with A*, guided by the Manhattan distance
+     * to the target. Usually looks at far fewer cells than findPath on big, open floors.
+     *
+     * @param grid - The floor to search
+     * @param fromX - The row to start at
+     * @param fromY - The column to start at
+     * @param toX - The row to reach
+     * @param toY - The column to reach
+     * @param gold - The gold the player has, for deciding which closed doors can be crossed
+     * @param avoidEnemies - True to walk around living enemies, false to walk through them
+     * @return The number of steps in the path found (0 if already there), or -1 if there is no path
+     */
+    public int findPathAStar(FloorGrid grid, int fromX, int fromY, int toX, int toY, int gold, boolean avoidEnemies) {
+        if (!begin(grid, fromX, fromY, toX, toY, gold)) {
+            return -1;
+        }
+        int start = grid.index(fromX, fromY);
+        int target = grid.index(toX, toY);
+        int startNode = node(start);
+        this.reached[startNode] = this.search;
+        this.steps[startNode] = 0;
+        this.heapSize = 0;
+        push(distance(fromX, fromY, toX, toY), start);
+
+        while (this.heapSize > 0) {
+            int cell = (int) pop();
+            int cellNode = node(cell);
+            if (this.closed[cellNode] == this.search) {
+                continue; // a stale entry, the cell was since reached by a shorter path
+            }
+            this.closed[cellNode] = this.search;
+            this.visited++;
+            if (cell == target) {
+                return buildPath(start, target);
+            }
+            int x = cell / this.cols;
+            int y = cell % this.cols;
+            int nextSteps = this.steps[cellNode] + 1;
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!grid.isInBounds(nx, ny)) {
+                    continue;
+                }
+                int next = grid.index(nx, ny);
+                int nextNode = node(next);
+                if (this.closed[nextNode] == this.search
+                        || (this.reached[nextNode] == this.search && this.steps[nextNode] <= nextSteps)
+                        || !canEnter(grid, next, next == target, gold, avoidEnemies)) {
+                    continue;
+                }
+                this.reached[nextNode] = this.search;
+                this.steps[nextNode] = nextSteps;
+                this.parent[nextNode] = cell;
+                push(nextSteps + distance(nx, ny, toX, toY), next);
+            }
+        }
+        return noPath();
+    }
+
+    /**
+     * Returns the number of steps in the last path found, or -1 if none was found
+     *
+     * @return The length of the last path
+     */
+    public int getPathLength() {
+        return this.pathLength;
+    }
+
+    /**
+     * Returns the row of the given step of the last path found
+     *
+     * @param step - The step, from 0 (the first cell moved onto) to getPathLength()-1 (the target)
+     * @return The row moved onto at that step
+     */
+    public int getPathX(int step) {
+        return this.path[step] / this.cols;
+    }
+
+    /**
+     * Returns the column of the given step of the last path found
+     *
+     * @param step - The step, from 0 (the first cell moved onto) to getPathLength()-1 (the target)
+     * @return The column moved onto at that step
+     */
+    public int getPathY(int step) {
+        return this.path[step] % this.cols;
+    }
+
+    /**
+     * Returns the number of cells the last search looked at, a measure of how much work it did
+     *
+     * @return The number of cells looked at by the last search
+     */
+    public int getVisitedCount() {
+        return this.visited;
+    }
+
+    /**
+     * Returns whether a path may move onto the given cell
+     */
+    private static boolean canEnter(FloorGrid grid, int cell, boolean isTarget, int gold, boolean avoidEnemies) {
+        TileKind kind = grid.getKind(cell);
+        if (kind.isPassable()) {
+            return kind != TileKind.ENEMY || !avoidEnemies || isTarget || grid.isDead(cell);
+        }
+        return kind == TileKind.GOLD_DOOR && (grid.isOpen(cell) || grid.getValue(cell) <= gold);
+    }
+
+    /**
+     * Checks both locations are on the grid and the target can be moved onto, makes sure the buffers
+     * fit the grid and starts a new search
+     *
+     * @return True if the search can go ahead, false if there can't be a path
+     */
+    private boolean begin(FloorGrid grid, int fromX, int fromY, int toX, int toY, int gold) {
+        this.pathLength = -1;
+        this.visited = 0;
+        if (!grid.isInBounds(fromX, fromY) || !grid.isInBounds(toX, toY)) {
+            return false;
+        }
+        if ((fromX != toX || fromY != toY) && !canEnter(grid, grid.index(toX, toY), true, gold, false)) {
+            return false; // eg. a wall - no need to search the whole floor to find that out
+        }
+        this.cols = grid.getCols();
+        long size = (long) grid.getRows() * grid.getCols();
+        this.sparse = size > DENSE_LIMIT;
+        if (this.sparse) {
+            this.nodeCount = 0;
+            if (this.tableCells.length == 0) {
+                this.tableCells = new int[2 * SPARSE_START];
+                this.tableNodes = new int[2 * SPARSE_START];
+                this.tableStamps = new int[2 * SPARSE_START];
+            }
+            if (this.reached.length < SPARSE_START) {
+                growBuffers(SPARSE_START);
+            }
+        } else if (this.reached.length < size) {
+            growBuffers((int) size);
+        }
+        this.search++;
+        if (this.search == Integer.MAX_VALUE) {
+            // stamps are about to wrap round, so clear them rather than risk a stale match
+            Arrays.fill(this.reached, 0);
+            Arrays.fill(this.closed, 0);
+            Arrays.fill(this.tableStamps, 0);
+            this.search = 1;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the node holding the given cell's entries, giving it the next free one if this sparse
+     * search hasn't looked at it before
+     */
+    private int node(int cell) {
+        if (!this.sparse) {
+            return cell;
+        }
+        if (2 * (this.nodeCount + 1) > this.tableCells.length) {
+            growTable();
+        }
+        int mask = this.tableCells.length - 1;
+        int slot = hash(cell) & mask;
+        while (this.tableStamps[slot] == this.search) {
+            if (this.tableCells[slot] == cell) {
+                return this.tableNodes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (this.nodeCount == this.reached.length) {
+            growBuffers(this.nodeCount * 2);
+        }
+        this.tableCells[slot] = cell;
+        this.tableNodes[slot] = this.nodeCount;
+        this.tableStamps[slot] = this.search;
+        return this.nodeCount++;
+    }
+
+    /**
+     * Doubles the hash table, moving the slots in use by this search over
+     */
+    private void growTable() {
+        int[] cells = this.tableCells;
+        int[] nodes = this.tableNodes;
+        int[] stamps = this.tableStamps;
+        this.tableCells = new int[cells.length * 2];
+        this.tableNodes = new int[cells.length * 2];
+        this.tableStamps = new int[cells.length * 2];
+        int mask = this.tableCells.length - 1;
+        for (int i = 0; i < cells.length; i++) {
+            if (stamps[i] == this.search) {
+                int slot = hash(cells[i]) & mask;
+                while (this.tableStamps[slot] == this.search) {
+                    slot = (slot + 1) & mask;
+                }
+                this.tableCells[slot] = cells[i];
+                this.tableNodes[slot] = nodes[i];
+                this.tableStamps[slot] = this.search;
+            }
+        }
+    }
+
+    /**
+     * Grows the node buffers to the given size, keeping their entries. New entries are stamped 0,
+     * which is never a search, so they don't need clearing.
+     */
+    private void growBuffers(int size) {
+        this.reached = Arrays.copyOf(this.reached, size);
+        this.closed = Arrays.copyOf(this.closed, size);
+        this.parent = Arrays.copyOf(this.parent, size);
+        this.steps = Arrays.copyOf(this.steps, size);
+        this.queue = Arrays.copyOf(this.queue, size);
+        if (this.heap.length < 16) {
+            this.heap = new long[16];
+        }
+    }
+
+    /**
+     * Spreads a cell's bits for the hash table, so neighbouring cells don't crowd into neighbouring slots
+     */
+    private static int hash(int cell) {
+        int h = cell * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Follows the parent links back from the target, recording the path in step order
+     *
+     * @return The number of steps in the path
+     */
+    private int buildPath(int start, int target) {
+        int length = 0;
+        for (int cell = target; cell != start; cell = this.parent[node(cell)]) {
+            length++;
+        }
+        if (this.path.length < length) {
+            this.path = new int[Math.max(length, this.path.length * 2)];
+        }
+        int cell = target;
+        for (int i = length - 1; i >= 0; i--) {
+            this.path[i] = cell;
+            cell = this.parent[node(cell)];
+        }
+        this.pathLength = length;
+        return length;
+    }
+
+    /**
+     * Records that no path was found
+     *
+     * @return -1
+     */
+    private int noPath() {
+        this.pathLength = -1;
+        return -1;
+    }
+
+    /**
+     * Returns the Manhattan distance between two locations
+     */
+    private static int distance(int x1, int y1, int x2, int y2) {
+        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    }
+
+    /**
+     * Adds a cell to the open list with the given estimated path length
+     */
+    private void push(int estimate, int cell) {
+        if (this.heapSize == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.heapSize * 2);
+        }
+        long entry = ((long) estimate << 32) | cell;
+        int i = this.heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (this.heap[up] <= entry) {
+                break;
+            }
+            this.heap[i] = this.heap[up];
+            i = up;
+        }
+        this.heap[i] = entry;
+    }
+
+    /**
+     * Removes and returns the open list entry with the lowest estimated path length
+     */
+    private long pop() {
+        long top = this.heap[0];
+        long last = this.heap[--this.heapSize];
+        int i = 0;
+        int half = this.heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < this.heapSize && this.heap[child + 1] < this.heap[child]) {
+                child++;
+            }
+            if (last <= this.heap[child]) {
+                break;
+            }
+            this.heap[i] = this.heap[child];
+            i = child;
+        }
+        this.heap[i] = last;
+        return top;
+    }
+}
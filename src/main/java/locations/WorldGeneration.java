@@ -0,0 +1,17 @@
+package locations;
+
+/**
+ * How a Map builds the Floors of its Dungeons
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public enum WorldGeneration {
+    // every floor is built up front, on the calling thread
+    EAGER,
+    // a floor is built when it is first asked for; the floor after the player's current one is
+    // built in the background, so it is normally ready by the time the player reaches the stairs
+    LAZY,
+    // every floor is built in the background in parallel, and waited for if asked for before it's ready
+    PARALLEL
+}
@@ -0,0 +1,365 @@
+package log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log lines to a file without making the threads that log wait for the disk. A line is just
+ * put in a bounded, lock-free ring buffer with the time it was logged; a background thread takes
+ * lines off in batches, formats them and writes each batch to the file through a FileChannel in one go.
+ * Once the file would grow past a size limit it is rotated: renamed to name.1 (name.1 to name.2 and
+ * so on, the oldest beyond the file limit deleted) and a new file started.
+ * When the ring is full a line is either dropped or the logging thread waits for room, as chosen.
+ * Counts of the lines written and dropped, the bytes written and the rotations are kept.
+ * Any number of threads may log at once.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class AsyncLogWriter implements Closeable {
+
+    /**
+     * What to do with a line logged while the ring is full
+     */
+    public enum OverflowPolicy {
+        // drop the line, counting it, so the logging thread never waits
+        DROP,
+        // wait until the writer has made room
+        BLOCK
+    }
+
+    // how long the writer sleeps when there is nothing to write, unless woken by a new line
+    private static final long IDLE_NANOS = 50_000_000L;
+    // how long a blocked logging thread waits before trying again
+    private static final long BLOCKED_NANOS = 50_000L;
+    // a batch is written out once its text reaches this many characters
+    private static final int BATCH_CHARS = 32 * 1024;
+    // the format of each line's time
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    // the file being written
+    private final Path file;
+    // the size a file is rotated at, and the number of old files kept
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final OverflowPolicy policy;
+
+    // the ring: each slot's line and time, and a sequence number saying whose turn the slot is -
+    // equal to its position for a logging thread to fill, one past it for the writer to take
+    private final String[] lines;
+    private final long[] times;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    // the position the next line logged goes in
+    private final AtomicLong tail = new AtomicLong();
+    // the position the writer takes the next line from, only used by the writer
+    private long head;
+
+    // the background thread writing lines to the file
+    private final Thread writer;
+    // whether the writer is asleep, so a new line should wake it
+    private volatile boolean writerIdle;
+    private volatile boolean closed;
+
+    // the file's channel, and how much has been written to the current file (writer thread only)
+    private FileChannel channel;
+    private long fileBytes;
+    // the text of the batch being put together (writer thread only)
+    private final StringBuilder batch = new StringBuilder(BATCH_CHARS + 1024);
+
+    // metrics
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong rotations = new AtomicLong();
+
+    /**
+     * Opens the given file for appending and starts the background writer
+     *
+     * @param file - The file to write to
+     * @param capacity - The most lines waiting to be written at once, rounded up to a power of 2
+     * @param maxFileBytes - The size at which the file is rotated
+     * @param maxFiles - The number of rotated files kept as well as the current one, at least 0
+     * @param policy - What to do with lines logged while the ring is full
+     * @throws IOException if the file can't be opened
+     */
+    public AsyncLogWriter(Path file, int capacity, long maxFileBytes, int maxFiles, OverflowPolicy policy) throws IOException {
+        if (capacity < 1 || capacity > 1 << 30 || maxFileBytes < 1 || maxFiles < 0) {
+            throw new IllegalArgumentException("Invalid log writer settings");
+        }
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.policy = policy;
+        int size = Integer.highestOneBit(capacity - 1 == 0 ? 1 : capacity - 1) << 1;
+        this.lines = new String[size];
+        this.times = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        openFile();
+        this.writer = new Thread(this::writeLoop, "game-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Logs a line, to be written to the file in the background. Never waits for the disk, and only
+     * waits at all if the ring is full and the policy is BLOCK.
+     *
+     * @param line - The line to log, without a line break
+     * @return True if the line will be written, false if it was dropped
+     */
+    public boolean log(String line) {
+        long time = System.currentTimeMillis();
+        while (!offer(line, time)) {
+            if (this.policy == OverflowPolicy.DROP || this.closed) {
+                this.dropped.incrementAndGet();
+                return false;
+            }
+            LockSupport.unpark(this.writer);
+            LockSupport.parkNanos(BLOCKED_NANOS);
+        }
+        if (this.writerIdle) {
+            LockSupport.unpark(this.writer);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of lines written to the file
+     *
+     * @return The number of lines written
+     */
+    public long getWrittenCount() {
+        return this.written.get();
+    }
+
+    /**
+     * Returns the number of lines dropped, because the ring was full or the file couldn't be written
+     *
+     * @return The number of lines dropped
+     */
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Returns the number of bytes written, across every file
+     *
+     * @return The number of bytes written
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten.get();
+    }
+
+    /**
+     * Returns the number of times the file has been rotated
+     *
+     * @return The number of rotations
+     */
+    public long getRotationCount() {
+        return this.rotations.get();
+    }
+
+    /**
+     * Stops taking lines, waits for the writer to write every line already logged, and closes the file.
+     * Lines logged afterwards are dropped. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+        boolean interrupted = false;
+        while (this.writer.isAlive()) {
+            try {
+                this.writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Puts a line in the ring, if there is room
+     *
+     * @return True if the line was put in, false if the ring is full
+     */
+    private boolean offer(String line, long time) {
+        while (true) {
+            long position = this.tail.get();
+            int slot = (int) position & this.mask;
+            long sequence = this.sequences.get(slot);
+            if (sequence == position) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.lines[slot] = line;
+                    this.times[slot] = time;
+                    // publishes the line to the writer
+                    this.sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false; // the writer hasn't taken the line from a lap ago yet
+            }
+            // otherwise another thread took the position first - try the next one
+        }
+    }
+
+    /**
+     * Takes lines off the ring and writes them, sleeping when there are none, until closed and empty
+     */
+    private void writeLoop() {
+        while (true) {
+            int taken = writeBatch();
+            if (taken == 0) {
+                if (this.closed && isEmpty()) {
+                    break;
+                }
+                this.writerIdle = true;
+                if (isEmpty() && !this.closed) {
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                }
+                this.writerIdle = false;
+            }
+        }
+        try {
+            if (this.channel != null) {
+                this.channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing log file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether there are no lines waiting in the ring
+     */
+    private boolean isEmpty() {
+        return this.sequences.get((int) this.head & this.mask) != this.head + 1;
+    }
+
+    /**
+     * Formats the lines waiting in the ring, up to a batch's worth, and writes them to the file
+     *
+     * @return The number of lines taken off the ring
+     */
+    private int writeBatch() {
+        int taken = 0;
+        while (this.batch.length() < BATCH_CHARS) {
+            int slot = (int) this.head & this.mask;
+            if (this.sequences.get(slot) != this.head + 1) {
+                break;
+            }
+            TIME_FORMAT.formatTo(Instant.ofEpochMilli(this.times[slot]), this.batch);
+            this.batch.append(' ').append(this.lines[slot]).append('\n');
+            this.lines[slot] = null;
+            // hands the slot back to the logging threads, for the next lap
+            this.sequences.set(slot, this.head + this.mask + 1);
+            this.head++;
+            taken++;
+        }
+        if (taken > 0) {
+            write(taken);
+        }
+        return taken;
+    }
+
+    /**
+     * Writes the batch to the file, rotating it first if it would grow too big, and clears the batch
+     */
+    private void write(int lineCount) {
+        byte[] bytes = this.batch.toString().getBytes(StandardCharsets.UTF_8);
+        this.batch.setLength(0);
+        try {
+            if (this.channel == null) {
+                openFile();
+            }
+            if (this.fileBytes > 0 && this.fileBytes + bytes.length > this.maxFileBytes) {
+                rotate();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            this.fileBytes += bytes.length;
+            this.bytesWritten.addAndGet(bytes.length);
+            this.written.addAndGet(lineCount);
+        } catch (IOException e) {
+            this.dropped.addAndGet(lineCount);
+            System.err.println("Error writing log file: " + e.getMessage());
+            closeChannel(); // try opening it again with the next batch
+        }
+    }
+
+    /**
+     * Opens the file for appending
+     */
+    private void openFile() throws IOException {
+        this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fileBytes = this.channel.size();
+    }
+
+    /**
+     * Closes the current file, shifts the rotated files along, deleting the oldest, and opens a new file
+     */
+    private void rotate() throws IOException {
+        closeChannel();
+        if (this.maxFiles == 0) {
+            Files.deleteIfExists(this.file);
+        } else {
+            Files.deleteIfExists(rotated(this.maxFiles));
+            for (int i = this.maxFiles - 1; i >= 1; i--) {
+                if (Files.exists(rotated(i))) {
+                    Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(this.file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        this.rotations.incrementAndGet();
+        openFile();
+    }
+
+    /**
+     * Returns the path of the given rotated file: the log file's name followed by its number
+     */
+    private Path rotated(int number) {
+        return this.file.resolveSibling(this.file.getFileName() + "." + number);
+    }
+
+    /**
+     * Closes the current file, if it is open, ignoring any error
+     */
+    private void closeChannel() {
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                // nothing more can be done with it
+            }
+            this.channel = null;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package replay;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import engine.GameEngine;
+import locations.Dungeon;
+import locations.Floor;
+import locations.FloorGrid;
+import locations.Map;
+import save.SaveFormatException;
+import save.SaveGame;
+import tile.character.Player;
+
+/**
+ * Plays recorded sessions again, headlessly and as fast as possible: the game is rebuilt from the
+ * recording's seed (or starting save) and every recorded move is stepped through a GameEngine with
+ * no text produced. As every random choice comes from the seed, the replay ends in exactly the state
+ * the session did, which is checked against the recorded final state hash.
+ * Run as a program, replays every recording given (or found in the directories given) across all
+ * cores, reporting any that don't match and how fast they were replayed.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class Replayer {
+
+    private Replayer() {
+    }
+
+    /**
+     * The outcome of replaying one recording
+     */
+    public static final class Result {
+
+        // the hash of the state the replay ended in
+        private final long hash;
+        // the hash recorded at the end of the session, if there is one
+        private final long expectedHash;
+        private final boolean finished;
+        // the number of moves replayed
+        private final int moves;
+        // how long the replay took
+        private final long nanos;
+
+        private Result(long hash, SessionRecording recording, long nanos) {
+            this.hash = hash;
+            this.expectedHash = recording.getFinalHash();
+            this.finished = recording.isFinished();
+            this.moves = recording.getMoveCount();
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the hash of the state the replay ended in
+         *
+         * @return The final state hash
+         */
+        public long getHash() {
+            return this.hash;
+        }
+
+        /**
+         * Returns whether the replay ended in the state the session did. A session that was never
+         * finished has no hash to check, and always matches.
+         *
+         * @return True if the final state hashes match
+         */
+        public boolean matches() {
+            return !this.finished || this.hash == this.expectedHash;
+        }
+
+        /**
+         * Returns the number of moves replayed
+         *
+         * @return The number of moves
+         */
+        public int getMoves() {
+            return this.moves;
+        }
+
+        /**
+         * Returns how long the replay took, in nanoseconds
+         *
+         * @return The replay's duration
+         */
+        public long getNanos() {
+            return this.nanos;
+        }
+    }
+
+    /**
+     * Replays the given recording
+     *
+     * @param recording - The recording to replay
+     * @return The outcome of the replay
+     * @throws SaveFormatException if the recording starts from a save that can't be read
+     */
+    public static Result replay(SessionRecording recording) throws SaveFormatException {
+        long start = System.nanoTime();
+        GameEngine engine;
+        if (recording.isResumed()) {
+            try {
+                engine = new GameEngine(SaveGame.read(Channels.newChannel(new ByteArrayInputStream(recording.getStartSave()))));
+            } catch (SaveFormatException e) {
+                throw e;
+            } catch (IOException e) {
+                // reading from memory can't otherwise fail
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            engine = new GameEngine(recording.getSeed());
+        }
+        engine.setNarrating(false);
+        for (int i = 0; i < recording.getMoveCount(); i++) {
+            engine.step(recording.getMove(i));
+        }
+        return new Result(hashState(engine.getPlayer()), recording, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns a hash of the given player's game state: their stats, status and location, the
+     * number of battles fought, and the state of every cell that has changed on every floor built.
+     * Two games that have played out the same way have the same hash.
+     *
+     * @param player - The player whose game to hash
+     * @return The hash of the game state
+     */
+    public static long hashState(Player player) {
+        long hash = 0xCBF29CE484222325L;
+        hash = mix(hash, player.getLevel());
+        hash = mix(hash, player.getXp());
+        hash = mix(hash, player.getGold());
+        hash = mix(hash, player.getHp());
+        hash = mix(hash, (player.isAlive() ? 1 : 0) | (player.isVictorious() ? 2 : 0));
+        hash = mix(hash, player.getCurrentDungeonID());
+        hash = mix(hash, player.getCurrentFloorID());
+        hash = mix(hash, player.getFloorX());
+        hash = mix(hash, player.getFloorY());
+        hash = mix(hash, player.getRandom().getBattleCount());
+        Map world = player.getWorldMap();
+        for (int d = 0; d < world.getHowManyDungeons(); d++) {
+            Dungeon dungeon = world.getDungeonByID(d);
+            for (int f = 0; f < dungeon.getFloorCount(); f++) {
+                // floors may have been built ahead in the background, so only those played on count
+                Floor floor = dungeon.getBuiltFloor(f);
+                if (floor == null || floor.getGrid().getChangeCount() == 0) {
+                    continue;
+                }
+                FloorGrid grid = floor.getGrid();
+                hash = mix(hash, ((long) d << 32) | f);
+                hash = mix(hash, grid.getChangeCount());
+                for (int i = 0; i < grid.getChangeCount(); i++) {
+                    int cell = grid.getChangedCell(i);
+                    hash = mix(hash, cell);
+                    hash = mix(hash, (grid.isOpen(cell) ? 1 : 0) | (grid.isCollected(cell) ? 2 : 0)
+                            | (grid.isDead(cell) ? 4 : 0));
+                    hash = mix(hash, grid.getEnemyHp(cell));
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes a value into a hash
+     */
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x100000001B3L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Replays every recording given, or found in the directories given, in parallel, printing any
+     * that don't match and a summary. Exits with status 1 if any failed.
+     *
+     * @param args - The recordings, or directories of .rec files, to replay
+     */
+    public static void main(String[] args) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    files.filter(file -> file.toString().endsWith(".rec")).forEach(paths::add);
+                }
+            } else {
+                paths.add(path);
+            }
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong moves = new AtomicLong();
+        long start = System.nanoTime();
+        paths.parallelStream().forEach(path -> {
+            try {
+                Result result = replay(SessionRecording.load(path));
+                moves.addAndGet(result.getMoves());
+                if (!result.matches()) {
+                    failures.incrementAndGet();
+                    System.out.println(path + ": final state doesn't match");
+                }
+            } catch (IOException e) {
+                failures.incrementAndGet();
+                System.out.println(path + ": " + e.getMessage());
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %d sessions (%d moves) in %.2fs - %.0f sessions/minute, %d failed%n",
+                paths.size(), moves.get(), seconds, paths.size() / seconds * 60, failures.get());
+        if (failures.get() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import engine.Move;
+import save.SaveFormatException;
+
+/**
+ * A compact record of one game session that is enough to play it again exactly: the seed the game
+ * was started from (or, for a game resumed from a save, the save itself) and every move made, packed
+ * four to a byte. Once the session is over, a hash of the final game state (see Replayer.hashState)
+ * is recorded too, so a replay can check it ended up in the same place.
+ * <p>
+ * The file format is the magic number "DCRP" and format version, then the seed, the length of the
+ * starting save (0 for a new game) and the save itself, the number of moves and the packed moves,
+ * and finally whether there is a final state hash and the hash. All numbers are big-endian.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class SessionRecording {
+
+    // the version of the format written, and the newest that can be read
+    public static final short VERSION = 1;
+    // "DCRP", at the start of every recording
+    private static final int MAGIC = 0x44435250;
+    // the moves, in the order of their ordinals, which are what is packed
+    private static final Move[] MOVES = Move.values();
+    // the most moves a recording can hold
+    private static final int MAX_MOVES = Integer.MAX_VALUE / 2;
+
+    // the seed of a new game
+    private final long seed;
+    // the save a resumed game started from, or an empty array for a new game
+    private final byte[] startSave;
+    // the moves, four to a byte, the first in the lowest two bits
+    private byte[] moves;
+    private int moveCount;
+    // the hash of the game state once the session was over, if it has been recorded
+    private long finalHash;
+    private boolean finished;
+
+    /**
+     * Starts recording a new game started with GameEngine(seed)
+     *
+     * @param seed - The seed the game was started from
+     */
+    public SessionRecording(long seed) {
+        this(seed, new byte[0]);
+    }
+
+    /**
+     * Starts recording a game resumed from the given save, as written by SaveGame.encode
+     *
+     * @param startSave - The save the game was resumed from
+     */
+    public SessionRecording(byte[] startSave) {
+        this(0, startSave.clone());
+    }
+
+    /**
+     * Creates a recording with no moves yet
+     */
+    private SessionRecording(long seed, byte[] startSave) {
+        this.seed = seed;
+        this.startSave = startSave;
+        this.moves = new byte[64];
+    }
+
+    /**
+     * Returns the seed of the new game recorded, or 0 for a resumed game
+     *
+     * @return The game's seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Returns whether the game recorded was resumed from a save rather than started anew
+     *
+     * @return True if the game started from a save
+     */
+    public boolean isResumed() {
+        return this.startSave.length > 0;
+    }
+
+    /**
+     * Returns the save the game recorded was resumed from
+     *
+     * @return A copy of the starting save, or an empty array for a new game
+     */
+    public byte[] getStartSave() {
+        return this.startSave.clone();
+    }
+
+    /**
+     * Records a move
+     *
+     * @param move - The move made
+     * @throws IllegalStateException if the session has already been finished
+     */
+    public void record(Move move) {
+        if (this.finished) {
+            throw new IllegalStateException("The session has already been finished");
+        }
+        if (this.moveCount == MAX_MOVES) {
+            throw new IllegalStateException("Too many moves to record");
+        }
+        int index = this.moveCount >> 2;
+        if (index == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+        this.moves[index] |= (byte) (move.ordinal() << ((this.moveCount & 3) << 1));
+        this.moveCount++;
+    }
+
+    /**
+     * Returns the number of moves recorded
+     *
+     * @return The number of moves
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * Returns the given move
+     *
+     * @param index - The number of the move, from 0 to getMoveCount()-1
+     * @return The move made
+     */
+    public Move getMove(int index) {
+        if (index < 0 || index >= this.moveCount) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + this.moveCount);
+        }
+        return MOVES[(this.moves[index >> 2] >> ((index & 3) << 1)) & 3];
+    }
+
+    /**
+     * Records the hash of the final game state, ending the session. No more moves can be recorded.
+     *
+     * @param hash - The hash of the game state, from Replayer.hashState
+     */
+    public void finish(long hash) {
+        this.finalHash = hash;
+        this.finished = true;
+    }
+
+    /**
+     * Returns whether the session has been finished, with its final state hash recorded
+     *
+     * @return True if the final state hash is known
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    /**
+     * Returns the hash of the final game state, or 0 if the session hasn't been finished
+     *
+     * @return The final state hash
+     */
+    public long getFinalHash() {
+        return this.finalHash;
+    }
+
+    /**
+     * Writes the recording to the given file, replacing it
+     *
+     * @param path - The file to write
+     * @throws IOException if the file can't be written
+     */
+    public void save(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel);
+        }
+    }
+
+    /**
+     * Reads a recording from the given file
+     *
+     * @param path - The file to read
+     * @return The recording
+     * @throws SaveFormatException if the file isn't a recording this version can read
+     * @throws IOException if the file can't be read
+     */
+    public static SessionRecording load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Writes the recording to the given channel
+     *
+     * @param channel - The channel to write to
+     * @throws IOException if the channel can't be written to
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        int packed = (this.moveCount + 3) >> 2;
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 2 + 8 + 4 + this.startSave.length + 4 + packed + 1 + 8);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(this.seed);
+        buffer.putInt(this.startSave.length);
+        buffer.put(this.startSave);
+        buffer.putInt(this.moveCount);
+        buffer.put(this.moves, 0, packed);
+        buffer.put((byte) (this.finished ? 1 : 0));
+        buffer.putLong(this.finalHash);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a recording from the given channel, to its end
+     *
+     * @param channel - The channel to read from
+     * @return The recording
+     * @throws SaveFormatException if what is read isn't a recording this version can read
+     * @throws IOException if the channel can't be read from
+     */
+    public static SessionRecording read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (channel.read(buffer) >= 0) {
+            if (!buffer.hasRemaining()) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            }
+        }
+        buffer.flip();
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new SaveFormatException("Not a session recording");
+            }
+            short version = buffer.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new SaveFormatException("Unsupported recording format version " + version);
+            }
+            long seed = buffer.getLong();
+            int saveLength = buffer.getInt();
+            if (saveLength < 0 || saveLength > buffer.remaining()) {
+                throw new SaveFormatException("Invalid starting save length " + saveLength);
+            }
+            byte[] startSave = new byte[saveLength];
+            buffer.get(startSave);
+            int moveCount = buffer.getInt();
+            if (moveCount < 0 || moveCount > MAX_MOVES || (moveCount + 3) >> 2 > buffer.remaining()) {
+                throw new SaveFormatException("Invalid move count " + moveCount);
+            }
+            SessionRecording recording = new SessionRecording(seed, startSave);
+            recording.moves = new byte[Math.max(64, (moveCount + 3) >> 2)];
+            buffer.get(recording.moves, 0, (moveCount + 3) >> 2);
+            recording.moveCount = moveCount;
+            recording.finished = buffer.get() != 0;
+            recording.finalHash = buffer.getLong();
+            if (buffer.hasRemaining()) {
+                throw new SaveFormatException("Unexpected data after the recording");
+            }
+            return recording;
+        } catch (BufferUnderflowException e) {
+            throw new SaveFormatException("The recording is cut short");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package rng;
+
+import java.util.SplittableRandom;
+
+/**
+ * The source of every random choice made in one game session, so that a whole playthrough can be
+ * reproduced from a single seed. Hands out independent SplittableRandom streams: one per floor,
+ * derived from the seed and the floor's dungeon and floor IDs alone so that floors come out the same
+ * whatever order or thread they are built in, and one per battle, split in the order battles are fought.
+ * Streams are never shared, so parallel work doesn't contend on a single generator.
+ * The number of battle streams handed out is counted, so a saved game can pick up the battle
+ * streams where it left off.
+ *
+ * @version 1.1
+ * @author karamimamali
+ */
+public class GameRandom {
+
+    // constants mixed into the seed to keep the different kinds of stream apart
+    private static final long FLOOR_STREAM = 0x9E3779B97F4A7C15L;
+    private static final long BATTLE_STREAM = 0xC2B2AE3D27D4EB4FL;
+
+    // the seed every stream is derived from
+    private final long seed;
+    // the stream each battle's stream is split from, in the order battles are fought
+    private final SplittableRandom battles;
+    // the number of battle streams handed out
+    private long battleCount;
+
+    /**
+     * Creates the random source for a session with a randomly chosen seed
+     */
+    public GameRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates the random source for a session with the given seed
+     *
+     * @param seed - The seed every random choice in the session is derived from
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        this.battles = new SplittableRandom(mix(seed ^ BATTLE_STREAM));
+    }
+
+    /**
+     * Returns the seed the session was created with
+     *
+     * @return The session's seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Returns a new stream for building the given floor. The same seed and IDs always give the same
+     * stream, and this may be called from any thread.
+     *
+     * @param dungeonID - The ID of the dungeon the floor is in
+     * @param floorID - The ID of the floor within its dungeon
+     * @return A stream for the floor's random choices
+     */
+    public SplittableRandom forFloor(int dungeonID, int floorID) {
+        return forKey(this.seed ^ FLOOR_STREAM, ((long) dungeonID << 32) | (floorID & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Returns a new stream for the next battle fought in the session. Battles get their streams in
+     * the order they are fought, so this should only be called by the thread playing the session.
+     *
+     * @return A stream for the battle's damage rolls
+     */
+    public SplittableRandom nextBattle() {
+        this.battleCount++;
+        return this.battles.split();
+    }
+
+    /**
+     * Returns the number of battle streams handed out so far
+     *
+     * @return The number of battles fought in the session
+     */
+    public long getBattleCount() {
+        return this.battleCount;
+    }
+
+    /**
+     * Skips battle streams until the given number have been handed out, so that the next battle
+     * gets the stream it would have got in a session that has fought that many battles
+     *
+     * @param count - The number of battles fought so far
+     * @throws IllegalArgumentException if more battle streams than that have already been handed out
+     */
+    public void skipBattles(long count) {
+        if (count < this.battleCount) {
+            throw new IllegalArgumentException("Already fought " + this.battleCount + " battles, can't go back to " + count);
+        }
+        while (this.battleCount < count) {
+            nextBattle();
+        }
+    }
+
+    /**
+     * Returns a new stream derived from the given seed and key alone, eg. for one cell of a floor
+     *
+     * @param seed - The seed to derive the stream from
+     * @param key - Tells apart streams derived from the same seed
+     * @return A stream for the given seed and key
+     */
+    public static SplittableRandom forKey(long seed, long key) {
+        return new SplittableRandom(mix(seed ^ mix(key)));
+    }
+
+    /**
+     * Scrambles the bits of the given value (the SplitMix64 finaliser), so that seeds and keys that
+     * differ in only a few bits give unrelated streams
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,24 @@
+package save;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a saved game (or a recorded session) can't be read: it isn't a save file, was written
+ * by a newer version of the format, is cut short or corrupt, or describes a game that can't exist.
+ *
+ * @version 1.1
+ * @author karamimamali
+ */
+public class SaveFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates an exception describing what is wrong with the saved game
+     *
+     * @param message - What is wrong
+     */
+    public SaveFormatException(String message) {
+        super(message);
+    }
+}
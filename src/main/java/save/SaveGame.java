@@ -0,0 +1,366 @@
+package save;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import locations.Dungeon;
+import locations.Floor;
+import locations.FloorGrid;
+import locations.Map;
+import locations.WorldGeneration;
+import rng.GameRandom;
+import tile.TileKind;
+import tile.character.Player;
+
+/**
+ * Writes and reads the whole state of a game in a small, versioned binary format, over NIO channels.
+ * Nothing is stored that can be rebuilt: the world is saved as the session's seed and the settings
+ * it was built with, so loading builds the same floors again, and only the cells whose state has
+ * changed since (collected gold, opened doors, defeated enemies) are saved on top, as logged by each
+ * floor's grid. The player's stats and location and the number of battles fought (so the battle
+ * streams carry on where they left off) make up the rest. Java serialization is not used.
+ * The cell the player stands on is always saved too: every battle ends with someone dead, so the
+ * only enemy that can be left hurt but alive, which the grid doesn't log, is one that has just
+ * beaten the player where they stand.
+ * <p>
+ * The format is a header - the magic number "DCSV", the format version and the payload length -
+ * then the payload and a CRC32 of the payload. All numbers are big-endian. The payload holds the
+ * seed, battle count, generation mode and floor size; then the player's starting level, level, xp,
+ * gold, hp, status, dungeon and floor IDs and location; then the number of floors with changed
+ * cells and, for each, its dungeon and floor IDs, the number of cells and the cells themselves in
+ * ascending order: the gap from the previous cell and the enemy HP as variable length integers,
+ * with the cell's state flags in between.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class SaveGame {
+
+    // the version of the format written, and the newest that can be read
+    public static final short VERSION = 1;
+    // "DCSV", at the start of every save file
+    private static final int MAGIC = 0x44435356;
+    // the magic number, version and payload length
+    private static final int HEADER_BYTES = 4 + 2 + 4;
+    // the fixed size part of the payload: the world, then the player, then the floor count
+    private static final int FIXED_PAYLOAD_BYTES = (8 + 8 + 1 + 4 + 4) + (4 * 5 + 1 + 4 * 4) + 2;
+    // the most bytes a floor's IDs and cell count take, and a cell
+    private static final int MAX_FLOOR_BYTES = 1 + 1 + 5;
+    private static final int MAX_CELL_BYTES = 5 + 1 + 5;
+    // a payload longer than this can't be a save file of any real game
+    private static final int MAX_PAYLOAD_BYTES = 64 << 20;
+
+    // the bits of a saved cell's state
+    private static final byte OPEN = 1;
+    private static final byte COLLECTED = 1 << 1;
+    private static final byte DEAD = 1 << 2;
+    // the bits of the player's saved status
+    private static final byte ALIVE = 1;
+    private static final byte VICTORY = 1 << 1;
+
+    private SaveGame() {
+    }
+
+    /**
+     * Saves the given player's game to the given file, replacing it. The game is written to a
+     * temporary file first and then moved into place, so a crash never leaves half a save behind.
+     *
+     * @param player - The player whose game to save
+     * @param path - The file to save to
+     * @throws IOException if the file can't be written
+     */
+    public static void save(Player player, Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(player, channel);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a game from the given file
+     *
+     * @param path - The file to load from
+     * @return The player of the saved game, in a world rebuilt as it was saved
+     * @throws SaveFormatException if the file isn't a save file this version can read
+     * @throws IOException if the file can't be read
+     */
+    public static Player load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Writes the given player's game to the given channel
+     *
+     * @param player - The player whose game to save
+     * @param channel - The channel to write to
+     * @throws IOException if the channel can't be written to
+     */
+    public static void write(Player player, WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = encode(player);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a game from the given channel, rebuilding its world
+     *
+     * @param channel - The channel to read from
+     * @return The player of the saved game
+     * @throws SaveFormatException if what is read isn't a save this version can read
+     * @throws IOException if the channel can't be read from
+     */
+    public static Player read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, ByteBuffer.allocate(HEADER_BYTES));
+        if (header.getInt() != MAGIC) {
+            throw new SaveFormatException("Not a save file");
+        }
+        short version = header.getShort();
+        if (version < 1 || version > VERSION) {
+            throw new SaveFormatException("Unsupported save format version " + version);
+        }
+        int length = header.getInt();
+        if (length < FIXED_PAYLOAD_BYTES || length > MAX_PAYLOAD_BYTES) {
+            throw new SaveFormatException("Invalid payload length " + length);
+        }
+        ByteBuffer payload = readFully(channel, ByteBuffer.allocate(length + 4));
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate().limit(length));
+        if ((int) crc.getValue() != payload.getInt(length)) {
+            throw new SaveFormatException("The save file is corrupt");
+        }
+        payload.limit(length);
+        try {
+            return decode(payload);
+        } catch (BufferUnderflowException e) {
+            throw new SaveFormatException("The save file is cut short");
+        } catch (IllegalArgumentException e) {
+            throw new SaveFormatException("Invalid game state: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes the given player's game, header and checksum included
+     *
+     * @param player - The player whose game to encode
+     * @return A buffer holding the encoded game, ready to be written
+     */
+    public static ByteBuffer encode(Player player) {
+        Map world = player.getWorldMap();
+        // every floor built so far with changed cells: its IDs, grid and cells in ascending order with no repeats
+        ArrayList<int[]> floorIDs = new ArrayList<>();
+        ArrayList<FloorGrid> grids = new ArrayList<>();
+        ArrayList<int[]> changedCells = new ArrayList<>();
+        int capacity = HEADER_BYTES + FIXED_PAYLOAD_BYTES + 4;
+        for (int d = 0; d < world.getHowManyDungeons(); d++) {
+            Dungeon dungeon = world.getDungeonByID(d);
+            for (int f = 0; f < dungeon.getFloorCount(); f++) {
+                Floor floor = dungeon.getBuiltFloor(f);
+                boolean current = d == player.getCurrentDungeonID() && f == player.getCurrentFloorID();
+                if (floor == null || (floor.getGrid().getChangeCount() == 0 && !current)) {
+                    continue;
+                }
+                FloorGrid grid = floor.getGrid();
+                int[] cells = new int[grid.getChangeCount() + (current ? 1 : 0)];
+                for (int i = 0; i < grid.getChangeCount(); i++) {
+                    cells[i] = grid.getChangedCell(i);
+                }
+                if (current) {
+                    cells[cells.length - 1] = grid.index(player.getFloorX(), player.getFloorY());
+                }
+                Arrays.sort(cells);
+                int unique = 0;
+                for (int i = 0; i < cells.length; i++) {
+                    if (i == 0 || cells[i] != cells[i - 1]) {
+                        cells[unique++] = cells[i];
+                    }
+                }
+                floorIDs.add(new int[] {d, f});
+                grids.add(grid);
+                changedCells.add(Arrays.copyOf(cells, unique));
+                capacity += MAX_FLOOR_BYTES + unique * MAX_CELL_BYTES;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(0); // the payload length, filled in below
+        int start = buffer.position();
+
+        GameRandom random = player.getRandom();
+        buffer.putLong(random.getSeed());
+        buffer.putLong(random.getBattleCount());
+        buffer.put((byte) world.getGeneration().ordinal());
+        buffer.putInt(world.getFloorRows());
+        buffer.putInt(world.getFloorCols());
+
+        buffer.putInt(player.getStartLevel());
+        buffer.putInt(player.getLevel());
+        buffer.putInt(player.getXp());
+        buffer.putInt(player.getGold());
+        buffer.putInt(player.getHp());
+        buffer.put((byte) ((player.isAlive() ? ALIVE : 0) | (player.isVictorious() ? VICTORY : 0)));
+        buffer.putInt(player.getCurrentDungeonID());
+        buffer.putInt(player.getCurrentFloorID());
+        buffer.putInt(player.getFloorX());
+        buffer.putInt(player.getFloorY());
+
+        buffer.putShort((short) grids.size());
+        for (int i = 0; i < grids.size(); i++) {
+            FloorGrid grid = grids.get(i);
+            int[] cells = changedCells.get(i);
+            buffer.put((byte) floorIDs.get(i)[0]);
+            buffer.put((byte) floorIDs.get(i)[1]);
+            putVarInt(buffer, cells.length);
+            int previous = 0;
+            for (int cell : cells) {
+                putVarInt(buffer, cell - previous);
+                previous = cell;
+                buffer.put((byte) ((grid.isOpen(cell) ? OPEN : 0)
+                        | (grid.isCollected(cell) ? COLLECTED : 0)
+                        | (grid.isDead(cell) ? DEAD : 0)));
+                putVarInt(buffer, grid.getEnemyHp(cell));
+            }
+        }
+
+        int length = buffer.position() - start;
+        buffer.putInt(start - 4, length);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(start).limit(start + length));
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Rebuilds the game described by the given payload
+     */
+    private static Player decode(ByteBuffer payload) throws SaveFormatException {
+        long seed = payload.getLong();
+        long battles = payload.getLong();
+        int generation = payload.get();
+        int floorRows = payload.getInt();
+        int floorCols = payload.getInt();
+        if (generation < 0 || generation >= WorldGeneration.values().length) {
+            throw new SaveFormatException("Unknown world generation mode " + generation);
+        }
+        GameRandom random = new GameRandom(seed);
+        Map world = new Map(WorldGeneration.values()[generation], random, floorRows, floorCols);
+
+        int startLevel = payload.getInt();
+        int level = payload.getInt();
+        int xp = payload.getInt();
+        int gold = payload.getInt();
+        int hp = payload.getInt();
+        byte status = payload.get();
+        int dungeonID = payload.getInt();
+        int floorID = payload.getInt();
+        int floorX = payload.getInt();
+        int floorY = payload.getInt();
+
+        int floors = payload.getShort() & 0xFFFF;
+        for (int i = 0; i < floors; i++) {
+            Dungeon dungeon = world.getDungeonByID(payload.get());
+            int id = payload.get();
+            if (dungeon == null || id < 0 || id >= dungeon.getFloorCount()) {
+                throw new SaveFormatException("A saved floor doesn't exist");
+            }
+            FloorGrid grid = dungeon.getFloorByID(id).getGrid();
+            int size = grid.getRows() * grid.getCols();
+            int count = getVarInt(payload);
+            int cell = 0;
+            for (int c = 0; c < count; c++) {
+                cell += getVarInt(payload);
+                byte state = payload.get();
+                int enemyHp = getVarInt(payload);
+                if (cell < 0 || cell >= size) {
+                    throw new SaveFormatException("A saved cell isn't on its floor");
+                }
+                restoreCell(grid, cell, state, enemyHp);
+            }
+        }
+        if (payload.hasRemaining()) {
+            throw new SaveFormatException("Unexpected data after the saved floors");
+        }
+
+        Player player = new Player(startLevel, world);
+        random.skipBattles(battles);
+        player.getStats().restore(level, xp, gold);
+        player.restore(dungeonID, floorID, floorX, floorY, hp, (status & ALIVE) != 0, (status & VICTORY) != 0);
+        return player;
+    }
+
+    /**
+     * Sets the given cell of a freshly built floor to its saved state
+     */
+    private static void restoreCell(FloorGrid grid, int cell, byte state, int enemyHp) {
+        TileKind kind = grid.getKind(cell);
+        if (kind == TileKind.GOLD_DOOR && (state & OPEN) != 0) {
+            grid.open(cell);
+        } else if (kind == TileKind.GOLD && (state & COLLECTED) != 0) {
+            grid.collect(cell);
+        } else if (kind == TileKind.ENEMY) {
+            grid.setEnemyHp(cell, enemyHp);
+            grid.setDead(cell, (state & DEAD) != 0);
+        }
+    }
+
+    /**
+     * Reads from the channel until the buffer is full, and flips it
+     *
+     * @throws SaveFormatException if the channel ends first
+     */
+    private static ByteBuffer readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new SaveFormatException("The save file is cut short");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes a non-negative int in as few bytes as it needs, seven bits at a time
+     */
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an int written by putVarInt
+     *
+     * @throws SaveFormatException if it is longer than an int can be
+     */
+    private static int getVarInt(ByteBuffer buffer) throws SaveFormatException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new SaveFormatException("A number in the save file is too long");
+    }
+}
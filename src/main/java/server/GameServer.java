@@ -0,0 +1,207 @@
+package server;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts any number of players at once, each in a session of their own with their own game, over a
+ * TCP or Unix domain socket (see Protocol). Every connection gets a session on a thread of its own,
+ * which blocks reading the client's moves, plays them and writes back what happened; sessions share
+ * nothing that changes, so they never wait on one another.
+ * Sessions run on platform threads with small stacks, started as they are needed and reused; on
+ * Java 21 or later they can run on virtual threads instead, by making the session executor
+ * Executors.newVirtualThreadPerTaskExecutor().
+ * Run as a program, serves the address given (by default port 7070 on the loopback address) until stopped.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class GameServer implements AutoCloseable {
+
+    // the address served when none is given
+    public static final String DEFAULT_ADDRESS = "7070";
+    // the stack size of the session threads: a session's calls never go deep
+    private static final long SESSION_STACK_BYTES = 256 * 1024;
+
+    private final ServerSocketChannel serverChannel;
+    private final SocketAddress address;
+    // runs the sessions, one thread each
+    private final ExecutorService sessions;
+    // accepts connections, starting a session for each
+    private final Thread acceptor;
+    // the connections of the sessions running, closed if the server is
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    // metrics
+    private final AtomicLong sessionCount = new AtomicLong();
+    private final AtomicLong stepCount = new AtomicLong();
+
+    /**
+     * Starts serving at the given address
+     *
+     * @param address - The address to listen on; a TCP port of 0 picks a free one
+     * @throws IOException if the address can't be bound
+     */
+    public GameServer(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            // a socket file left behind by a server that has stopped
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+        this.serverChannel = Protocol.listen(address);
+        this.address = this.serverChannel.getLocalAddress();
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(null, task, "game-session-" + threads.incrementAndGet(), SESSION_STACK_BYTES);
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.sessions = Executors.newCachedThreadPool(factory);
+        this.acceptor = new Thread(this::acceptConnections, "game-server-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /**
+     * Returns the address being served, with the port picked if it was 0
+     *
+     * @return The server's address
+     */
+    public SocketAddress getAddress() {
+        return this.address;
+    }
+
+    /**
+     * Returns the number of sessions started
+     *
+     * @return The number of sessions
+     */
+    public long getSessionCount() {
+        return this.sessionCount.get();
+    }
+
+    /**
+     * Returns the number of sessions running now
+     *
+     * @return The number of open sessions
+     */
+    public int getOpenSessionCount() {
+        return this.connections.size();
+    }
+
+    /**
+     * Returns the number of moves played, across every session
+     *
+     * @return The number of steps
+     */
+    public long getStepCount() {
+        return this.stepCount.get();
+    }
+
+    /**
+     * Stops accepting connections and ends every session. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.serverChannel.close();
+            for (SocketChannel connection : this.connections) {
+                connection.close();
+            }
+            if (this.address instanceof UnixDomainSocketAddress) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) this.address).getPath());
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing the game server: " + e.getMessage());
+        }
+        this.sessions.shutdown();
+        try {
+            this.acceptor.join();
+            this.sessions.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Accepts connections until closed, starting a session for each
+     */
+    private void acceptConnections() {
+        while (!this.closed) {
+            try {
+                SocketChannel connection = this.serverChannel.accept();
+                Protocol.configure(connection);
+                this.connections.add(connection);
+                this.sessionCount.incrementAndGet();
+                this.sessions.execute(new GameSession(this, connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!this.closed) {
+                    System.err.println("Error accepting a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts moves a session has played
+     *
+     * @param steps - The number of moves played
+     */
+    void stepsPlayed(int steps) {
+        this.stepCount.addAndGet(steps);
+    }
+
+    /**
+     * Closes a session's connection once the session is over
+     *
+     * @param connection - The session's connection
+     */
+    void sessionEnded(SocketChannel connection) {
+        this.connections.remove(connection);
+        try {
+            connection.close();
+        } catch (IOException e) {
+            // it is finished with either way
+        }
+    }
+
+    /**
+     * Serves the given address, or the default one, until the program is stopped, printing how
+     * many sessions are open and moves are being played every few seconds
+     *
+     * @param args - The address to serve, as "host:port", "port" or "unix:path"
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        SocketAddress address = Protocol.parseAddress(args.length > 0 ? args[0] : DEFAULT_ADDRESS);
+        GameServer server = new GameServer(address);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Serving games at " + server.getAddress());
+        long steps = 0;
+        while (true) {
+            Thread.sleep(5000);
+            long now = server.getStepCount();
+            System.out.printf("%d sessions open, %d started, %.0f steps/s%n",
+                    server.getOpenSessionCount(), server.getSessionCount(), (now - steps) / 5.0);
+            steps = now;
+        }
+    }
+}
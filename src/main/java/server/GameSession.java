@@ -0,0 +1,254 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import engine.GameEngine;
+import engine.Move;
+import engine.StepResult;
+import locations.Floor;
+import locations.FloorGrid;
+import tile.character.Player;
+
+/**
+ * One player's session on the game server: a game of their own, played by the moves read from
+ * their connection, each answered with what happened (see Protocol). Everything the game touches
+ * belongs to the session alone and is only used by the thread running it.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+class GameSession implements Runnable {
+
+    // the moves, in the order of their ordinals, which are what is sent
+    private static final Move[] MOVES = Move.values();
+
+    private final GameServer server;
+    private final SocketChannel channel;
+    // the moves read but not yet played, and the messages waiting to be sent
+    private final ByteBuffer in = ByteBuffer.allocate(512);
+    private ByteBuffer out = ByteBuffer.allocate(4096);
+
+    // the game, and the floor the client was last sent
+    private GameEngine engine;
+    private Floor floor;
+    // the number of the floor's state changes already sent as deltas
+    private int changesSent;
+    // whether the floor's map is still to be sent in MAP_ROWS messages, being too big for one
+    private boolean mapRowsDue;
+
+    /**
+     * Creates a session played over the given connection
+     *
+     * @param server - The server the session runs on
+     * @param channel - The connection to the client
+     */
+    GameSession(GameServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+    }
+
+    /**
+     * Starts the game from the seed the client sends and plays their moves until they disconnect
+     */
+    @Override
+    public void run() {
+        try {
+            ByteBuffer seed = ByteBuffer.allocate(8);
+            Protocol.readFully(this.channel, seed);
+            this.engine = new GameEngine(seed.getLong(0));
+            this.engine.setNarrating(false);
+            writeState();
+            writeMapRows();
+            flush();
+            while (this.channel.read(this.in.clear()) >= 0) {
+                this.in.flip();
+                // answer every move read at once, then send the answers together
+                int steps = 0;
+                while (this.in.hasRemaining()) {
+                    int move = this.in.get();
+                    if (move < 0 || move >= MOVES.length) {
+                        throw new IOException("Invalid move " + move);
+                    }
+                    writeStep(this.engine.step(MOVES[move]));
+                    writeMapRows();
+                    steps++;
+                }
+                flush();
+                this.server.stepsPlayed(steps);
+            }
+        } catch (IOException e) {
+            // the client has gone, or broke the protocol - either way the session is over
+        } finally {
+            this.server.sessionEnded(this.channel);
+        }
+    }
+
+    /**
+     * Writes a STATE message: where the player is, their stats and the floor's map
+     */
+    private void writeState() {
+        Player player = this.engine.getPlayer();
+        int start = startMessage(Protocol.STATE, 40 + mapSize(player.getCurrentFloor()));
+        this.out.put((byte) player.getCurrentDungeonID());
+        this.out.put((byte) player.getCurrentFloorID());
+        putFloor(player.getCurrentFloor(), false);
+        putPlayer(player);
+        putMap();
+        endMessage(start);
+    }
+
+    /**
+     * Writes a STEP message: what happened, the player's stats, any new floor, and the cells changed
+     */
+    private void writeStep(StepResult result) {
+        Player player = this.engine.getPlayer();
+        Floor current = player.getCurrentFloor();
+        boolean newFloor = current != this.floor;
+        int changes = newFloor ? 0 : current.getGrid().getChangeCount() - this.changesSent;
+        int start = startMessage(Protocol.STEP, 64 + (newFloor ? mapSize(current) : 0) + 5 * changes);
+
+        int flags = (result.isMoved() ? Protocol.MOVED : 0)
+                | (result.isDoorOpened() ? Protocol.DOOR_OPENED : 0)
+                | (result.isLevelledUp() ? Protocol.LEVELLED_UP : 0)
+                | (player.isAlive() ? Protocol.ALIVE : 0)
+                | (player.isVictorious() ? Protocol.VICTORIOUS : 0);
+        this.out.put((byte) flags);
+        this.out.put((byte) (result.getTileKind() == null ? -1 : result.getTileKind().ordinal()));
+        this.out.put((byte) result.getBattleOutcome().ordinal());
+        this.out.put((byte) result.getTransition().ordinal());
+        putPlayer(player);
+        if (newFloor) {
+            this.out.put((byte) player.getCurrentDungeonID());
+            this.out.put((byte) player.getCurrentFloorID());
+            putFloor(current, true);
+        }
+
+        // the cells whose state changed since the last message, with their map characters now
+        FloorGrid grid = this.floor.getGrid();
+        this.out.putInt(changes);
+        for (int i = 0; i < changes; i++) {
+            int cell = grid.getChangedCell(this.changesSent + i);
+            this.out.putInt(cell);
+            this.out.put((byte) this.floor.getGlyphAt(cell / grid.getCols(), cell % grid.getCols()));
+        }
+        this.changesSent += changes;
+        endMessage(start);
+    }
+
+    /**
+     * Writes the player's location and stats
+     */
+    private void putPlayer(Player player) {
+        this.out.putInt(player.getFloorX());
+        this.out.putInt(player.getFloorY());
+        this.out.putInt(player.getHp());
+        this.out.putInt(player.getLevel());
+        this.out.putInt(player.getXp());
+        this.out.putInt(player.getGold());
+    }
+
+    /**
+     * Writes the size of the given floor, which becomes the floor the client knows, and its map if wanted
+     */
+    private void putFloor(Floor floor, boolean withMap) {
+        this.floor = floor;
+        this.changesSent = floor.getGrid().getChangeCount();
+        this.out.putInt(floor.getGrid().getRows());
+        this.out.putInt(floor.getGrid().getCols());
+        if (withMap) {
+            putMap();
+        }
+    }
+
+    /**
+     * Writes the map of the floor the client knows, or just a length of 0 if the floor is too big,
+     * leaving its map to be sent by writeMapRows
+     */
+    private void putMap() {
+        FloorGrid grid = this.floor.getGrid();
+        if (mapSize(this.floor) == 0) {
+            this.out.putInt(0);
+            this.mapRowsDue = true;
+            return;
+        }
+        this.out.putInt(grid.getRows() * grid.getCols());
+        for (int x = 0; x < grid.getRows(); x++) {
+            for (int y = 0; y < grid.getCols(); y++) {
+                this.out.put((byte) this.floor.getGlyphAt(x, y));
+            }
+        }
+    }
+
+    /**
+     * Sends the map of a floor too big for one message in MAP_ROWS messages, if it is due, sending
+     * each slice as it is written so only one is ever held
+     */
+    private void writeMapRows() throws IOException {
+        if (!this.mapRowsDue) {
+            return;
+        }
+        this.mapRowsDue = false;
+        FloorGrid grid = this.floor.getGrid();
+        int cols = grid.getCols();
+        int sliceRows = Math.max(1, Protocol.MAX_MAP_CELLS / cols);
+        for (int first = 0; first < grid.getRows(); first += sliceRows) {
+            int rows = Math.min(sliceRows, grid.getRows() - first);
+            int start = startMessage(Protocol.MAP_ROWS, 8 + rows * cols);
+            this.out.putInt(first);
+            this.out.putInt(rows);
+            for (int x = first; x < first + rows; x++) {
+                for (int y = 0; y < cols; y++) {
+                    this.out.put((byte) this.floor.getGlyphAt(x, y));
+                }
+            }
+            endMessage(start);
+            flush();
+        }
+    }
+
+    /**
+     * Returns the number of map characters sent for the given floor
+     */
+    private static int mapSize(Floor floor) {
+        long cells = (long) floor.getGrid().getRows() * floor.getGrid().getCols();
+        return cells > Protocol.MAX_MAP_CELLS ? 0 : (int) cells;
+    }
+
+    /**
+     * Starts a message with room for its length, making sure the buffer can hold it
+     *
+     * @param type - The message type
+     * @param size - The most bytes the message's fields can take
+     * @return Where the message's length goes
+     */
+    private int startMessage(byte type, int size) {
+        if (this.out.remaining() < size + 5) {
+            int capacity = Math.max(this.out.capacity() * 2, this.out.position() + size + 5);
+            this.out = ByteBuffer.allocate(capacity).put(this.out.flip());
+        }
+        int start = this.out.position();
+        this.out.putInt(0);
+        this.out.put(type);
+        return start;
+    }
+
+    /**
+     * Fills in the length of the message started at the given position
+     */
+    private void endMessage(int start) {
+        this.out.putInt(start, this.out.position() - start - 4);
+    }
+
+    /**
+     * Sends every message waiting
+     */
+    private void flush() throws IOException {
+        this.out.flip();
+        while (this.out.hasRemaining()) {
+            this.channel.write(this.out);
+        }
+        this.out.clear();
+    }
+}
@@ -0,0 +1,192 @@
+package server;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import engine.Move;
+
+/**
+ * Puts a game server under load: many simulated clients at once, each playing random moves one
+ * after another, waiting for each answer before sending the next, and starting a new game whenever
+ * theirs ends. Reports the moves played per second and how long a move took to be answered, at the
+ * median, the 99th and 99.9th percentiles and the worst.
+ * With no address given, a server is started in the same program to put under load.
+ * <p>
+ * Run as: LoadGenerator [address|-] [clients] [moves per client]
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class LoadGenerator {
+
+    private static final Move[] MOVES = Move.values();
+    // the stack size of the client threads
+    private static final long CLIENT_STACK_BYTES = 256 * 1024;
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * What one client measured
+     */
+    private static final class ClientResult {
+        // how long each move took to be answered, in nanoseconds
+        private final long[] latencies;
+        // the number of games played
+        private int games;
+
+        private ClientResult(int moves) {
+            this.latencies = new long[moves];
+        }
+    }
+
+    /**
+     * Runs the load and prints the report
+     *
+     * @param args - The server's address ("-" or nothing to start one here), the number of clients
+     *             and the number of moves each plays
+     */
+    public static void main(String[] args) throws Exception {
+        String address = args.length > 0 ? args[0] : "-";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int moves = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        GameServer localServer = null;
+        SocketAddress target;
+        if (address.equals("-")) {
+            localServer = new GameServer(Protocol.parseAddress("0"));
+            target = localServer.getAddress();
+        } else {
+            target = Protocol.parseAddress(address);
+        }
+        System.out.printf("%d clients playing %d moves each against %s%n", clients, moves, target);
+
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(null, task, "load-client-" + threads.incrementAndGet(), CLIENT_STACK_BYTES);
+            thread.setDaemon(true);
+            return thread;
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(clients, factory);
+        // every client connects first, then they all start playing at once
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] futures = new Future<?>[clients];
+        ClientResult[] results = new ClientResult[clients];
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            results[i] = new ClientResult(moves);
+            futures[i] = pool.submit(() -> {
+                play(target, client, results[client], connected, start);
+                return null;
+            });
+        }
+        connected.await();
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        pool.shutdown();
+        if (localServer != null) {
+            localServer.close();
+        }
+
+        long[] latencies = new long[clients * moves];
+        long games = 0;
+        for (int i = 0; i < clients; i++) {
+            System.arraycopy(results[i].latencies, 0, latencies, i * moves, moves);
+            games += results[i].games;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%d moves in %.2fs across %d games: %.0f steps/s%n",
+                latencies.length, seconds, games, latencies.length / seconds);
+        System.out.printf("Step latency: p50 %.3fms, p99 %.3fms, p99.9 %.3fms, max %.3fms%n",
+                percentile(latencies, 0.5), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies[latencies.length - 1] / 1e6);
+    }
+
+    /**
+     * Returns the given percentile of the sorted latencies, in milliseconds
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Plays one client's moves, timing each from being sent to its answer being read, starting a new
+     * game (and connection) whenever the player dies or wins
+     */
+    private static void play(SocketAddress target, int client, ClientResult result,
+                             CountDownLatch connected, CountDownLatch start) throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(client);
+        ByteBuffer move = ByteBuffer.allocate(1);
+        ByteBuffer message = null;
+        SocketChannel channel = startGame(target, random.nextLong());
+        result.games++;
+        connected.countDown();
+        start.await();
+        try {
+            for (int i = 0; i < result.latencies.length; i++) {
+                move.clear();
+                move.put((byte) MOVES[random.nextInt(MOVES.length)].ordinal()).flip();
+                long sent = System.nanoTime();
+                while (move.hasRemaining()) {
+                    channel.write(move);
+                }
+                message = readStep(channel, message);
+                result.latencies[i] = System.nanoTime() - sent;
+                if (message.get() != Protocol.STEP) {
+                    throw new IOException("Expected a step message");
+                }
+                int flags = message.get();
+                if ((flags & Protocol.ALIVE) == 0 || (flags & Protocol.VICTORIOUS) != 0) {
+                    channel.close();
+                    channel = startGame(target, random.nextLong());
+                    result.games++;
+                }
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the next STEP message, passing over the MAP_ROWS messages of any big floor sent before it
+     */
+    private static ByteBuffer readStep(SocketChannel channel, ByteBuffer message) throws IOException {
+        do {
+            message = Protocol.readMessage(channel, message);
+        } while (message.get(0) == Protocol.MAP_ROWS);
+        return message;
+    }
+
+    /**
+     * Connects to the server and starts a game from the given seed, reading its opening state
+     */
+    private static SocketChannel startGame(SocketAddress target, long seed) throws IOException {
+        SocketChannel channel = Protocol.connect(target);
+        ByteBuffer hello = ByteBuffer.allocate(8).putLong(seed).flip();
+        while (hello.hasRemaining()) {
+            channel.write(hello);
+        }
+        ByteBuffer state = Protocol.readMessage(channel, null);
+        if (state.get() != Protocol.STATE) {
+            channel.close();
+            throw new IOException("Expected a state message");
+        }
+        return channel;
+    }
+}
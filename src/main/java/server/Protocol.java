@@ -0,0 +1,173 @@
+package server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The game server's wire protocol, and the helpers the server and its clients share.
+ * <p>
+ * A client opens a session by connecting and sending its game's seed, 8 bytes. The server answers
+ * with a STATE message, and from then on the client sends moves, one byte each (the Move's ordinal),
+ * and the server answers each with a STEP message, in order. Moves may be sent ahead of their answers.
+ * Closing the connection ends the session.
+ * <p>
+ * Every message from the server is its length (an int, not counting itself) followed by its type
+ * byte and its fields; all numbers are big-endian.
+ * <ul>
+ * <li>STATE: dungeon and floor (bytes), the floor's rows and columns, the player's row, column,
+ * hp, level, xp and gold (ints), then the floor's map (see below).</li>
+ * <li>STEP: flags (byte, see MOVED etc.), the kind of tile stepped at, the battle outcome and the
+ * transition (ordinal bytes, the tile kind -1 if none), the player's row, column, hp, level, xp and
+ * gold (ints); then, if the player took stairs, the new dungeon and floor (bytes), the floor's rows
+ * and columns and its map; and last the map deltas: their count (int) and each changed cell's index
+ * (row * columns + column, int) and new map character (byte).</li>
+ * <li>A map is its length (int) then one map character (byte) per cell, row by row. The map of a
+ * floor of more than MAX_MAP_CELLS cells is sent with a length of 0 instead, and is then sent
+ * straight after the message in MAP_ROWS messages, top to bottom, before anything else.</li>
+ * <li>MAP_ROWS: the first row (int) and the number of rows (int), then one map character (byte) per
+ * cell of those rows, row by row. Each holds as many whole rows as fit in MAX_MAP_CELLS cells, and
+ * at least one.</li>
+ * </ul>
+ * <p>
+ * Addresses are written "host:port", just "port" (on the loopback address) or "unix:path" for a
+ * Unix domain socket.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public final class Protocol {
+
+    // message types
+    public static final byte STATE = 1;
+    public static final byte STEP = 2;
+    public static final byte MAP_ROWS = 3;
+
+    // STEP flags
+    public static final int MOVED = 1;
+    public static final int DOOR_OPENED = 2;
+    public static final int LEVELLED_UP = 4;
+    public static final int ALIVE = 8;
+    public static final int VICTORIOUS = 16;
+
+    // the largest floor whose whole map is sent in one message, and the most cells of a MAP_ROWS message
+    public static final int MAX_MAP_CELLS = 1 << 16;
+
+    private Protocol() {
+    }
+
+    /**
+     * Parses an address written "host:port", "port" or "unix:path"
+     *
+     * @param address - The address
+     * @return The socket address
+     * @throws IllegalArgumentException if the address can't be parsed
+     */
+    public static SocketAddress parseAddress(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(address.substring("unix:".length()));
+        }
+        int colon = address.lastIndexOf(':');
+        try {
+            if (colon < 0) {
+                return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+            }
+            return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid address " + address);
+        }
+    }
+
+    /**
+     * Opens a server channel bound to the given address
+     *
+     * @param address - The address to listen on, TCP or Unix domain
+     * @return The bound channel
+     * @throws IOException if the address can't be bound
+     */
+    public static ServerSocketChannel listen(SocketAddress address) throws IOException {
+        ServerSocketChannel channel = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        try {
+            channel.bind(address, 1024);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Connects to a server at the given address
+     *
+     * @param address - The server's address, TCP or Unix domain
+     * @return The connected channel, in blocking mode
+     * @throws IOException if the server can't be reached
+     */
+    public static SocketChannel connect(SocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        configure(channel);
+        return channel;
+    }
+
+    /**
+     * Sets a connected channel up for small messages: TCP channels send each one at once
+     *
+     * @param channel - The channel
+     * @throws IOException if the option can't be set
+     */
+    static void configure(SocketChannel channel) throws IOException {
+        if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+    }
+
+    /**
+     * Reads from a channel until the buffer is full
+     *
+     * @param channel - The channel to read from
+     * @param buffer - The buffer to fill
+     * @throws EOFException if the channel ends first
+     * @throws IOException if the channel can't be read
+     */
+    public static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("The connection was closed");
+            }
+        }
+    }
+
+    /**
+     * Reads one message from the server: its length, then the message itself
+     *
+     * @param channel - The channel to read from
+     * @param buffer - A buffer to read into, used if big enough
+     * @return The buffer the message was read into, flipped to read it from its type byte
+     * @throws IOException if the channel ends or can't be read
+     */
+    public static ByteBuffer readMessage(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(channel, length);
+        int size = length.getInt(0);
+        if (size < 1) {
+            throw new IOException("Invalid message length " + size);
+        }
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer == null ? 256 : buffer.capacity() * 2));
+        }
+        buffer.clear().limit(size);
+        readFully(channel, buffer);
+        return buffer.flip();
+    }
+}
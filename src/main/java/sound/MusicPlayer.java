@@ -0,0 +1,378 @@
+package sound;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Plays background music, streaming it from its file a little at a time rather than decoding it all
+ * up front, so only a few small buffers are ever held whatever the track's length, and asking for a
+ * track returns at once. A thread of its own reads, converts and writes the music to a SourceDataLine.
+ * A track loops without a gap, its start read on straight after its end, and changing track fades the
+ * old one out as the new one fades in. A track that is missing or can't be read plays as silence.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class MusicPlayer implements AutoCloseable {
+
+    // the format music is converted to and played in: 16-bit signed stereo
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int CHANNELS = 2;
+    private static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+    // the frames converted at a time, and the frames the line buffers (about 46ms and 186ms)
+    private static final int CHUNK_FRAMES = 2048;
+    private static final int LINE_FRAMES = CHUNK_FRAMES * 4;
+    // the length of a crossfade, in frames (1.5 seconds)
+    private static final int FADE_FRAMES = (int) (SAMPLE_RATE * 1.5f);
+
+    /**
+     * A track being streamed: its file decoded a chunk at a time to 16-bit samples at its own rate,
+     * then resampled to the playing rate and stereo, starting again from the top at its end
+     */
+    private static final class Track {
+
+        private final URL url;
+        private AudioInputStream stream;
+        private int channels;
+        // source frames per played frame
+        private double step;
+        // the decoded bytes not yet used, and where they start and end
+        private final byte[] bytes = new byte[8192];
+        private int start;
+        private int end;
+        // the two source frames the played frame lies between, and how far between them it is
+        private final int[] previous = new int[CHANNELS];
+        private final int[] current = new int[CHANNELS];
+        private double position;
+
+        /**
+         * Opens the given file and reads its first frames
+         *
+         * @throws IOException if it can't be read, or has no audio at all
+         */
+        private Track(URL url) throws IOException, UnsupportedAudioFileException {
+            this.url = url;
+            open();
+            if (!readFrame(this.previous)) {
+                close();
+                throw new IOException("The track is empty");
+            }
+            readFrame(this.current);
+        }
+
+        /**
+         * Opens the file from the start, converting it to 16-bit samples at its own rate and channels
+         */
+        private void open() throws IOException, UnsupportedAudioFileException {
+            InputStream in = new BufferedInputStream(this.url.openStream());
+            try {
+                AudioInputStream source = AudioSystem.getAudioInputStream(in);
+                AudioFormat sourceFormat = source.getFormat();
+                this.channels = sourceFormat.getChannels();
+                this.step = sourceFormat.getSampleRate() / SAMPLE_RATE;
+                this.stream = AudioSystem.getAudioInputStream(
+                        new AudioFormat(sourceFormat.getSampleRate(), 16, this.channels, true, false), source);
+            } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+                in.close();
+                throw e;
+            }
+            this.start = 0;
+            this.end = 0;
+        }
+
+        /**
+         * Reads the next source frame, as stereo, going back to the start of the file at its end
+         *
+         * @return False if the file can't be read any further, even from the start
+         */
+        private boolean readFrame(int[] frame) throws IOException, UnsupportedAudioFileException {
+            int frameBytes = 2 * this.channels;
+            boolean reopened = false;
+            while (this.end - this.start < frameBytes) {
+                // keep the partial frame left over, and fill up the rest
+                System.arraycopy(this.bytes, this.start, this.bytes, 0, this.end - this.start);
+                this.end -= this.start;
+                this.start = 0;
+                int read = this.stream.read(this.bytes, this.end, this.bytes.length - this.end);
+                if (read < 0) {
+                    if (reopened) {
+                        return false;
+                    }
+                    // loop straight back to the start, with no silence between
+                    this.stream.close();
+                    open();
+                    reopened = true;
+                } else {
+                    this.end += read;
+                }
+            }
+            for (int channel = 0; channel < CHANNELS; channel++) {
+                int index = this.start + 2 * Math.min(channel, this.channels - 1);
+                frame[channel] = (short) ((this.bytes[index] & 0xFF) | (this.bytes[index + 1] << 8));
+            }
+            this.start += frameBytes;
+            return true;
+        }
+
+        /**
+         * Adds the track's next frames into the given buffer, at the given gain
+         *
+         * @param mix - Interleaved stereo samples to add to
+         * @param fromGain - The gain of the first frame; it goes linearly to toGain over the frames
+         * @param toGain - The gain of the frame after the last
+         */
+        private void mixInto(int[] mix, double fromGain, double toGain) throws IOException, UnsupportedAudioFileException {
+            int frames = mix.length / CHANNELS;
+            for (int frame = 0; frame < frames; frame++) {
+                while (this.position >= 1) {
+                    System.arraycopy(this.current, 0, this.previous, 0, CHANNELS);
+                    if (!readFrame(this.current)) {
+                        return;
+                    }
+                    this.position -= 1;
+                }
+                double gain = fromGain + (toGain - fromGain) * frame / frames;
+                for (int channel = 0; channel < CHANNELS; channel++) {
+                    int a = this.previous[channel];
+                    int b = this.current[channel];
+                    mix[frame * CHANNELS + channel] += (int) Math.round((a + (b - a) * this.position) * gain);
+                }
+                this.position += this.step;
+            }
+        }
+
+        /**
+         * Closes the file, ignoring any error
+         */
+        private void close() {
+            try {
+                this.stream.close();
+            } catch (IOException e) {
+                // nothing more can be done with it
+            }
+        }
+    }
+
+    // where the tracks are loaded from
+    private final Class<?> resourceBase;
+    // the track asked for, or null for silence
+    private volatile String wanted;
+    private volatile boolean closed;
+    private final Thread streamer;
+
+    // the streamer thread's state: the track playing and the one fading in over it (either may be
+    // null for silence), their resource paths, and how far the fade has got
+    private Track playing;
+    private String playingPath;
+    private Track incoming;
+    private String incomingPath;
+    private boolean fading;
+    private int fadeFrame;
+
+    /**
+     * Starts the streamer thread, with nothing playing
+     *
+     * @param resourceBase - The class tracks are loaded as resources of
+     */
+    public MusicPlayer(Class<?> resourceBase) {
+        this.resourceBase = resourceBase;
+        this.streamer = new Thread(this::run, "music-streamer");
+        this.streamer.setDaemon(true);
+        this.streamer.start();
+    }
+
+    /**
+     * Plays the given track on a loop, fading from whatever is playing to it. Returns at once;
+     * does nothing if the track is already playing.
+     *
+     * @param path - The resource path of the track, eg. "/music/track.wav"
+     */
+    public void play(String path) {
+        this.wanted = path;
+        LockSupport.unpark(this.streamer);
+    }
+
+    /**
+     * Fades out whatever is playing. Returns at once.
+     */
+    public void stop() {
+        this.wanted = null;
+        LockSupport.unpark(this.streamer);
+    }
+
+    /**
+     * Stops playing at once, and waits for the streamer thread to close the line. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        LockSupport.unpark(this.streamer);
+        try {
+            this.streamer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Streams whatever track is wanted to the line, a chunk at a time, until closed
+     */
+    private void run() {
+        SourceDataLine line = null;
+        int[] mix = new int[CHUNK_FRAMES * CHANNELS];
+        byte[] out = new byte[CHUNK_FRAMES * FORMAT.getFrameSize()];
+        try {
+            while (!this.closed) {
+                String target = this.wanted;
+                if (!Objects.equals(target, this.fading ? this.incomingPath : this.playingPath)) {
+                    startFade(target);
+                }
+                if (this.playing == null && !this.fading) {
+                    // nothing to play: let the line run dry and wait to be asked for something
+                    if (line != null) {
+                        line.drain();
+                        line.stop();
+                    }
+                    while (!this.closed && Objects.equals(this.wanted, this.playingPath)) {
+                        LockSupport.park(this);
+                    }
+                    continue;
+                }
+                if (line == null) {
+                    line = openLine();
+                    if (line == null) {
+                        return;
+                    }
+                }
+                if (!line.isRunning()) {
+                    line.start();
+                }
+                fillChunk(mix);
+                for (int i = 0; i < mix.length; i++) {
+                    int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                    out[2 * i] = (byte) sample;
+                    out[2 * i + 1] = (byte) (sample >> 8);
+                }
+                line.write(out, 0, out.length); // waits until the line has room, pacing the streamer
+            }
+        } finally {
+            closeTrack(this.playing);
+            closeTrack(this.incoming);
+            if (line != null) {
+                line.stop();
+                line.close();
+            }
+        }
+    }
+
+    /**
+     * Starts fading from the track playing to the given one, dropping any track that was fading in
+     */
+    private void startFade(String target) {
+        closeTrack(this.incoming);
+        this.incoming = target == null ? null : openTrack(target);
+        this.incomingPath = target;
+        this.fading = true;
+        this.fadeFrame = 0;
+    }
+
+    /**
+     * Mixes the next chunk of the tracks playing, finishing the fade once it has run its course
+     */
+    private void fillChunk(int[] mix) {
+        Arrays.fill(mix, 0);
+        int frames = mix.length / CHANNELS;
+        double fadeFrom = this.fading ? (double) this.fadeFrame / FADE_FRAMES : 0;
+        double fadeTo = this.fading ? Math.min(1, (double) (this.fadeFrame + frames) / FADE_FRAMES) : 0;
+        this.playing = mixTrack(this.playing, mix, 1 - fadeFrom, 1 - fadeTo);
+        if (this.fading) {
+            this.incoming = mixTrack(this.incoming, mix, fadeFrom, fadeTo);
+            this.fadeFrame += frames;
+            if (this.fadeFrame >= FADE_FRAMES) {
+                closeTrack(this.playing);
+                this.playing = this.incoming;
+                this.playingPath = this.incomingPath;
+                this.incoming = null;
+                this.incomingPath = null;
+                this.fading = false;
+            }
+        }
+    }
+
+    /**
+     * Mixes a chunk of the given track, if there is one
+     *
+     * @return The track, or null if it couldn't be read any further and was closed
+     */
+    private Track mixTrack(Track track, int[] mix, double fromGain, double toGain) {
+        if (track == null) {
+            return null;
+        }
+        try {
+            track.mixInto(mix, fromGain, toGain);
+            return track;
+        } catch (IOException | UnsupportedAudioFileException e) {
+            System.err.println("Error streaming music: " + e.getMessage());
+            track.close();
+            return null;
+        }
+    }
+
+    /**
+     * Opens the given track
+     *
+     * @return The track, or null if it is missing or can't be read
+     */
+    private Track openTrack(String path) {
+        URL url = this.resourceBase.getResource(path);
+        if (url == null) {
+            return null;
+        }
+        try {
+            return new Track(url);
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            System.err.println("Error loading music " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Closes a track, if there is one
+     */
+    private static void closeTrack(Track track) {
+        if (track != null) {
+            track.close();
+        }
+    }
+
+    /**
+     * Opens a line to play music on
+     *
+     * @return The line, or null if there is no audio device
+     */
+    private static SourceDataLine openLine() {
+        try {
+            SourceDataLine line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, LINE_FRAMES * FORMAT.getFrameSize());
+            return line;
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.println("No audio line for music: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package sound;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Plays short sound effects with little delay. Every effect is decoded once, when the player starts,
+ * into samples in a single format, and a background thread mixes the effects playing into one
+ * SourceDataLine, a few milliseconds at a time. Playing an effect only queues a request for that
+ * thread, so it never waits on audio and can be called from the event dispatch thread.
+ * At most a fixed number of effects play at once; playing another while they all are stops the one
+ * that has played longest to make room for it.
+ * Effects whose files are missing or can't be read, and every effect if there is no audio device,
+ * are silently skipped.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class SoundEffects implements AutoCloseable {
+
+    // the format effects are decoded to and mixed in: 16-bit signed stereo
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int CHANNELS = 2;
+    private static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+    // the frames mixed at a time, and the frames the line buffers (about 6ms and 23ms)
+    private static final int MIX_FRAMES = 256;
+    private static final int LINE_FRAMES = MIX_FRAMES * 4;
+    // the most requests to play waiting for the mixer; more are dropped
+    private static final int MAX_REQUESTS = 64;
+
+    /**
+     * An effect playing, or a free voice if samples is null
+     */
+    private static final class Voice {
+        private short[] samples;
+        // the next sample to mix
+        private int position;
+    }
+
+    // where the effect files are loaded from, and the effects to load
+    private final Class<?> resourceBase;
+    private final String[] names;
+    // each effect's samples, interleaved, by name; filled in by the mixer thread before it plays anything
+    private final Map<String, short[]> effects = new HashMap<>();
+    // the effects waiting to be played, by name
+    private final BlockingQueue<String> requests = new ArrayBlockingQueue<>(MAX_REQUESTS);
+    // the effects playing
+    private final Voice[] voices;
+    // the mixer thread, and whether it has been told to stop
+    private final Thread mixer;
+    private volatile boolean closed;
+
+    // metrics
+    private final AtomicLong played = new AtomicLong();
+    private final AtomicLong stolen = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Starts the mixer thread, which loads the effects and then plays them as they are asked for
+     *
+     * @param resourceBase - The class the effects are loaded as resources of, as "/music/name.wav"
+     * @param names - The names of the effects to load
+     * @param maxVoices - The most effects that can play at once
+     */
+    public SoundEffects(Class<?> resourceBase, String[] names, int maxVoices) {
+        if (maxVoices < 1) {
+            throw new IllegalArgumentException("There must be at least one voice");
+        }
+        this.resourceBase = resourceBase;
+        this.names = names.clone();
+        this.voices = new Voice[maxVoices];
+        for (int i = 0; i < maxVoices; i++) {
+            this.voices[i] = new Voice();
+        }
+        this.mixer = new Thread(this::run, "sound-effects-mixer");
+        this.mixer.setDaemon(true);
+        this.mixer.start();
+    }
+
+    /**
+     * Plays the given effect, as soon as the mixer gets to it. Returns at once.
+     *
+     * @param name - The name of the effect
+     * @return False if the request was dropped, because too many are waiting or the player is closed
+     */
+    public boolean play(String name) {
+        if (this.closed || !this.requests.offer(name)) {
+            this.dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of effects that have started playing
+     *
+     * @return The number of effects played
+     */
+    public long getPlayedCount() {
+        return this.played.get();
+    }
+
+    /**
+     * Returns the number of effects cut short to make room for another
+     *
+     * @return The number of voices stolen
+     */
+    public long getStolenCount() {
+        return this.stolen.get();
+    }
+
+    /**
+     * Returns the number of requests to play that were dropped
+     *
+     * @return The number of requests dropped
+     */
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Stops playing, and waits for the mixer thread to close the line. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.mixer.interrupt();
+        try {
+            this.mixer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loads the effects, opens the line, and mixes effects into it as they are asked for until closed
+     */
+    private void run() {
+        for (String name : this.names) {
+            short[] samples = load(name);
+            if (samples != null) {
+                this.effects.put(name, samples);
+            }
+        }
+        if (this.effects.isEmpty()) {
+            discardRequests();
+            return;
+        }
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, LINE_FRAMES * FORMAT.getFrameSize());
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.println("No audio line for sound effects: " + e.getMessage());
+            discardRequests();
+            return;
+        }
+        line.start();
+        int[] mix = new int[MIX_FRAMES * CHANNELS];
+        byte[] out = new byte[MIX_FRAMES * FORMAT.getFrameSize()];
+        try {
+            while (!this.closed) {
+                // wait for a request while nothing is playing, rather than mixing silence
+                if (!isPlaying()) {
+                    startVoice(this.requests.take());
+                }
+                String name;
+                while ((name = this.requests.poll()) != null) {
+                    startVoice(name);
+                }
+                if (mix(mix) > 0) {
+                    toBytes(mix, out);
+                    line.write(out, 0, out.length); // waits until the line has room, pacing the mixer
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed
+        } finally {
+            line.stop();
+            line.close();
+        }
+    }
+
+    /**
+     * Drops every request, present and future, as there is nothing to play them with
+     */
+    private void discardRequests() {
+        while (!this.closed) {
+            try {
+                this.requests.take();
+                this.dropped.incrementAndGet();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether any voice is playing
+     */
+    private boolean isPlaying() {
+        for (Voice voice : this.voices) {
+            if (voice.samples != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts the given effect in a free voice, or in the voice that has played longest if none are free
+     */
+    private void startVoice(String name) {
+        short[] samples = this.effects.get(name);
+        if (samples == null) {
+            return; // no such effect, or its file is missing
+        }
+        Voice chosen = null;
+        for (Voice voice : this.voices) {
+            if (voice.samples == null) {
+                chosen = voice;
+                break;
+            }
+            if (chosen == null || voice.position > chosen.position) {
+                chosen = voice;
+            }
+        }
+        if (chosen.samples != null) {
+            this.stolen.incrementAndGet();
+        }
+        chosen.samples = samples;
+        chosen.position = 0;
+        this.played.incrementAndGet();
+    }
+
+    /**
+     * Adds the next few milliseconds of every voice playing into the given buffer, freeing the
+     * voices that finish
+     *
+     * @return The number of voices mixed
+     */
+    private int mix(int[] mix) {
+        Arrays.fill(mix, 0);
+        int mixed = 0;
+        for (Voice voice : this.voices) {
+            if (voice.samples == null) {
+                continue;
+            }
+            int count = Math.min(mix.length, voice.samples.length - voice.position);
+            for (int i = 0; i < count; i++) {
+                mix[i] += voice.samples[voice.position + i];
+            }
+            voice.position += count;
+            if (voice.position == voice.samples.length) {
+                voice.samples = null;
+            }
+            mixed++;
+        }
+        return mixed;
+    }
+
+    /**
+     * Writes the mixed samples as little-endian 16-bit samples, clipping any that overflow
+     */
+    private static void toBytes(int[] mix, byte[] out) {
+        for (int i = 0; i < mix.length; i++) {
+            int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[2 * i] = (byte) sample;
+            out[2 * i + 1] = (byte) (sample >> 8);
+        }
+    }
+
+    /**
+     * Loads and decodes the given effect into the mixing format
+     *
+     * @return The effect's interleaved samples, or null if it is missing or can't be read
+     */
+    private short[] load(String name) {
+        URL url = this.resourceBase.getResource("/music/" + name + ".wav");
+        if (url == null) {
+            return null;
+        }
+        try {
+            return decode(url);
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            System.err.println("Error loading sound effect " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decodes an audio file into interleaved 16-bit stereo samples at the mixing rate
+     *
+     * @param url - The file to decode
+     * @return The samples
+     * @throws UnsupportedAudioFileException if the file isn't audio that can be decoded
+     * @throws IOException if the file can't be read
+     */
+    private static short[] decode(URL url) throws UnsupportedAudioFileException, IOException {
+        try (InputStream in = url.openStream();
+             AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(in))) {
+            // to 16-bit signed samples at the file's own rate and channels, which the decoders can always do
+            AudioFormat sourceFormat = source.getFormat();
+            int channels = sourceFormat.getChannels();
+            AudioFormat pcm = new AudioFormat(sourceFormat.getSampleRate(), 16, channels, true, false);
+            byte[] bytes;
+            try (AudioInputStream converted = AudioSystem.getAudioInputStream(pcm, source)) {
+                bytes = converted.readAllBytes();
+            }
+            int frames = bytes.length / (2 * channels);
+            if (frames == 0) {
+                return new short[0];
+            }
+            // then resampled to the mixing rate, and to stereo, by linear interpolation
+            double step = sourceFormat.getSampleRate() / SAMPLE_RATE;
+            int outFrames = (int) Math.floor((frames - 1) / step) + 1;
+            short[] samples = new short[outFrames * CHANNELS];
+            for (int frame = 0; frame < outFrames; frame++) {
+                double position = frame * step;
+                int index = (int) position;
+                double fraction = position - index;
+                int next = Math.min(index + 1, frames - 1);
+                for (int channel = 0; channel < CHANNELS; channel++) {
+                    int sourceChannel = Math.min(channel, channels - 1);
+                    int a = sample(bytes, index * channels + sourceChannel);
+                    int b = sample(bytes, next * channels + sourceChannel);
+                    samples[frame * CHANNELS + channel] = (short) Math.round(a + (b - a) * fraction);
+                }
+            }
+            return samples;
+        }
+    }
+
+    /**
+     * Returns the given little-endian 16-bit sample
+     */
+    private static int sample(byte[] bytes, int index) {
+        return (short) ((bytes[2 * index] & 0xFF) | (bytes[2 * index + 1] << 8));
+    }
+}
@@ -2,18 +2,30 @@ package tile;
 
 /**
  * Simply an empty tile for the player to stand on. Does nothing, but enables there
- * to be empty tiles on the floor.
+ * to be empty tiles on the floor. Empty tiles have no state, so every floor shares the one INSTANCE.
  * 
- * @version 1.0
+ * @version 1.2
  * @author karamimamali
  */
-public class Empty extends tile.Tile {
+public final class Empty extends SharedTile {
+
+    // the Empty tile used for every empty cell
+    public static final Empty INSTANCE = new Empty();
 
     /**
      * Sets the name and description of the Empty tile
      */
-    public Empty() {
-        setName("Empty tile");
-        setDescription("There is nothing here");
+    private Empty() {
+        super("Empty tile", "There is nothing here");
+    }
+
+    /**
+     * Returns the kind of floor tile this is
+     *
+     * @return TileKind.EMPTY
+     */
+    @Override
+    public TileKind getKind() {
+        return TileKind.EMPTY;
     }
 }
@@ -1,18 +1,25 @@
 package tile;
 
+import locations.FloorGrid;
+
 /**
  * A Gold tile for the player to discover and be happy about.
- * Has a certain value that can be varied with eg. difficulty
+ * Has a certain value that can be varied with eg. difficulty.
+ * May be a view over a cell of a FloorGrid, in which case its state lives in the grid.
  *
- * @version 1.1
+ * @version 1.3
  * @author karamimamali
  */
 public class Gold extends tile.Tile {
 
     // the value/amount of gold in this Gold object
     private final int value;
-    // whether this gold has been collected already
+    // whether this gold has been collected already (only used when not backed by a grid)
     private boolean collected = false;
+    // the grid holding this gold's state, or null if the state is held here
+    private final FloorGrid grid;
+    // the index of this gold's cell in the grid
+    private final int cell;
 
     /**
      * Sets name, description and specified value of the Gold tile
@@ -21,8 +28,22 @@ public class Gold extends tile.Tile {
      */
     public Gold(int value) {
         setName("Gold");
-        setDescription("You found some gold!");
         this.value = value;
+        this.grid = null;
+        this.cell = -1;
+    }
+
+    /**
+     * Creates a Gold tile backed by the given cell of a FloorGrid. Collecting it marks the cell as collected.
+     *
+     * @param grid The grid holding the gold's state
+     * @param cell The index of the gold's cell in the grid
+     */
+    public Gold(FloorGrid grid, int cell) {
+        setName("Gold");
+        this.value = grid.getValue(cell);
+        this.grid = grid;
+        this.cell = cell;
     }
 
     /**
@@ -38,9 +59,11 @@ public class Gold extends tile.Tile {
      * Marks this gold as collected
      */
     public void collect() {
-        this.collected = true;
-        // Change description to indicate gold has been collected
-        setDescription("You've already collected the gold from here.");
+        if (this.grid != null) {
+            this.grid.collect(this.cell);
+        } else {
+            this.collected = true;
+        }
     }
 
     /**
@@ -49,6 +72,29 @@ public class Gold extends tile.Tile {
      * @return true if gold has been collected, false otherwise
      */
     public boolean isCollected() {
-        return this.collected;
+        return this.grid != null ? this.grid.isCollected(this.cell) : this.collected;
+    }
+
+    /**
+     * Returns the description of the gold, which changes once it has been collected
+     *
+     * @return The description of the gold
+     */
+    @Override
+    public String getDescription() {
+        if (isCollected()) {
+            return "You've already collected the gold from here.";
+        }
+        return "You found some gold!";
+    }
+
+    /**
+     * Returns the kind of floor tile this is
+     *
+     * @return TileKind.GOLD
+     */
+    @Override
+    public TileKind getKind() {
+        return TileKind.GOLD;
     }
-}
\ No newline at end of file
+}
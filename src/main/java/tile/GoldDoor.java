@@ -1,18 +1,25 @@
 package tile;
 
+import locations.FloorGrid;
+
 /**
  * A GoldDoor tile that requires the player to spend gold to open
  * and pass through it.
+ * May be a view over a cell of a FloorGrid, in which case its state lives in the grid.
  *
- * @version 1.0
+ * @version 1.2
  * @author karamimamali
  */
 public class GoldDoor extends tile.Tile {
 
     // the cost to open this door
     private final int cost;
-    // whether this door has been opened
+    // whether this door has been opened (only used when not backed by a grid)
     private boolean isOpen = false;
+    // the grid holding this door's state, or null if the state is held here
+    private final FloorGrid grid;
+    // the index of this door's cell in the grid
+    private final int cell;
 
     /**
      * Sets the name, description and cost of the GoldDoor tile
@@ -22,7 +29,21 @@ public class GoldDoor extends tile.Tile {
     public GoldDoor(int cost) {
         setName("Gold Door");
         this.cost = cost;
-        setDescription("A heavy door with " + cost + " gold coins embossed on it. You need " + cost + " gold to open it.");
+        this.grid = null;
+        this.cell = -1;
+    }
+
+    /**
+     * Creates a GoldDoor tile backed by the given cell of a FloorGrid. Opening it marks the cell as open.
+     *
+     * @param grid The grid holding the door's state
+     * @param cell The index of the door's cell in the grid
+     */
+    public GoldDoor(FloorGrid grid, int cell) {
+        setName("Gold Door");
+        this.cost = grid.getValue(cell);
+        this.grid = grid;
+        this.cell = cell;
     }
 
     /**
@@ -38,8 +59,11 @@ public class GoldDoor extends tile.Tile {
      * Marks this door as open
      */
     public void open() {
-        this.isOpen = true;
-        setDescription("An opened door that cost you " + cost + " gold.");
+        if (this.grid != null) {
+            this.grid.open(this.cell);
+        } else {
+            this.isOpen = true;
+        }
     }
 
     /**
@@ -48,6 +72,29 @@ public class GoldDoor extends tile.Tile {
      * @return true if door is open, false if it's still closed
      */
     public boolean isOpen() {
-        return this.isOpen;
+        return this.grid != null ? this.grid.isOpen(this.cell) : this.isOpen;
+    }
+
+    /**
+     * Returns the description of the door, which changes once it has been opened
+     *
+     * @return The description of the door
+     */
+    @Override
+    public String getDescription() {
+        if (isOpen()) {
+            return "An opened door that cost you " + cost + " gold.";
+        }
+        return "A heavy door with " + cost + " gold coins embossed on it. You need " + cost + " gold to open it.";
+    }
+
+    /**
+     * Returns the kind of floor tile this is
+     *
+     * @return TileKind.GOLD_DOOR
+     */
+    @Override
+    public TileKind getKind() {
+        return TileKind.GOLD_DOOR;
     }
-}
\ No newline at end of file
+}
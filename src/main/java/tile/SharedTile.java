@@ -0,0 +1,32 @@
+package tile;
+
+/**
+ * A Tile with no state of its own, so a single instance can stand for every cell of its kind on
+ * every floor. Its name and description are fixed when it is created and can't be changed.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public abstract class SharedTile extends Tile {
+
+    /**
+     * Creates a shared tile with the given fixed name and description
+     *
+     * @param name The Tile's name
+     * @param description The Tile's description, or null if it has none
+     */
+    protected SharedTile(String name, String description) {
+        super(name, description);
+    }
+
+    /**
+     * Shared tiles can't be renamed, as the change would show on every cell of their kind
+     *
+     * @param name Ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public final void setName(String name) {
+        throw new UnsupportedOperationException("A shared " + getName() + " tile can't be renamed");
+    }
+}
@@ -1,18 +1,31 @@
 package tile;
 
 /**
- * A Stairs tile, should send the player down a level in the dungeon, or to the next dungeon
+ * A Stairs tile, should send the player down a level in the dungeon, or to the next dungeon.
+ * Stairs have no state, so every floor shares the one INSTANCE.
  * 
- * @version 1.0
+ * @version 1.2
  * @author karamimamali
  */
-public class Stairs extends tile.Tile {
+public final class Stairs extends SharedTile {
+
+    // the Stairs used for every stairs cell
+    public static final Stairs INSTANCE = new Stairs();
 
     /**
      * Sets the name and description of the Stairs tile
      */
-    public Stairs() {
-        setName("Stairs");
-        setDescription("Stairs!");
+    private Stairs() {
+        super("Stairs", "Stairs!");
+    }
+
+    /**
+     * Returns the kind of floor tile this is
+     *
+     * @return TileKind.STAIRS
+     */
+    @Override
+    public TileKind getKind() {
+        return TileKind.STAIRS;
     }
 }
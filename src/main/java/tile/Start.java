@@ -1,17 +1,31 @@
 package tile;
 
 /**
- * A Start tile, where the player will enter each floor
+ * A Start tile, where the player will enter each floor.
+ * Start tiles have no state, so every floor shares the one INSTANCE.
  * 
- * @version 1.0
+ * @version 1.2
  * @author karamimamali
  */
-public class Start extends tile.Tile {
+public final class Start extends SharedTile {
+
+    // the Start tile used for every start cell
+    public static final Start INSTANCE = new Start();
 
     /**
      * Sets the name of the Start tile (description isn't used here)
      */
-    public Start() {
-        setName("Start");
+    private Start() {
+        super("Start", null);
+    }
+
+    /**
+     * Returns the kind of floor tile this is
+     *
+     * @return TileKind.START
+     */
+    @Override
+    public TileKind getKind() {
+        return TileKind.START;
     }
 }
@@ -4,7 +4,7 @@ package tile;
  * A Floor is made up of these. Designed to be inherited by eg. Start, Stairs, Enemy, Player -
  * anything that should be encountered or move around the Floor.
  * 
- * @version 1.0
+ * @version 1.1
  * @author karamimamali
  */
 public class Tile {
@@ -14,6 +14,23 @@ public class Tile {
     // the Tile greeting
     private String description;
 
+    /**
+     * Creates a Tile with no name or description yet
+     */
+    public Tile() {
+    }
+
+    /**
+     * Creates a Tile with the given name and description
+     *
+     * @param name The Tile's name
+     * @param description The Tile's description
+     */
+    protected Tile(String name, String description) {
+        this.name = name;
+        this.description = description;
+    }
+
     /**
      * Sets the Tile's name
      *
@@ -49,4 +66,13 @@ public class Tile {
     public String getDescription() {
         return this.description;
     }
+
+    /**
+     * Returns the kind of floor tile this is, or null if it isn't one (eg. the Player)
+     *
+     * @return The kind of floor tile this is, or null
+     */
+    public TileKind getKind() {
+        return null;
+    }
 }
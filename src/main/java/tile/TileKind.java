@@ -0,0 +1,63 @@
+package tile;
+
+/**
+ * The different kinds of Tile that can make up a Floor, with the behaviour every tile of a kind
+ * shares: the character it is drawn with and whether the player can always walk onto it.
+ * A kind's ordinal is what gets stored per cell in the floor's grid, so new kinds should only ever
+ * be added at the end.
+ *
+ * @version 1.1
+ * @author karamimamali
+ */
+public enum TileKind {
+    WALL('-', false),
+    EMPTY('o', true),
+    START('s', true),
+    STAIRS('x', true),
+    GOLD('g', true),
+    // only passable once opened, which the floor checks
+    GOLD_DOOR('d', false),
+    ENEMY('e', true);
+
+    // cached values() so that looking a kind up by ordinal doesn't copy the array every time
+    private static final TileKind[] KINDS = values();
+
+    // the character the kind is written as in floor plan files and drawn as on the map
+    private final char glyph;
+    // whether the player can always walk onto a tile of this kind
+    private final boolean passable;
+
+    TileKind(char glyph, boolean passable) {
+        this.glyph = glyph;
+        this.passable = passable;
+    }
+
+    /**
+     * Returns the character this kind is written as in floor plan files and drawn as on the map
+     *
+     * @return The kind's map character
+     */
+    public char getGlyph() {
+        return this.glyph;
+    }
+
+    /**
+     * Returns whether the player can always walk onto a tile of this kind. Gold doors aren't, as
+     * they have to be opened first.
+     *
+     * @return True if tiles of this kind can always be walked onto, else false
+     */
+    public boolean isPassable() {
+        return this.passable;
+    }
+
+    /**
+     * Returns the TileKind with the given ordinal, as stored in a floor's grid
+     *
+     * @param ordinal The ordinal of the wanted kind
+     * @return The TileKind with the given ordinal
+     */
+    public static TileKind fromOrdinal(int ordinal) {
+        return KINDS[ordinal];
+    }
+}
@@ -2,18 +2,31 @@ package tile;
 
 /**
  * A wall. Borders the playable tiles on the floor, but the
- * player should not be able to move here or interact with the tile
+ * player should not be able to move here or interact with the tile.
+ * Walls have no state, so every floor shares the one INSTANCE.
  * 
- * @version 1.0
+ * @version 1.2
  * @author karamimamali
  */
-public class Wall extends Tile {
+public final class Wall extends SharedTile {
+
+    // the Wall used for every wall cell
+    public static final Wall INSTANCE = new Wall();
 
     /**
      * Sets the Wall's name and description
      */
-    public Wall() {
-        setName("Wall");
-        setDescription("You cannot walk here");
+    private Wall() {
+        super("Wall", "You cannot walk here");
+    }
+
+    /**
+     * Returns the kind of floor tile this is
+     *
+     * @return TileKind.WALL
+     */
+    @Override
+    public TileKind getKind() {
+        return TileKind.WALL;
     }
 }
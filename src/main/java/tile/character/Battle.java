@@ -1,10 +1,14 @@
 package tile.character;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Handles the battling system, making the player and enemy take turns decreasing each other's hp
- * by certain amounts of damage, and ultimately returning a large string describing the battle
+ * by certain amounts of damage. A battle can be fought straight into a reusable BattleLog, with no
+ * text produced at all, or fought and described with a large string for the UI.
+ * Every damage roll in a battle comes from the battle's own random stream.
  *
- * @version 1.0
+ * @version 2.1
  * @author karamimamali
  */
 public class Battle {
@@ -13,6 +17,8 @@ public class Battle {
     private final tile.character.Player player;
     // the Enemy object that will be battling the player
     private final Enemy enemy;
+    // the stream every damage roll in the battle is made from
+    private final RandomGenerator random;
 
     /**
      * A class for handling a battle between the player and an enemy.
@@ -21,8 +27,20 @@ public class Battle {
      * @param enemy The Enemy object that will be battling the player
      */
     public Battle (Player player, tile.character.Enemy enemy) {
+        this(player, enemy, player.getRandom().nextBattle());
+    }
+
+    /**
+     * A class for handling a battle between the player and an enemy, with damage rolled from the given stream.
+     *
+     * @param player The Player object that will be battling the enemy
+     * @param enemy The Enemy object that will be battling the player
+     * @param random The stream every damage roll in the battle is made from
+     */
+    public Battle (Player player, tile.character.Enemy enemy, RandomGenerator random) {
         this.player = player;
         this.enemy = enemy;
+        this.random = random;
     }
 
     /**
@@ -32,40 +50,55 @@ public class Battle {
      * @return All of the text generated during the (automatic) battle, ready for printing by the UI
      */
     public String startBattle() {
-        // the battle intro
-        StringBuilder output = new StringBuilder("You encountered " + this.enemy.getName() + this.enemy.getDescription() + " Time to battle!");
+        BattleLog log = new BattleLog();
+        fight(log);
+        return BattleFormatter.format(log, this.player, this.enemy);
+    }
 
-        // check if enemy is dead - return info and don't battle if so!
+    /**
+     * Runs the battle logic, making the player and enemy take turns decreasing each other's hp
+     * by certain amounts of damage, and records every attack and the outcome in the given log.
+     * No text is produced.
+     *
+     * @param log The log to record the battle in - cleared first
+     * @return How the battle ended
+     */
+    public BattleLog.Outcome fight(BattleLog log) {
+        log.clear();
+
+        // check if enemy is dead - don't battle if so!
         if (!this.enemy.isAlive()) {
-            return "Here lies the corpse of " + this.enemy.getName();
+            log.finish(BattleLog.Outcome.CORPSE, 0, 0);
+            return BattleLog.Outcome.CORPSE;
         }
 
         while (isOngoing()) { // while both characters are alive
 
-            if (!playerTurn()) { // carry out player's turn and check if enemy was defeated
-                // if enemy was defeated, add relevant messages to string, add xp to player and set enemy as defeated
-                output.append(playerHitEnemyMessage());
-                output.append("\n").append(this.enemy.getGoodbye());
-                output.append("\nYou were victorious! You gained ").append(this.enemy.getXPOnDefeat()).append(" xp.");
-                if (addPlayerXP()) { // will return true on level up
-                    output.append("\nYou levelled up! Your new level is ").append(getLevel(this.player));
-                }
+            int playerDamage = this.player.getStats().getDamage(this.random);
+            if (!this.enemy.decreaseHp(playerDamage)) { // carry out player's turn and check if enemy was defeated
+                // if enemy was defeated, record it, add xp to player and set enemy as defeated
+                log.playerAttack(playerDamage, 0);
+                int xp = this.enemy.getXPOnDefeat();
+                int newLevel = addPlayerXP() ? getLevel(this.player) : 0; // will return true on level up
                 this.enemy.setAlive(false);
+                log.finish(BattleLog.Outcome.WON, xp, newLevel);
+                return BattleLog.Outcome.WON;
             }
+            log.playerAttack(playerDamage, this.enemy.getHp());
 
-            else if (!enemyTurn()) { // carry out enemy's turn and check if player was defeated
-                // if player was defeated, print relevant messages and set player as defeated
-                output.append(enemyHitPlayerMessage());
-                output.append("\n").append(this.enemy.getName()).append(" killed you!");
+            int enemyDamage = this.enemy.getDamage(this.random);
+            // a level 1 enemy can roll 0 damage, a miss, which decreaseHp would reject
+            if (enemyDamage > 0 && !this.player.decreaseHp(enemyDamage)) { // carry out enemy's turn and check if player was defeated
+                // if player was defeated, record it and set player as defeated
+                log.enemyAttack(enemyDamage, 0);
                 this.player.setAlive(false);
+                log.finish(BattleLog.Outcome.LOST, 0, 0);
+                return BattleLog.Outcome.LOST;
             }
-
-            else { // if nobody was defeated, just add relevant info to string and loop
-                output.append(playerHitEnemyMessage());
-                output.append(enemyHitPlayerMessage());
-            }
+            // if nobody was defeated, just record the attack and loop
+            log.enemyAttack(enemyDamage, this.player.getHp());
         }
-        return output.toString();
+        return BattleLog.Outcome.NONE;
     }
 
     /**
@@ -77,42 +110,6 @@ public class Battle {
         return this.player.getStats().addXp(enemy.getXPOnDefeat());
     }
 
-    /**
-     * Handles the player's turn in the battle. Decreases HP from enemy and checks if it has died.
-     *
-     * @return False if enemy is dead, else true
-     */
-    private boolean playerTurn() {
-        return this.enemy.decreaseHp(this.player.getStats().getDamage());
-    }
-
-    /**
-     * Handles the enemy's turn in the battle. Decreases HP from player and checks if it has died.
-     *
-     * @return False if player is dead, else true
-     */
-    private boolean enemyTurn() {
-        return this.player.decreaseHp(this.enemy.getDamage());
-    }
-
-    /**
-     * Returns a suitable String telling the player how much damage the enemy did
-     *
-     * @return A String telling the player how much damage the enemy did
-     */
-    private String playerHitEnemyMessage() {
-        return "\nYou hit " + this.enemy.getName() + " for " + this.player.getStats().getDamage() + "HP.";
-    }
-
-    /**
-     * Return a suitable String describing how much damage the enemy did to the player
-     *
-     * @return A String describing how much damage the enemy did to the player
-     */
-    private String enemyHitPlayerMessage() {
-        return "\n" + this.enemy.getName() + " hits you for " + this.enemy.getDamage() + "HP.";
-    }
-
     /**
      * Returns whether both player and enemy are still alive
      *
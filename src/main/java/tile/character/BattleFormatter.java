@@ -0,0 +1,50 @@
+package tile.character;
+
+/**
+ * Turns a BattleLog into the text shown to the player: the encounter, every hit and how the
+ * battle ended. Kept apart from Battle so that battles nobody will read about produce no text.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class BattleFormatter {
+
+    private BattleFormatter() {
+    }
+
+    /**
+     * Returns a large string describing the battle recorded in the given log
+     *
+     * @param log The log of the battle
+     * @param player The Player that fought the battle
+     * @param enemy The Enemy that fought the battle
+     * @return All of the text describing the battle, ready for printing by the UI
+     */
+    public static String format(BattleLog log, Player player, Enemy enemy) {
+        // there was no battle with an enemy that was already dead
+        if (log.getOutcome() == BattleLog.Outcome.CORPSE) {
+            return "Here lies the corpse of " + enemy.getName();
+        }
+
+        // the battle intro
+        StringBuilder output = new StringBuilder("You encountered " + enemy.getName() + enemy.getDescription() + " Time to battle!");
+        for (int i = 0; i < log.size(); i++) {
+            if (log.isPlayerAttack(i)) {
+                output.append("\nYou hit ").append(enemy.getName()).append(" for ").append(log.getDamage(i)).append("HP.");
+            } else {
+                output.append("\n").append(enemy.getName()).append(" hits you for ").append(log.getDamage(i)).append("HP.");
+            }
+        }
+
+        if (log.getOutcome() == BattleLog.Outcome.WON) {
+            output.append("\n").append(enemy.getGoodbye());
+            output.append("\nYou were victorious! You gained ").append(log.getXpGained()).append(" xp.");
+            if (log.isLevelledUp()) {
+                output.append("\nYou levelled up! Your new level is ").append(log.getNewLevel());
+            }
+        } else if (log.getOutcome() == BattleLog.Outcome.LOST) {
+            output.append("\n").append(enemy.getName()).append(" killed you!");
+        }
+        return output.toString();
+    }
+}
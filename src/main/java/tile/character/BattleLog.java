@@ -0,0 +1,183 @@
+package tile.character;
+
+import java.util.Arrays;
+
+/**
+ * A reusable record of a Battle, kept in primitive arrays rather than text: every attack made (who
+ * attacked, the damage done and the HP the target was left with) and how the battle ended.
+ * Once its arrays have grown to fit the longest battle, recording into it allocates nothing.
+ * BattleFormatter turns a log into the text shown to the player.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class BattleLog {
+
+    /**
+     * How a battle ended
+     */
+    public enum Outcome {
+        // no battle was fought, as the player was not alive to fight it
+        NONE,
+        // the player defeated the enemy
+        WON,
+        // the enemy defeated the player
+        LOST,
+        // the enemy had already been defeated, so there was no battle
+        CORPSE
+    }
+
+    // attacker value for an attack made by the player
+    private static final byte PLAYER = 0;
+    // attacker value for an attack made by the enemy
+    private static final byte ENEMY = 1;
+
+    // who made each attack
+    private byte[] attackers = new byte[16];
+    // the damage done by each attack
+    private int[] damages = new int[16];
+    // the HP the target was left with after each attack, 0 if it was defeated
+    private int[] remainingHp = new int[16];
+    // the number of attacks recorded
+    private int size;
+    // how the battle ended
+    private Outcome outcome = Outcome.NONE;
+    // the xp the player gained, if they won
+    private int xpGained;
+    // the player's new level if they levelled up, else 0
+    private int newLevel;
+
+    /**
+     * Empties the log, ready to record a new battle
+     */
+    public void clear() {
+        this.size = 0;
+        this.outcome = Outcome.NONE;
+        this.xpGained = 0;
+        this.newLevel = 0;
+    }
+
+    /**
+     * Records an attack made by the player
+     *
+     * @param damage The damage done to the enemy
+     * @param enemyHp The HP the enemy was left with, 0 if it was defeated
+     */
+    void playerAttack(int damage, int enemyHp) {
+        add(PLAYER, damage, enemyHp);
+    }
+
+    /**
+     * Records an attack made by the enemy
+     *
+     * @param damage The damage done to the player
+     * @param playerHp The HP the player was left with, 0 if they were defeated
+     */
+    void enemyAttack(int damage, int playerHp) {
+        add(ENEMY, damage, playerHp);
+    }
+
+    /**
+     * Appends an attack, growing the arrays if they are full
+     */
+    private void add(byte attacker, int damage, int hp) {
+        if (this.size == this.attackers.length) {
+            int capacity = this.size * 2;
+            this.attackers = Arrays.copyOf(this.attackers, capacity);
+            this.damages = Arrays.copyOf(this.damages, capacity);
+            this.remainingHp = Arrays.copyOf(this.remainingHp, capacity);
+        }
+        this.attackers[this.size] = attacker;
+        this.damages[this.size] = damage;
+        this.remainingHp[this.size] = hp;
+        this.size++;
+    }
+
+    /**
+     * Records how the battle ended
+     *
+     * @param outcome How the battle ended
+     * @param xpGained The xp the player gained
+     * @param newLevel The player's new level if they levelled up, else 0
+     */
+    void finish(Outcome outcome, int xpGained, int newLevel) {
+        this.outcome = outcome;
+        this.xpGained = xpGained;
+        this.newLevel = newLevel;
+    }
+
+    /**
+     * Returns the number of attacks recorded
+     *
+     * @return The number of attacks recorded
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the given attack was made by the player
+     *
+     * @param i The index of the attack, from 0 to size()-1
+     * @return True if the player made the attack, false if the enemy did
+     */
+    public boolean isPlayerAttack(int i) {
+        return this.attackers[i] == PLAYER;
+    }
+
+    /**
+     * Returns the damage done by the given attack
+     *
+     * @param i The index of the attack, from 0 to size()-1
+     * @return The damage done
+     */
+    public int getDamage(int i) {
+        return this.damages[i];
+    }
+
+    /**
+     * Returns the HP the target of the given attack was left with
+     *
+     * @param i The index of the attack, from 0 to size()-1
+     * @return The target's remaining HP, 0 if it was defeated
+     */
+    public int getRemainingHp(int i) {
+        return this.remainingHp[i];
+    }
+
+    /**
+     * Returns how the battle ended
+     *
+     * @return How the battle ended
+     */
+    public Outcome getOutcome() {
+        return this.outcome;
+    }
+
+    /**
+     * Returns the xp the player gained from the battle
+     *
+     * @return The xp gained, 0 unless the player won
+     */
+    public int getXpGained() {
+        return this.xpGained;
+    }
+
+    /**
+     * Returns whether the player levelled up from the battle
+     *
+     * @return True if the player levelled up, else false
+     */
+    public boolean isLevelledUp() {
+        return this.newLevel > 0;
+    }
+
+    /**
+     * Returns the player's new level, if they levelled up from the battle
+     *
+     * @return The player's new level, or 0 if they didn't level up
+     */
+    public int getNewLevel() {
+        return this.newLevel;
+    }
+}
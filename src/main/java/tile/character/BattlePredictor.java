@@ -0,0 +1,296 @@
+package tile.character;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Predicts how a Battle between a player and an enemy would go - the chance of the player
+ * winning, how many rounds it would last and how much HP the player would lose - without fighting
+ * it, so neither the Player nor the Enemy is changed. Uses the same damage rolls and turn order as
+ * Battle: the player attacks first each round, and a character is defeated by a hit that would take
+ * its HP to 0 or below.
+ * While the battle is small enough the prediction is exact, worked out over every pair of player
+ * and enemy HP values. Larger battles are estimated by simulating many battles in parallel.
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class BattlePredictor {
+
+    // the most (player HP * enemy HP * damage roll combinations) an exact prediction is worked out for
+    private static final long EXACT_LIMIT = 50_000_000L;
+    // the most (player HP * enemy HP) pairs an exact prediction is worked out for, as it keeps three
+    // doubles for each (24MB at this limit)
+    private static final long EXACT_STATE_LIMIT = 1L << 20;
+    // the number of battles simulated for an estimate
+    private static final int DEFAULT_TRIALS = 200_000;
+    // the number of independent chunks the simulated battles are split into
+    private static final int CHUNKS = 64;
+    // the seed used for estimates when none is given, so the same battle is always estimated the same
+    private static final long DEFAULT_SEED = 0x5EEDL;
+
+    /**
+     * The predicted result of a battle
+     */
+    public static final class Prediction {
+
+        // the chance of the player winning, from 0 to 1
+        private final double winProbability;
+        // the expected number of rounds (player attacks) the battle lasts
+        private final double expectedRounds;
+        // the expected HP the player loses, counting a defeat as losing all of it
+        private final double expectedHpLoss;
+        // whether the prediction was worked out exactly rather than estimated
+        private final boolean exact;
+
+        private Prediction(double winProbability, double expectedRounds, double expectedHpLoss, boolean exact) {
+            this.winProbability = winProbability;
+            this.expectedRounds = expectedRounds;
+            this.expectedHpLoss = expectedHpLoss;
+            this.exact = exact;
+        }
+
+        /**
+         * Returns the chance of the player winning the battle
+         *
+         * @return The chance of the player winning, from 0 to 1
+         */
+        public double getWinProbability() {
+            return this.winProbability;
+        }
+
+        /**
+         * Returns the expected number of rounds the battle lasts, where a round starts with the player's attack
+         *
+         * @return The expected number of rounds
+         */
+        public double getExpectedRounds() {
+            return this.expectedRounds;
+        }
+
+        /**
+         * Returns the expected HP the player loses in the battle, counting a defeat as losing all of it
+         *
+         * @return The expected HP lost by the player
+         */
+        public double getExpectedHpLoss() {
+            return this.expectedHpLoss;
+        }
+
+        /**
+         * Returns whether the prediction was worked out exactly, rather than estimated by simulation
+         *
+         * @return True if the prediction is exact, else false
+         */
+        public boolean isExact() {
+            return this.exact;
+        }
+    }
+
+    /**
+     * Predicts a battle between the given player and enemy as they are now. Small battles are worked
+     * out exactly, larger ones are estimated by simulation.
+     *
+     * @param player The Player who would fight
+     * @param enemy The Enemy who would be fought
+     * @return The predicted result of the battle
+     */
+    public static Prediction predict(Player player, Enemy enemy) {
+        if (!enemy.isAlive()) {
+            // a defeated enemy is just walked past, as in Battle
+            return new Prediction(1, 0, 0, true);
+        }
+        if (!player.isAlive()) {
+            return new Prediction(0, 0, 0, true);
+        }
+        return predict(player.getHp(), player.getStats().getLevel(), enemy.getHp(), enemy.getLevel());
+    }
+
+    /**
+     * Predicts a battle between a player and an enemy with the given HP and levels. Small battles are
+     * worked out exactly, larger ones are estimated by simulation.
+     *
+     * @param playerHp The player's current HP
+     * @param playerLevel The player's level, which sets their damage
+     * @param enemyHp The enemy's current HP
+     * @param enemyLevel The enemy's level, which sets its damage
+     * @return The predicted result of the battle
+     */
+    public static Prediction predict(int playerHp, int playerLevel, int enemyHp, int enemyLevel) {
+        long cost = (long) playerHp * enemyHp
+                * PlayerStats.damageRolls(playerLevel) * Enemy.damageRolls(enemyLevel);
+        if (cost <= EXACT_LIMIT && (long) playerHp * enemyHp <= EXACT_STATE_LIMIT) {
+            return predictExactly(playerHp, playerLevel, enemyHp, enemyLevel);
+        }
+        return estimate(playerHp, playerLevel, enemyHp, enemyLevel, DEFAULT_TRIALS, DEFAULT_SEED);
+    }
+
+    /**
+     * Works out a battle between a player and an enemy with the given HP and levels exactly. The time
+     * and memory taken grow with the product of the two HP values, so this is meant for small battles.
+     *
+     * @param playerHp The player's current HP, at least 1
+     * @param playerLevel The player's level, which sets their damage
+     * @param enemyHp The enemy's current HP, at least 1
+     * @param enemyLevel The enemy's level, which sets its damage
+     * @return The exact result of the battle
+     */
+    public static Prediction predictExactly(int playerHp, int playerLevel, int enemyHp, int enemyLevel) {
+        checkHp(playerHp, enemyHp);
+        int[] playerDamages = playerDamages(playerLevel);
+        int[] enemyDamages = enemyDamages(enemyLevel);
+        double playerChance = 1.0 / playerDamages.length;
+        double enemyChance = 1.0 / enemyDamages.length;
+
+        // the result of a battle starting from every (player HP, enemy HP) pair, both from 1 up.
+        // every player attack does at least 1 damage (an enemy's may miss), so each pair only depends
+        // on pairs with less enemy HP and no more player HP, which are worked out before it
+        int width = enemyHp + 1;
+        int size = (playerHp + 1) * width;
+        double[] win = new double[size];
+        double[] rounds = new double[size];
+        double[] loss = new double[size];
+
+        for (int ph = 1; ph <= playerHp; ph++) {
+            for (int eh = 1; eh <= enemyHp; eh++) {
+                double winSum = 0;
+                double roundSum = 0;
+                double lossSum = 0;
+                for (int playerDamage : playerDamages) {
+                    if (playerDamage >= eh) {
+                        // the enemy is defeated this round
+                        winSum += playerChance;
+                        continue;
+                    }
+                    int enemyLeft = eh - playerDamage;
+                    for (int enemyDamage : enemyDamages) {
+                        if (enemyDamage >= ph) {
+                            // the player is defeated this round, losing all their HP
+                            lossSum += playerChance * enemyChance * ph;
+                            continue;
+                        }
+                        int next = (ph - enemyDamage) * width + enemyLeft;
+                        double chance = playerChance * enemyChance;
+                        winSum += chance * win[next];
+                        roundSum += chance * rounds[next];
+                        lossSum += chance * (enemyDamage + loss[next]);
+                    }
+                }
+                int state = ph * width + eh;
+                win[state] = winSum;
+                rounds[state] = 1 + roundSum;
+                loss[state] = lossSum;
+            }
+        }
+        int start = playerHp * width + enemyHp;
+        return new Prediction(win[start], rounds[start], loss[start], true);
+    }
+
+    /**
+     * Estimates a battle between a player and an enemy with the given HP and levels by simulating it
+     * the given number of times, spread over the common fork/join pool. The same seed always gives
+     * the same estimate.
+     *
+     * @param playerHp The player's current HP, at least 1
+     * @param playerLevel The player's level, which sets their damage
+     * @param enemyHp The enemy's current HP, at least 1
+     * @param enemyLevel The enemy's level, which sets its damage
+     * @param trials The number of battles to simulate, at least 1
+     * @param seed The seed the simulated damage rolls are drawn from
+     * @return The estimated result of the battle
+     */
+    public static Prediction estimate(int playerHp, int playerLevel, int enemyHp, int enemyLevel,
+                                      int trials, long seed) {
+        checkHp(playerHp, enemyHp);
+        if (trials <= 0) {
+            throw new IllegalArgumentException("At least one battle must be simulated");
+        }
+        int[] playerDamages = playerDamages(playerLevel);
+        int[] enemyDamages = enemyDamages(enemyLevel);
+
+        // split the random streams up front, so each chunk gets the same stream whichever thread runs it
+        int chunks = Math.min(CHUNKS, trials);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+
+        // wins, rounds and HP lost are counted as whole numbers so that the totals don't depend on the order chunks finish in
+        long[] totals = IntStream.range(0, chunks).parallel()
+                .mapToObj(i -> simulate(randoms[i], trials / chunks + (i < trials % chunks ? 1 : 0),
+                        playerHp, playerDamages, enemyHp, enemyDamages))
+                .reduce(new long[3], BattlePredictor::add);
+        return new Prediction((double) totals[0] / trials, (double) totals[1] / trials,
+                (double) totals[2] / trials, false);
+    }
+
+    /**
+     * Simulates the given number of battles, returning the number won, the total rounds fought and the total HP lost
+     */
+    private static long[] simulate(SplittableRandom random, int trials, int playerHp, int[] playerDamages,
+                                   int enemyHp, int[] enemyDamages) {
+        long[] totals = new long[3];
+        for (int t = 0; t < trials; t++) {
+            int ph = playerHp;
+            int eh = enemyHp;
+            while (true) {
+                totals[1]++;
+                int playerDamage = playerDamages[random.nextInt(playerDamages.length)];
+                if (playerDamage >= eh) {
+                    totals[0]++;
+                    totals[2] += playerHp - ph;
+                    break;
+                }
+                eh -= playerDamage;
+                int enemyDamage = enemyDamages[random.nextInt(enemyDamages.length)];
+                if (enemyDamage >= ph) {
+                    totals[2] += playerHp;
+                    break;
+                }
+                ph -= enemyDamage;
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Returns the sum of two sets of simulation totals
+     */
+    private static long[] add(long[] a, long[] b) {
+        return new long[] {a[0] + b[0], a[1] + b[1], a[2] + b[2]};
+    }
+
+    /**
+     * Returns the damage done by each of a player's equally likely damage rolls
+     */
+    private static int[] playerDamages(int level) {
+        int[] damages = new int[PlayerStats.damageRolls(level)];
+        for (int roll = 0; roll < damages.length; roll++) {
+            damages[roll] = PlayerStats.damageForRoll(level, roll);
+        }
+        return damages;
+    }
+
+    /**
+     * Returns the damage done by each of an enemy's equally likely damage rolls
+     */
+    private static int[] enemyDamages(int level) {
+        int[] damages = new int[Enemy.damageRolls(level)];
+        for (int roll = 0; roll < damages.length; roll++) {
+            damages[roll] = Enemy.damageForRoll(level, roll);
+        }
+        return damages;
+    }
+
+    /**
+     * Checks that both sides of a battle have some HP to lose
+     *
+     * @throws IllegalArgumentException if either HP is below 1
+     */
+    private static void checkHp(int playerHp, int enemyHp) {
+        if (playerHp <= 0 || enemyHp <= 0) {
+            throw new IllegalArgumentException("Both player and enemy HP must be at least 1");
+        }
+    }
+}
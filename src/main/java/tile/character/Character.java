@@ -10,7 +10,7 @@ import tile.Tile;
  * methods to set or increase/decrease them. 'goodbye' messages were removed with the Shopkeeper class -
  * there may need to be changes if this is added back in.
  * 
- * @version 1.0
+ * @version 1.1
  * @author karamimamali
  */
 public class Character extends Tile {
@@ -57,6 +57,15 @@ public class Character extends Tile {
         this.hp = level * 70;
     }
 
+    /**
+     * Sets the character's hitpoints to the given amount, eg. when restoring a saved game
+     *
+     * @param hp The character's hitpoints
+     */
+    protected void setHp(int hp) {
+        this.hp = hp;
+    }
+
     /**
      * Decreases HP by given amount. 
      * 
@@ -1,25 +1,57 @@
 package tile.character;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.security.InvalidParameterException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import locations.FloorGrid;
+import tile.TileKind;
 
 /**
  * This class defines an enemy that can be stored within the floor plan
  * and encountered and fought by the player. Its name and description are randomly
- * chosen from lists defined within the class. It is a subclass of Character and
+ * chosen from tables shared by every enemy, with each enemy only keeping its choices as indices.
+ * It is a subclass of Character and
  * therefore has hp, a level and a living status to aid this as well as damage calculated here.
+ * An Enemy may be a view over a cell of a FloorGrid, in which case its hp and living status live in the grid.
  *
- * @version 1.1
+ * @version 1.5
  * @author karamimamali
  */
 public class Enemy extends Character {
 
-    // a Random object for use by this class
-    private final Random random = new Random();
-    // the 'goodbye' message for this Enemy
-    private String goodbye;
+    // the names an enemy can have
+    private static final String[] NAMES = {
+            "Glarg", "Wharg", "Klang", "Blerp", "Herg", "Flumpk", "Drerf", "Karump", "Blarg", "Klerp"
+    };
+    // the descriptions an enemy can have. Format: You encountered -name-, -description-.
+    private static final String[] DESCRIPTIONS = {
+            ", who is a very hairy monster.",
+            ", a terrifying beasty I must say.",
+            " - ew, slimy.",
+            ". He roars and stomps the ground. Uh-oh.",
+            ". \"Grr!\" they shout, very convincingly.",
+            ". It doesn't seem to like you.",
+            ". Watch out!",
+            ". Woah. Good luck!",
+            ", wow they look disgusting.",
+            ", who does not look happy to see you."
+    };
+    // the messages an enemy can be defeated with
+    private static final String[] GOODBYES = {
+            "The monster comes crashing to the floor...",
+            "Ka-chunk! Blergh!",
+            "Pow! Biff! Wallop! Knock out!"
+    };
+
+    // the indices of this enemy's name, description and 'goodbye' message in the tables
+    private final byte nameIndex;
+    private final byte descriptionIndex;
+    private final byte goodbyeIndex;
+    // the grid holding this enemy's hp and living status, or null if they are held by Character
+    private final FloorGrid grid;
+    // the index of this enemy's cell in the grid
+    private final int cell;
 
     /**
      * The constructor automatically assigns the random name/description/goodbye
@@ -27,41 +59,55 @@ public class Enemy extends Character {
      * @param level The Enemy's level
      */
     public Enemy(int level) {
+        this(level, null, -1, new SplittableRandom());
+    }
+
+    /**
+     * Creates an Enemy backed by the given cell of a FloorGrid, automatically assigning the
+     * random name/description/goodbye from the given stream. Damage and defeat are recorded in the grid.
+     *
+     * @param level The Enemy's level
+     * @param grid The grid holding the enemy's hp and living status
+     * @param cell The index of the enemy's cell in the grid
+     * @param random The stream the enemy's name/description/goodbye are chosen from
+     */
+    public Enemy(int level, FloorGrid grid, int cell, RandomGenerator random) {
         super(level);
-        setName();
-        setDescription();
-        setGoodbye();
+        this.grid = grid;
+        this.cell = cell;
+        this.nameIndex = (byte) random.nextInt(NAMES.length);
+        this.descriptionIndex = (byte) random.nextInt(DESCRIPTIONS.length);
+        this.goodbyeIndex = (byte) random.nextInt(GOODBYES.length);
     }
 
     /**
-     * Sets a random enemy name from the list defined in the method
+     * Returns the enemy's randomly chosen name
+     *
+     * @return The enemy's name
      */
-    private void setName() {
-        List<String> names = new ArrayList<>(Arrays.asList(
-                "Glarg", "Wharg", "Klang", "Blerp", "Herg", "Flumpk", "Drerf", "Karump", "Blarg", "Klerp"));
+    @Override
+    public String getName() {
+        return NAMES[this.nameIndex];
+    }
 
-        setName(getRandomListElement(names));
+    /**
+     * Returns the enemy's randomly chosen description
+     *
+     * @return The enemy's description
+     */
+    @Override
+    public String getDescription() {
+        return DESCRIPTIONS[this.descriptionIndex];
     }
 
     /**
-     * Sets a random enemy description from the list defined in the method
+     * Returns the kind of floor tile this is
+     *
+     * @return TileKind.ENEMY
      */
-    private void setDescription() {
-        // Format: You encountered -name-, -description-.
-        List<String> descriptions = new ArrayList<>(Arrays.asList(
-                ", who is a very hairy monster.",
-                ", a terrifying beasty I must say.",
-                " - ew, slimy.",
-                ". He roars and stomps the ground. Uh-oh.",
-                ". \"Grr!\" they shout, very convincingly.",
-                ". It doesn't seem to like you.",
-                ". Watch out!",
-                ". Woah. Good luck!",
-                ", wow they look disgusting.",
-                ", who does not look happy to see you."
-        ));
-
-        setDescription(getRandomListElement(descriptions));
+    @Override
+    public TileKind getKind() {
+        return TileKind.ENEMY;
     }
 
     /**
@@ -70,40 +116,96 @@ public class Enemy extends Character {
      * @return The set goodbye message for the enemy
      */
     public String getGoodbye() {
-        return this.goodbye;
+        return GOODBYES[this.goodbyeIndex];
     }
 
     /**
-     * Sets a random enemy defeat message from the list defined in the method
+     * Returns the randomized damage this enemy should do
+     *
+     * @param random The stream to roll the damage from
+     * @return The damage this enemy should do per turn - a random value between 50% and 150% of base damage
      */
-    private void setGoodbye() {
-        List<String> goodbyes = new ArrayList<>(Arrays.asList(
-                "The monster comes crashing to the floor...",
-                "Ka-chunk! Blergh!",
-                "Pow! Biff! Wallop! Knock out!"
-        ));
-
-        this.goodbye = getRandomListElement(goodbyes);
+    public int getDamage(RandomGenerator random) {
+        return damageForRoll(this.getLevel(), random.nextInt(damageRolls(this.getLevel())));
     }
 
     /**
-     * Returns a random element from a String list collection. Can handle any size that a Collection can.
+     * Returns the number of equally likely damage rolls an enemy of the given level has
      *
-     * @return A random element from a String list collection
+     * @param level The enemy's level
+     * @return The number of possible damage rolls
      */
-    private String getRandomListElement(List<String> list) {
-        return list.get(this.random.nextInt(list.size()));
+    static int damageRolls(int level) {
+        return level + 1;
     }
 
     /**
-     * Returns the randomized damage this enemy should do
+     * Returns the damage an enemy of the given level does with the given roll
      *
-     * @return The damage this enemy should do per turn - a random value between 50% and 150% of base damage
+     * @param level The enemy's level
+     * @param roll The damage roll, from 0 to damageRolls(level)-1
+     * @return The damage done
+     */
+    static int damageForRoll(int level, int roll) {
+        int baseDamage = level;
+        // a damage between 50% and 150% of the base damage
+        return baseDamage / 2 + roll;
+    }
+
+    /**
+     * Returns the enemy's current hitpoints
+     *
+     * @return The enemy's current hitpoints
+     */
+    @Override
+    public int getHp() {
+        return this.grid != null ? this.grid.getEnemyHp(this.cell) : super.getHp();
+    }
+
+    /**
+     * Decreases HP by given amount, in the grid if this enemy is backed by one
+     *
+     * @param amount The amount of HP to decrease by
+     * @return False resulting HP is <= 0, and the Enemy is therefore dead, else true
+     */
+    @Override
+    public boolean decreaseHp(int amount) {
+        if (this.grid == null) {
+            return super.decreaseHp(amount);
+        }
+        if (amount <= 0) {
+            throw new InvalidParameterException("HP to decrease was <= 0");
+        }
+        int hp = this.grid.getEnemyHp(this.cell);
+        if (hp - amount > 0) {
+            this.grid.setEnemyHp(this.cell, hp - amount);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether or not the enemy is alive
+     *
+     * @return True if enemy is alive, false if not
+     */
+    @Override
+    public boolean isAlive() {
+        return this.grid != null ? !this.grid.isDead(this.cell) : super.isAlive();
+    }
+
+    /**
+     * Sets the living status of the enemy to the given parameter
+     *
+     * @param alive True = enemy alive, False = enemy dead
      */
-    public int getDamage() {
-        int baseDamage = this.getLevel();
-        // Calculate a random damage between 50% and 150% of the base damage
-        return baseDamage / 2 + random.nextInt(baseDamage + 1);
+    @Override
+    public void setAlive(Boolean alive) {
+        if (this.grid != null) {
+            this.grid.setDead(this.cell, !alive);
+        } else {
+            super.setAlive(alive);
+        }
     }
 
     /**
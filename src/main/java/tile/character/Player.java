@@ -5,9 +5,12 @@ import java.awt.Point;
 import locations.Dungeon;
 import locations.Floor;
 import locations.Map;
+import locations.WorldGeneration;
+import rng.GameRandom;
 import tile.Gold;
 import tile.GoldDoor;
 import tile.Tile;
+import tile.TileKind;
 
 /**
  * The Player object, containing the main playTile method, which carries out the relevant effects
@@ -15,7 +18,7 @@ import tile.Tile;
  * The map of the world, containing all Dungeon and Floor objects, is created, held and accessed here.
  * Also keeps track of the location of the player on the current floor.
  *
- * @version 2.1
+ * @version 2.6
  * @author karamimamali
  */
 public class Player extends Character {
@@ -23,15 +26,30 @@ public class Player extends Character {
     // holds and provides methods for the player's xp, level and gold
     private final tile.character.PlayerStats stats;
     // the main Map object, holding all the dungeons and providing some utility methods
-    private final Map worldMap = new Map();
+    private final Map worldMap;
+    // the source of every random choice in the player's game
+    private final GameRandom random;
     // records whether or not the player has won the game
     private boolean victory = false;
     // the id of the Dungeon object the player is currently in
     private int currentDungeonID;
     // the id of the Floor object the player is currently on
     private int currentFloorID;
-    // the current location of the player on the current floor
-    private Point floorLocation;
+    // the current location of the player on the current floor - the row (x) and column (y)
+    private int floorX;
+    private int floorY;
+
+    /**
+     * What happened when the player took a set of stairs
+     */
+    public enum StairsResult {
+        // went down to the next floor of the same dungeon
+        NEXT_FLOOR,
+        // left the last floor of a dungeon for the next dungeon
+        NEXT_DUNGEON,
+        // left the last floor of the last dungeon, winning the game
+        VICTORY
+    }
 
     /**
      * Creates a new PlayerStats object with the given player level, and sets
@@ -40,7 +58,46 @@ public class Player extends Character {
      * @param level The Player's level
      */
     public Player(int level) {
+        this(level, WorldGeneration.LAZY);
+    }
+
+    /**
+     * Creates a new PlayerStats object with the given player level, builds the world map as the given
+     * generation mode says, and sets the player's initial dungeon, floor, floor location and hp.
+     *
+     * @param level The Player's level
+     * @param generation Whether the world's floors are built now, on first use or in the background
+     */
+    public Player(int level, WorldGeneration generation) {
+        this(level, generation, new GameRandom());
+    }
+
+    /**
+     * Creates a new PlayerStats object with the given player level, builds the world map as the given
+     * generation mode says, and sets the player's initial dungeon, floor, floor location and hp.
+     * Every random choice in the game - floors, enemies and battles - comes from the given random
+     * source, so the same seed and the same moves play out the same way.
+     *
+     * @param level The Player's level
+     * @param generation Whether the world's floors are built now, on first use or in the background
+     * @param random The source of every random choice in the game
+     */
+    public Player(int level, WorldGeneration generation, GameRandom random) {
+        this(level, new Map(generation, random));
+    }
+
+    /**
+     * Creates a new PlayerStats object with the given player level, and sets the player's initial
+     * dungeon, floor, floor location and hp in the given world map, eg. one with generated floors.
+     * Every random choice in the game comes from the map's random source.
+     *
+     * @param level The Player's level
+     * @param worldMap The world to play in
+     */
+    public Player(int level, Map worldMap) {
         super(level);
+        this.random = worldMap.getRandom();
+        this.worldMap = worldMap;
         this.stats = new tile.character.PlayerStats(level);
         this.currentDungeonID = 0;
         this.currentFloorID = 0;
@@ -50,15 +107,19 @@ public class Player extends Character {
 
     /**
      * May perform actions depending on the tile given, and returns a string for the ui's playTile
-     * method to print (or check for in the case of an enemy)
+     * method to print (or check for in the case of an enemy). Chooses what to do by the tile's kind.
      *
      * @param tile The Tile to play
      * @return A descriptive String for the UI to print, or check for in the case of Enemy
      */
     public String playTile(Tile tile) {
-        switch (tile.getClass().getSimpleName()) {
+        TileKind kind = tile.getKind();
+        if (kind == null) {
+            return "Error: Player's playTile: not a floor tile. Tile name = " + tile.getName();
+        }
+        switch (kind) {
 
-            case "Enemy":
+            case ENEMY:
                 // cast tile to Enemy
                 Enemy enemy = (Enemy) tile;
                 // create battle
@@ -66,7 +127,7 @@ public class Player extends Character {
                 // start and print results
                 return battle.startBattle();
 
-            case "Gold":
+            case GOLD:
                 Gold gold = (Gold)tile;
                 if (!gold.isCollected()) {
                     stats.addGold(gold.getValue());
@@ -76,7 +137,7 @@ public class Player extends Character {
                     return gold.getDescription(); // Already collected message
                 }
 
-            case "GoldDoor":
+            case GOLD_DOOR:
                 GoldDoor door = (GoldDoor)tile;
                 if (door.isOpen()) {
                     return "An open door. You already paid the " + door.getCost() + " gold toll.";
@@ -91,33 +152,48 @@ public class Player extends Character {
                     }
                 }
 
-            case "Stairs":
-                // try to go down a floor. if there are no more floors to go to...
-                if (!descendFloor()) {
-                    // ...check if this is the last dungeon...
-                    if (getCurrentDungeon().isLastDungeon()) {
-                        // ...if it is, then assume VICTORY!
-                        setVictory();
-                        setAlive(false); // do this to allow victory check in controller
+            case STAIRS:
+                switch (useStairs()) {
+                    case VICTORY:
                         return "";
-                    } else {
-                        // otherwise, go to the next dungeon
-                        setDungeon(this.currentDungeonID+1);
-                        resetHP(); // and reset the player's hp
+                    case NEXT_DUNGEON:
                         return "\n**************\nYou take the stairs. They lead to another dungeon. "
                                 + "Your HP has been reset. Weird.\n\n" + getCurrentDungeon().getIntro() + "\n";
-                    }
-                } else { // if going down a floor was successful:
-                    return "\nYou take the stairs, going down another floor...\n";
+                    default:
+                        return "\nYou take the stairs, going down another floor...\n";
                 }
 
-            case "Start":
+            case START:
                 return getCurrentDungeon().getIntro();
 
-            case "Empty":
+            case EMPTY:
                 return tile.getDescription();
         }
-        return "Error: Player's playTile: end reached. Tile name = " + tile.getClass().getSimpleName();
+        return "Error: Player's playTile: end reached. Tile name = " + tile.getName();
+    }
+
+    /**
+     * Takes the stairs the player is standing on: goes down a floor, or on to the next dungeon
+     * (resetting HP) from the last floor, or wins the game from the last floor of the last dungeon
+     *
+     * @return Where the stairs led
+     */
+    public StairsResult useStairs() {
+        // try to go down a floor. if there are no more floors to go to...
+        if (descendFloor()) {
+            return StairsResult.NEXT_FLOOR;
+        }
+        // ...check if this is the last dungeon...
+        if (getCurrentDungeon().isLastDungeon()) {
+            // ...if it is, then assume VICTORY!
+            setVictory();
+            setAlive(false); // do this to allow victory check in controller
+            return StairsResult.VICTORY;
+        }
+        // otherwise, go to the next dungeon
+        setDungeon(this.currentDungeonID+1);
+        resetHP(); // and reset the player's hp
+        return StairsResult.NEXT_DUNGEON;
     }
 
     /**
@@ -127,12 +203,67 @@ public class Player extends Character {
      * @return true if new location is valid, else false
      */
     public boolean updateLocation(Point direction) {
-        // create a copy of current location point
-        Point clonedPoint = new Point(this.floorLocation.x, this.floorLocation.y);
-        // move in specified direction
-        clonedPoint.translate(direction.x, direction.y);
+        return moveBy(direction.x, direction.y);
+    }
+
+    /**
+     * Updates the player's location on the floor by the given row and column offsets, if the resulting
+     * location is valid. Closed gold doors are opened if the player can afford them.
+     *
+     * @param dx The number of rows to move by
+     * @param dy The number of columns to move by
+     * @return true if new location is valid, else false
+     */
+    public boolean moveBy(int dx, int dy) {
+        int x = this.floorX + dx;
+        int y = this.floorY + dy;
         // check new location is valid, update current location if it is
-        return setFloorLocation(clonedPoint);
+        if (getCurrentFloor().checkValidPlayerLocation(x, y, this)) {
+            this.floorX = x;
+            this.floorY = y;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Puts the player back where a saved game left them: in the given dungeon and floor, at the given
+     * location, with the given hp and living and victory status. The floor is built if it isn't yet.
+     *
+     * @param dungeonID The ID of the dungeon the player is in
+     * @param floorID The ID of the floor the player is on
+     * @param floorX The row the player is at
+     * @param floorY The column the player is at
+     * @param hp The player's hitpoints
+     * @param alive Whether the player is alive
+     * @param victory Whether the player has won the game
+     * @throws IllegalArgumentException if there is no such dungeon or floor, or the location isn't on the floor
+     */
+    public void restore(int dungeonID, int floorID, int floorX, int floorY, int hp, boolean alive, boolean victory) {
+        Dungeon dungeon = this.worldMap.getDungeonByID(dungeonID);
+        if (dungeon == null || floorID < 0 || floorID >= dungeon.getFloorCount()) {
+            throw new IllegalArgumentException("No floor " + floorID + " in dungeon " + dungeonID);
+        }
+        if (dungeon.getFloorByID(floorID).getTileAt(floorX, floorY) == null) {
+            throw new IllegalArgumentException("Location " + floorX + "," + floorY + " is not on the floor");
+        }
+        this.currentDungeonID = dungeonID;
+        this.currentFloorID = floorID;
+        this.floorX = floorX;
+        this.floorY = floorY;
+        setHp(hp);
+        setAlive(alive);
+        this.victory = victory;
+        this.worldMap.prefetchNextFloor(dungeonID, floorID);
+    }
+
+    /**
+     * Returns the world map the player is playing in
+     *
+     * @return The player's Map
+     */
+    public Map getWorldMap() {
+        return this.worldMap;
     }
 
     /**
@@ -181,6 +312,15 @@ public class Player extends Character {
         return this.stats.getLevel();
     }
 
+    /**
+     * Returns the level the player started the game at, which sets their HP whenever it is reset
+     *
+     * @return The player's starting level
+     */
+    public int getStartLevel() {
+        return super.getLevel();
+    }
+
     /**
      * Returns the player's current amount of XP (from PlayerStats)
      *
@@ -227,38 +367,44 @@ public class Player extends Character {
      * @return The current Point location of the player
      */
     public Point getFloorLocation() {
-        return this.floorLocation;
+        return new Point(this.floorX, this.floorY);
     }
 
     /**
-     * Returns the Floor object that the player is currently on
+     * Returns the row (x) of the player's current location on the floor
      *
-     * @return The Floor object that the player is currently on
+     * @return The row of the player's current location
      */
-    public Floor getCurrentFloor() {
-        return this.getCurrentDungeon().getFloorByID(this.currentFloorID);
+    public int getFloorX() {
+        return this.floorX;
     }
 
     /**
-     * Sets the player's location on the current floor to be the given Point, if given Point is valid on the floor
+     * Returns the column (y) of the player's current location on the floor
      *
-     * @param location - The location on the floor to set as the player's location
-     * @return True if location is valid, else false
+     * @return The column of the player's current location
      */
-    private boolean setFloorLocation(Point location) {
-        // Use the enhanced checkValidPlayerLocation method that passes the player object
-        if (getCurrentFloor().checkValidPlayerLocation(location, this)) {
-            this.floorLocation = location;
-            return true;
-        }
-        return false;
+    public int getFloorY() {
+        return this.floorY;
     }
 
     /**
-     * Resets the player's floorLocation to the start tile
+     * Returns the Floor object that the player is currently on
+     *
+     * @return The Floor object that the player is currently on
+     */
+    public Floor getCurrentFloor() {
+        return this.getCurrentDungeon().getFloorByID(this.currentFloorID);
+    }
+
+    /**
+     * Resets the player's floor location to the start tile, and gets the floor after this one ready
      */
     private void resetFloorLocation() {
-        this.floorLocation = getCurrentFloor().getStartPos();
+        Floor floor = getCurrentFloor();
+        this.floorX = floor.getStartX();
+        this.floorY = floor.getStartY();
+        this.worldMap.prefetchNextFloor(this.currentDungeonID, this.currentFloorID);
     }
 
     /**
@@ -267,7 +413,7 @@ public class Player extends Character {
      * @return The floor Tile that the player is currently standing on
      */
     public Tile getFloorTile() {
-        return getCurrentFloor().getTileByPoint(this.floorLocation);
+        return getCurrentFloor().getTileAt(this.floorX, this.floorY);
     }
 
     /**
@@ -277,7 +423,7 @@ public class Player extends Character {
      * @return A string of the character representation of the floor plan
      */
     public String getPrintableMap() {
-        return getCurrentFloor().getFloorMap(this.floorLocation);
+        return getCurrentFloor().getFloorMap(this.floorX, this.floorY);
     }
 
     /**
@@ -304,4 +450,13 @@ public class Player extends Character {
     public tile.character.PlayerStats getStats() {
         return this.stats;
     }
+
+    /**
+     * Returns the source of every random choice in the player's game
+     *
+     * @return The player's GameRandom
+     */
+    public GameRandom getRandom() {
+        return this.random;
+    }
 }
\ No newline at end of file
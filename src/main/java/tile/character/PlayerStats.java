@@ -1,11 +1,11 @@
 package tile.character;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Holds relevant player stats - xp, level and amount of gold - and provides useful methods
  *
- * @version 1.1
+ * @version 1.3
  * @author karamimamali
  */
 public class PlayerStats {
@@ -16,8 +16,6 @@ public class PlayerStats {
     private int level;
     // the amount of gold the player has
     private int gold;
-    // Random object for generating random damage
-    private final Random random = new Random();
 
     /**
      * Initially sets xp and gold to 0, and the level to the given parameter
@@ -39,6 +37,23 @@ public class PlayerStats {
         return this.level;
     }
 
+    /**
+     * Sets the player's level, xp and gold all at once, eg. when restoring a saved game
+     *
+     * @param level The player's level, at least 1
+     * @param xp The player's xp towards the next level, at least 0
+     * @param gold The amount of gold the player has, at least 0
+     * @throws IllegalArgumentException if any of them is out of range
+     */
+    public void restore(int level, int xp, int gold) {
+        if (level < 1 || xp < 0 || gold < 0) {
+            throw new IllegalArgumentException("Invalid stats: level " + level + ", xp " + xp + ", gold " + gold);
+        }
+        this.level = level;
+        this.xp = xp;
+        this.gold = gold;
+    }
+
     /**
      * Increments player level by 1
      */
@@ -103,12 +118,34 @@ public class PlayerStats {
      * Calculates randomized damage based on the player's level.
      * Base damage is level * 2, with a random range of ±50%.
      *
+     * @param random The stream to roll the damage from
      * @return The randomized damage this player should do
      */
-    public int getDamage() {
-        int baseDamage = this.getLevel() * 2;
-        // Calculate a random damage between 50% and 150% of the base damage
-        return baseDamage / 2 + random.nextInt(baseDamage + 1);
+    public int getDamage(RandomGenerator random) {
+        return damageForRoll(this.level, random.nextInt(damageRolls(this.level)));
+    }
+
+    /**
+     * Returns the number of equally likely damage rolls a player of the given level has
+     *
+     * @param level The player's level
+     * @return The number of possible damage rolls
+     */
+    static int damageRolls(int level) {
+        return level * 2 + 1;
+    }
+
+    /**
+     * Returns the damage a player of the given level does with the given roll
+     *
+     * @param level The player's level
+     * @param roll The damage roll, from 0 to damageRolls(level)-1
+     * @return The damage done
+     */
+    static int damageForRoll(int level, int roll) {
+        int baseDamage = level * 2;
+        // a damage between 50% and 150% of the base damage
+        return baseDamage / 2 + roll;
     }
 
     /**
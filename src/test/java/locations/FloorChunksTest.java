@@ -0,0 +1,108 @@
+package locations;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import tile.TileKind;
+
+/**
+ * Tests that chunks read back as they were written once they have been encoded and dropped, in
+ * particular at the sizes where the encoding only just fills the scratch buffer as it grows
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class FloorChunksTest {
+
+    private static final int SIZE = FloorChunks.CHUNK_SIZE;
+    // run counts at which the runs fill the scratch buffer exactly (682, 1364), or overflow it by
+    // a byte and make it double (341), and their neighbours
+    private static final int[] RUNS = {1, 2, 340, 341, 342, 681, 682, 683, 1363, 1364, 1365, SIZE * SIZE};
+    // the numbers of cells with extra state tried with each run count
+    private static final int[] EXTRAS = {0, 1, 2, 93, 94, 372};
+
+    /**
+     * Writes chunks of every run and extra cell count, drops them by using another chunk, and checks
+     * every cell reads back the same
+     */
+    @Test
+    public void readsBackEvictedChunks() {
+        for (int runs : RUNS) {
+            for (int extras : EXTRAS) {
+                // two chunks side by side, only one resident at a time
+                FloorChunks chunks = new FloorChunks(SIZE, 2 * SIZE, 1);
+                fill(chunks, runs, extras);
+                chunks.getKind(0, SIZE); // loads the second chunk, dropping the first
+                assertEquals(1, chunks.getEvictions());
+                check(chunks, runs, extras, runs + " runs, " + extras + " extras");
+            }
+        }
+    }
+
+    /**
+     * Checks the same through FloorGrid, whose toChunked encodes every chunk of a dense grid
+     */
+    @Test
+    public void readsBackChunkedGrids() {
+        for (int runs : RUNS) {
+            FloorGrid grid = new FloorGrid(SIZE, SIZE);
+            for (int x = 0; x < SIZE; x++) {
+                for (int y = 0; y < SIZE; y++) {
+                    grid.setKind(grid.index(x, y), kindAt(x * SIZE + y, runs) == 1 ? TileKind.EMPTY : TileKind.GOLD);
+                }
+            }
+            FloorGrid chunked = grid.toChunked(1);
+            for (int cell = 0; cell < SIZE * SIZE; cell++) {
+                assertEquals(runs + " runs, cell " + cell, grid.getKind(cell), chunked.getKind(cell));
+            }
+        }
+    }
+
+    /**
+     * Fills the first chunk with the given number of runs of tile kinds and of cells with extra state
+     */
+    private static void fill(FloorChunks chunks, int runs, int extras) {
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            int x = cell / SIZE;
+            int y = cell % SIZE;
+            chunks.setKind(x, y, (byte) kindAt(cell, runs));
+            if (hasExtras(cell, extras)) {
+                chunks.setValue(x, y, cell + 1);
+                chunks.setEnemyHp(x, y, cell * 3);
+                chunks.setFlags(x, y, (byte) (cell & 7));
+            }
+        }
+    }
+
+    /**
+     * Checks every cell of the first chunk holds what fill put there
+     */
+    private static void check(FloorChunks chunks, int runs, int extras, String what) {
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            int x = cell / SIZE;
+            int y = cell % SIZE;
+            String where = what + ", cell " + cell;
+            assertEquals(where, kindAt(cell, runs), chunks.getKind(x, y));
+            boolean extra = hasExtras(cell, extras);
+            assertEquals(where, extra ? cell + 1 : 0, chunks.getValue(x, y));
+            assertEquals(where, extra ? cell * 3 : 0, chunks.getEnemyHp(x, y));
+            assertEquals(where, extra ? cell & 7 : 0, chunks.getFlags(x, y));
+        }
+    }
+
+    /**
+     * Returns the kind of the given cell in a chunk of the given number of runs: the kinds alternate
+     * cell by cell for the first runs-1 cells, and the rest of the chunk is one last run
+     */
+    private static int kindAt(int cell, int runs) {
+        return 1 + Math.min(cell, runs - 1) % 2;
+    }
+
+    /**
+     * Returns whether the given cell is one of the first of the given number with extra state
+     */
+    private static boolean hasExtras(int cell, int extras) {
+        return cell < extras;
+    }
+}
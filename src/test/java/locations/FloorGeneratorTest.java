@@ -0,0 +1,84 @@
+package locations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import tile.TileKind;
+
+/**
+ * Tests that a floor generated straight into a chunked grid is the same floor the dense generator
+ * gives from the same stream, and that the stairs of a generated floor can always be reached without gold
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class FloorGeneratorTest {
+
+    // the rows and columns of the floors generated, from a single room up to floors of many chunks
+    private static final int[][] SIZES = {{4, 4}, {5, 9}, {13, 13}, {30, 70}, {129, 260}, {300, 200}};
+    // the seeds each size and difficulty is generated from
+    private static final int SEEDS = 4;
+
+    /**
+     * Generates each floor both ways, the chunked one with only two chunks resident so it keeps
+     * evicting while it is filled, and checks every cell is the same
+     */
+    @Test
+    public void generatesTheSameFloorChunked() {
+        for (int[] size : SIZES) {
+            for (int difficulty = 0; difficulty <= 4; difficulty++) {
+                for (long seed = 0; seed < SEEDS; seed++) {
+                    FloorGrid dense = FloorGenerator.generate(size[0], size[1], difficulty, new SplittableRandom(seed));
+                    FloorGrid chunked = FloorGenerator.generateChunked(size[0], size[1], difficulty,
+                            new SplittableRandom(seed), 2);
+                    String floor = size[0] + "x" + size[1] + " difficulty " + difficulty + " seed " + seed;
+                    assertTrue(floor, chunked.isChunked());
+                    assertEquals(floor, 0, chunked.getResidentChunkCount());
+                    assertEquals(floor, dense.getStartX(), chunked.getStartX());
+                    assertEquals(floor, dense.getStartY(), chunked.getStartY());
+                    for (int cell = 0; cell < size[0] * size[1]; cell++) {
+                        String where = floor + ", cell " + cell;
+                        assertEquals(where, dense.getKind(cell), chunked.getKind(cell));
+                        assertEquals(where, dense.getValue(cell), chunked.getValue(cell));
+                        assertEquals(where, dense.getEnemyHp(cell), chunked.getEnemyHp(cell));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Every generated floor must have a path from the start to the stairs that opens no door
+     */
+    @Test
+    public void reachesTheStairsWithoutGold() {
+        Pathfinder pathfinder = new Pathfinder();
+        for (int[] size : SIZES) {
+            for (int difficulty = 0; difficulty <= 4; difficulty++) {
+                for (long seed = 0; seed < SEEDS; seed++) {
+                    FloorGrid grid = FloorGenerator.generate(size[0], size[1], difficulty, new SplittableRandom(seed));
+                    int stairs = findStairs(grid);
+                    int steps = pathfinder.findPath(grid, grid.getStartX(), grid.getStartY(),
+                            stairs / grid.getCols(), stairs % grid.getCols(), 0, false);
+                    assertTrue(size[0] + "x" + size[1] + " difficulty " + difficulty + " seed " + seed, steps > 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cell of the grid's stairs, or -1 if it has none
+     */
+    private static int findStairs(FloorGrid grid) {
+        for (int cell = 0; cell < grid.getRows() * grid.getCols(); cell++) {
+            if (grid.getKind(cell) == TileKind.STAIRS) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,158 @@
+package replay;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import engine.GameEngine;
+import engine.Move;
+import save.SaveFormatException;
+import save.SaveGame;
+
+/**
+ * Tests that a session recording, of a new game or of one resumed from a save, reads back with
+ * the same moves and final state hash, and still replays to that state
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class SessionRecordingTest {
+
+    // the moves recorded per session
+    private static final int MOVES = 3000;
+
+    /**
+     * Records new games, writes and reads them back, and replays what was read
+     */
+    @Test
+    public void readsBackANewGame() throws IOException {
+        for (long seed = 1; seed <= 8; seed++) {
+            GameEngine engine = new GameEngine(seed);
+            engine.setNarrating(false);
+            SessionRecording recording = new SessionRecording(seed);
+            playAndRecord(engine, recording, new SplittableRandom(seed));
+
+            SessionRecording read = read(write(recording));
+            assertEquals(seed, read.getSeed());
+            assertFalse(read.isResumed());
+            assertSameSession(recording, read);
+            assertTrue(Replayer.replay(read).matches());
+        }
+    }
+
+    /**
+     * Records a game resumed from a save, writes and reads it back, and replays what was read
+     */
+    @Test
+    public void readsBackAResumedGame() throws IOException {
+        GameEngine engine = new GameEngine(5);
+        engine.setNarrating(false);
+        play(engine, new SplittableRandom(5));
+        ByteBuffer encoded = SaveGame.encode(engine.getPlayer());
+        byte[] save = new byte[encoded.remaining()];
+        encoded.get(save);
+
+        GameEngine resumed = new GameEngine(SaveGame.read(Channels.newChannel(new ByteArrayInputStream(save))));
+        resumed.setNarrating(false);
+        SessionRecording recording = new SessionRecording(save);
+        playAndRecord(resumed, recording, new SplittableRandom(6));
+
+        SessionRecording read = read(write(recording));
+        assertTrue(read.isResumed());
+        assertArrayEquals(save, read.getStartSave());
+        assertSameSession(recording, read);
+        assertTrue(Replayer.replay(read).matches());
+    }
+
+    /**
+     * Reads back a session that was never finished, which has no final hash
+     */
+    @Test
+    public void readsBackAnUnfinishedSession() throws IOException {
+        SessionRecording recording = new SessionRecording(9);
+        recording.record(Move.UP);
+        recording.record(Move.LEFT);
+        SessionRecording read = read(write(recording));
+        assertFalse(read.isFinished());
+        assertSameSession(recording, read);
+    }
+
+    /**
+     * Every recording cut short, at any length, must be rejected
+     */
+    @Test
+    public void rejectsTruncatedRecordings() throws IOException {
+        GameEngine engine = new GameEngine(3);
+        engine.setNarrating(false);
+        SessionRecording recording = new SessionRecording(3);
+        playAndRecord(engine, recording, new SplittableRandom(3));
+        byte[] bytes = write(recording);
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows("a recording cut to " + length + " bytes", SaveFormatException.class, () -> read(truncated));
+        }
+    }
+
+    /**
+     * Plays random moves, stopping early if the game ends
+     */
+    private static void play(GameEngine engine, SplittableRandom random) {
+        Move[] values = Move.values();
+        for (int i = 0; i < MOVES && engine.getPlayer().isAlive() && !engine.getPlayer().isVictorious(); i++) {
+            engine.step(values[random.nextInt(values.length)]);
+        }
+    }
+
+    /**
+     * Plays random moves, recording each, then finishes the recording with the final state hash
+     */
+    private static void playAndRecord(GameEngine engine, SessionRecording recording, SplittableRandom random) {
+        Move[] values = Move.values();
+        for (int i = 0; i < MOVES; i++) {
+            Move move = values[random.nextInt(values.length)];
+            recording.record(move);
+            engine.step(move);
+        }
+        recording.finish(Replayer.hashState(engine.getPlayer()));
+    }
+
+    /**
+     * Checks the two recordings hold the same moves and end the same way
+     */
+    private static void assertSameSession(SessionRecording expected, SessionRecording actual) {
+        assertEquals(expected.getMoveCount(), actual.getMoveCount());
+        for (int i = 0; i < expected.getMoveCount(); i++) {
+            assertEquals("move " + i, expected.getMove(i), actual.getMove(i));
+        }
+        assertEquals(expected.isFinished(), actual.isFinished());
+        assertEquals(expected.getFinalHash(), actual.getFinalHash());
+    }
+
+    /**
+     * Returns the bytes the recording is written as
+     */
+    private static byte[] write(SessionRecording recording) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recording.write(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a recording from the given bytes
+     */
+    private static SessionRecording read(byte[] bytes) throws IOException {
+        return SessionRecording.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+}
@@ -0,0 +1,232 @@
+package save;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import engine.GameEngine;
+import engine.Move;
+import engine.StepResult;
+import locations.Dungeon;
+import locations.Floor;
+import locations.FloorGrid;
+import locations.Map;
+import tile.character.Player;
+
+/**
+ * Tests that a saved game reads back as the game it was written from, and that damaged save
+ * files are rejected with a SaveFormatException rather than read as some other game
+ *
+ * @version 1.0
+ * @author karamimamali
+ */
+public class SaveGameTest {
+
+    // the number of games saved (seeded from 1 up), and the moves played before and after saving
+    private static final int GAMES = 12;
+    private static final int MOVES_BEFORE = 2000;
+    private static final int MOVES_AFTER = 1000;
+
+    /**
+     * Saves games part way through and reads them back: the player, every changed floor cell and the
+     * random streams must all come back as they were, so the restored game plays on identically
+     */
+    @Test
+    public void readsBackTheGameWritten() throws IOException {
+        for (long seed = 1; seed <= GAMES; seed++) {
+            SplittableRandom moves = new SplittableRandom(seed);
+            GameEngine original = new GameEngine(seed);
+            original.setNarrating(false);
+            play(original, moves.split(), MOVES_BEFORE);
+
+            Player player = original.getPlayer();
+            Player restored = read(encode(player));
+            assertSamePlayer(player, restored);
+            assertSameFloors(player, restored);
+            assertEquals(player.getRandom().getSeed(), restored.getRandom().getSeed());
+            assertEquals(player.getRandom().getBattleCount(), restored.getRandom().getBattleCount());
+
+            // the same moves from here on must play out the same way in both games
+            GameEngine resumed = new GameEngine(restored);
+            resumed.setNarrating(false);
+            SplittableRandom after = moves.split();
+            Move[] values = Move.values();
+            for (int i = 0; i < MOVES_AFTER; i++) {
+                Move move = values[after.nextInt(values.length)];
+                StepResult expected = original.step(move);
+                int toX = expected.getToX();
+                int toY = expected.getToY();
+                boolean moved = expected.isMoved();
+                StepResult.BattleOutcome battle = expected.getBattleOutcome();
+                int goldDelta = expected.getGoldDelta();
+                StepResult actual = resumed.step(move);
+                assertEquals(toX, actual.getToX());
+                assertEquals(toY, actual.getToY());
+                assertEquals(moved, actual.isMoved());
+                assertEquals(battle, actual.getBattleOutcome());
+                assertEquals(goldDelta, actual.getGoldDelta());
+            }
+            assertSamePlayer(player, restored);
+            assertSameFloors(player, restored);
+        }
+    }
+
+    /**
+     * Reads back a save made through the file methods, to check save() and load() agree
+     */
+    @Test
+    public void savesAndLoadsFiles() throws IOException {
+        GameEngine engine = new GameEngine(42);
+        engine.setNarrating(false);
+        play(engine, new SplittableRandom(42), MOVES_BEFORE);
+        Path file = Files.createTempFile("savegame", ".dat");
+        try {
+            SaveGame.save(engine.getPlayer(), file);
+            Player restored = SaveGame.load(file);
+            assertSamePlayer(engine.getPlayer(), restored);
+            assertSameFloors(engine.getPlayer(), restored);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Every save cut short, at any length, must be rejected
+     */
+    @Test
+    public void rejectsTruncatedSaves() {
+        byte[] save = playedSave(7);
+        for (int length = 0; length < save.length; length++) {
+            byte[] truncated = Arrays.copyOf(save, length);
+            assertThrows("a save cut to " + length + " bytes", SaveFormatException.class, () -> read(truncated));
+        }
+    }
+
+    /**
+     * A save with any one byte changed - in the header, the payload or the checksum - must be rejected
+     */
+    @Test
+    public void rejectsCorruptSaves() {
+        byte[] save = playedSave(11);
+        for (int i = 0; i < save.length; i++) {
+            byte[] corrupt = save.clone();
+            corrupt[i] ^= 0x5A;
+            int index = i;
+            assertThrows("a save with byte " + index + " changed", SaveFormatException.class, () -> read(corrupt));
+        }
+    }
+
+    /**
+     * A save whose checksum doesn't match its payload must be rejected, even if the payload itself is valid
+     */
+    @Test
+    public void rejectsSavesWithABadChecksum() {
+        byte[] save = playedSave(13);
+        save[save.length - 1] ^= 1;
+        SaveFormatException e = assertThrows(SaveFormatException.class, () -> read(save));
+        assertTrue(e.getMessage(), e.getMessage().contains("corrupt"));
+    }
+
+    /**
+     * Plays the given number of random moves, stopping early if the game ends
+     */
+    private static void play(GameEngine engine, SplittableRandom random, int moves) {
+        Move[] values = Move.values();
+        Player player = engine.getPlayer();
+        for (int i = 0; i < moves && player.isAlive() && !player.isVictorious(); i++) {
+            engine.step(values[random.nextInt(values.length)]);
+        }
+    }
+
+    /**
+     * Returns the encoded save of a game played a while from the given seed
+     */
+    private static byte[] playedSave(long seed) {
+        GameEngine engine = new GameEngine(seed);
+        engine.setNarrating(false);
+        play(engine, new SplittableRandom(seed), MOVES_BEFORE);
+        return encode(engine.getPlayer());
+    }
+
+    /**
+     * Returns the bytes the given player's game is saved as
+     */
+    private static byte[] encode(Player player) {
+        ByteBuffer buffer = SaveGame.encode(player);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads a game from the given bytes
+     */
+    private static Player read(byte[] save) throws IOException {
+        return SaveGame.read(Channels.newChannel(new ByteArrayInputStream(save)));
+    }
+
+    /**
+     * Checks the two players have the same stats, status and location
+     */
+    private static void assertSamePlayer(Player expected, Player actual) {
+        assertEquals(expected.getStartLevel(), actual.getStartLevel());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getXp(), actual.getXp());
+        assertEquals(expected.getGold(), actual.getGold());
+        assertEquals(expected.getHp(), actual.getHp());
+        assertEquals(expected.isAlive(), actual.isAlive());
+        assertEquals(expected.isVictorious(), actual.isVictorious());
+        assertEquals(expected.getCurrentDungeonID(), actual.getCurrentDungeonID());
+        assertEquals(expected.getCurrentFloorID(), actual.getCurrentFloorID());
+        assertEquals(expected.getFloorX(), actual.getFloorX());
+        assertEquals(expected.getFloorY(), actual.getFloorY());
+    }
+
+    /**
+     * Checks every cell of every floor the first player's game has built is in the same state in the second's
+     */
+    private static void assertSameFloors(Player expected, Player actual) {
+        Map world = expected.getWorldMap();
+        for (int d = 0; d < world.getHowManyDungeons(); d++) {
+            Dungeon dungeon = world.getDungeonByID(d);
+            for (int f = 0; f < dungeon.getFloorCount(); f++) {
+                Floor floor = dungeon.getBuiltFloor(f);
+                if (floor == null) {
+                    continue;
+                }
+                Floor restored = actual.getWorldMap().getDungeonByID(d).getFloorByID(f);
+                assertNotNull(restored);
+                assertSameCells(floor.getGrid(), restored.getGrid(), "dungeon " + d + " floor " + f);
+            }
+        }
+    }
+
+    /**
+     * Checks the two grids are the same size and every cell is in the same state
+     */
+    private static void assertSameCells(FloorGrid expected, FloorGrid actual, String floor) {
+        assertEquals(floor, expected.getRows(), actual.getRows());
+        assertEquals(floor, expected.getCols(), actual.getCols());
+        for (int cell = 0; cell < expected.getRows() * expected.getCols(); cell++) {
+            String where = floor + " cell " + cell;
+            assertEquals(where, expected.getKind(cell), actual.getKind(cell));
+            assertEquals(where, expected.getValue(cell), actual.getValue(cell));
+            assertEquals(where, expected.getEnemyHp(cell), actual.getEnemyHp(cell));
+            assertEquals(where, expected.isOpen(cell), actual.isOpen(cell));
+            assertEquals(where, expected.isCollected(cell), actual.isCollected(cell));
+            assertEquals(where, expected.isDead(cell), actual.isDead(cell));
+        }
+    }
+}